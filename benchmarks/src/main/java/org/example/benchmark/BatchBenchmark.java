@@ -0,0 +1,69 @@
+package org.example.benchmark;
+
+import org.example.entity.Query;
+import org.example.exception.FilterException;
+import org.example.service.Data;
+import org.example.trie.Trie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк пакета запросов с пересекающимися префиксами: выполнение по одному запросу
+ * через {@link Trie#search(String, String, int, int)} и общим обходом через {@link Trie#searchAll(List)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    private static final String[] PREFIXES = {"a", "al", "b", "bo", "bos", "s", "sa", "san", "sh", "m", "ma", "mar"};
+    private static final String[] FILTERS = {
+            "",
+            "column[1]>1000",
+            "column[9]>1000 || column[4]<>\"Russia\"",
+            "column[7]<60 & column[13]=\"airport\""
+    };
+    private Trie airports;
+    private List<Query> queries;
+
+    @Setup
+    public void setup() throws IOException {
+        airports = Data.readData();
+        Random random = new Random(42);
+        queries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            queries.add(new Query(PREFIXES[random.nextInt(PREFIXES.length)],
+                    FILTERS[random.nextInt(FILTERS.length)], 0, Trie.NO_LIMIT));
+        }
+    }
+
+    @Benchmark
+    public int single() throws FilterException {
+        int rows = 0;
+        for (Query query : queries) {
+            rows += airports.search(query.getPrefix(), query.getFilter(), query.getOffset(), query.getLimit()).size();
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public List<List<String>> shared() throws FilterException {
+        return airports.searchAll(queries);
+    }
+}
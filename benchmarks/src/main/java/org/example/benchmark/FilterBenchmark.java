@@ -0,0 +1,57 @@
+package org.example.benchmark;
+
+import org.example.exception.FilterException;
+import org.example.filter.RowPredicate;
+import org.example.service.Filter;
+import org.example.store.ArrayRowStore;
+import org.example.store.RowStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк разбора фильтра на лексемы и компиляции лексем в дерево предикатов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+    @Param({
+            "column[1]>1000",
+            "column[1]>10 & column[5]=\"GKA\"",
+            "(column[9]>1000 || column[4]<>\"Russia\") & column[7]<60 & column[13]=\"airport\""
+    })
+    private String filter;
+    private RowStore store;
+    private List<Filter.Lexeme> lexemes;
+
+    @Setup
+    public void setup() throws FilterException {
+        store = new ArrayRowStore();
+        lexemes = Filter.Lexeme.lexAnalyze(filter);
+    }
+
+    @Benchmark
+    public List<Filter.Lexeme> lexAnalyze() throws FilterException {
+        return Filter.Lexeme.lexAnalyze(filter);
+    }
+
+    @Benchmark
+    public RowPredicate compile() throws FilterException {
+        return Filter.compile(lexemes, store);
+    }
+}
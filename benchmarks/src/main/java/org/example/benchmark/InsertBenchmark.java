@@ -0,0 +1,68 @@
+package org.example.benchmark;
+
+import org.example.store.MappedRowStore;
+import org.example.trie.AirportTrie;
+import org.example.trie.Trie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк вставки всех названий аэропортов в пустое {@link AirportTrie} по одному
+ * и через {@link Trie#insertAll(List, int)}, которое строит поддеревья параллельно.
+ * Названия читаются из файла заранее, поэтому измеряется только построение дерева.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertBenchmark {
+    private MappedRowStore store;
+    private String[] names;
+    private List<String> nameList;
+
+    @Setup
+    public void setup() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get("airports.csv"), StandardOpenOption.READ)) {
+            store = new MappedRowStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        names = new String[store.size()];
+        for (int row = 0; row < names.length; row++) {
+            names[row] = store.getName(row);
+        }
+        nameList = Arrays.asList(names);
+    }
+
+    @Benchmark
+    public Trie insert() {
+        Trie trie = new AirportTrie(store);
+        for (int row = 0; row < names.length; row++) {
+            trie.insert(names[row], row);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    public Trie insertAll() {
+        Trie trie = new AirportTrie(store);
+        trie.insertAll(nameList, 0);
+        return trie;
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.benchmark;
+
+import org.example.entity.Column;
+import org.example.service.CsvParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк разбора всего файла "airports.csv" в типизированные строки:
+ * прежний разбор через строки ({@link #strings}) против разбора байтов {@link CsvParser} ({@link #bytes}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private byte[] content;
+
+    @Setup
+    public void setup() throws IOException {
+        content = Files.readAllBytes(Paths.get("airports.csv"));
+    }
+
+    @Benchmark
+    public void strings(Blackhole blackhole) {
+        String text = new String(content, StandardCharsets.UTF_8);
+        for (String line : text.split("\n")) {
+            String[] parts = parseCsvLine(line);
+            Object[] data = new Object[Column.values().length];
+            for (Column column : Column.values()) {
+                String value = parts[column.getNumber() - 1];
+                switch (column.getType()) {
+                    case INTEGER:
+                        data[column.getIndex()] = Integer.parseInt(value);
+                        break;
+                    case DOUBLE:
+                        data[column.getIndex()] = Double.parseDouble(value);
+                        break;
+                    default:
+                        data[column.getIndex()] = value;
+                        break;
+                }
+            }
+            blackhole.consume(parts[1]);
+            blackhole.consume(data);
+        }
+    }
+
+    @Benchmark
+    public void bytes(Blackhole blackhole) {
+        CsvParser parser = new CsvParser(content, 0, content.length);
+        while (parser.next()) {
+            Object[] data = new Object[Column.values().length];
+            for (Column column : Column.values()) {
+                int field = column.getNumber() - 1;
+                switch (column.getType()) {
+                    case INTEGER:
+                        data[column.getIndex()] = parser.getInt(field);
+                        break;
+                    case DOUBLE:
+                        data[column.getIndex()] = parser.getDouble(field);
+                        break;
+                    default:
+                        data[column.getIndex()] = parser.getString(field);
+                        break;
+                }
+            }
+            blackhole.consume(parser.getString(1));
+            blackhole.consume(data);
+        }
+    }
+
+    /**
+     * Прежний разбор строки CSV-файла из {@code Data.parseCsvLine}, оставленный для сравнения.
+     */
+    private static String[] parseCsvLine(String line) {
+        String[] parts = new String[14];
+        StringBuilder sb = new StringBuilder();
+        boolean counter_flag = false;
+        for (int i = 0, j = 0; j < line.length(); j++) {
+            char current = line.charAt(j);
+            switch (current) {
+                case ',':
+                    if (counter_flag) {
+                        sb.append(current);
+                    } else {
+                        parts[i] = sb.toString();
+                        sb = new StringBuilder();
+                        i++;
+                    }
+                    break;
+                case '\"':
+                    counter_flag = !counter_flag;
+                    break;
+                default:
+                    sb.append(current);
+                    break;
+            }
+            parts[i] = sb.toString();
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.benchmark;
+
+import org.example.exception.FilterException;
+import org.example.service.Data;
+import org.example.trie.Trie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк поиска по префиксу в {@link org.example.trie.AirportTrie} для коротких и длинных префиксов
+ * и фильтров разной сложности. Измеряется {@link Trie#search(String, String, int, int)},
+ * то есть поиск, фильтрация и формирование строк без вывода в консоль.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"", "B", "Bo", "Sheremetyevo"})
+    private String prefix;
+    @Param({
+            "",
+            "column[1]>1000",
+            "column[1]>10 & column[5]=\"GKA\"",
+            "(column[9]>1000 || column[4]<>\"Russia\") & column[7]<60 & column[13]=\"airport\""
+    })
+    private String filter;
+    private Trie airports;
+
+    @Setup
+    public void setup() throws IOException {
+        airports = Data.readData();
+    }
+
+    @Benchmark
+    public List<String> search() throws FilterException {
+        return airports.search(prefix, filter, 0, Trie.NO_LIMIT);
+    }
+}
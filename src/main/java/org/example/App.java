@@ -1,21 +1,252 @@
 package org.example;
 
+import org.example.cache.QueryCache;
+import org.example.entity.Column;
+import org.example.entity.ColumnType;
 import org.example.exception.FilterException;
+import org.example.metrics.SearchMetrics;
+import org.example.service.Batch;
 import org.example.service.Data;
+import org.example.service.DataWatcher;
+import org.example.service.Server;
 import org.example.service.UI;
+import org.example.store.ArrayRowStore;
+import org.example.store.ColumnarRowStore;
+import org.example.store.MutableRowStore;
+import org.example.store.RowStore;
+import org.example.trie.AirportTrie;
+import org.example.trie.CachingTrie;
+import org.example.trie.LockingTrie;
+import org.example.trie.RadixTrie;
+import org.example.trie.SourceOutputTrie;
 import org.example.trie.Trie;
 
+import javax.management.JMException;
 import java.io.*;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
 /**
 
  Главный класс приложения, который запускает поиск аэропортов по префиксу и фильтрует результаты.
+ С аргументом {@code --low-memory} данные не загружаются в память, а читаются из отображенного в память файла,
+ с аргументом {@code --columnar} данные хранятся по колонкам в {@link ColumnarRowStore},
+ с аргументом {@code --radix} вместо {@link AirportTrie} используется сжатое дерево {@link RadixTrie},
+ с аргументом {@code --indexes} строятся вторичные индексы по числовым колонкам и битовые индексы по строковым колонкам с небольшим количеством значений,
+ с аргументом {@code --image} поиск выполняется по отображенному в память образу индекса,
+ с аргументом {@code --watch} изменения файла применяются к дереву во время работы,
+ с аргументом {@code --parallel} файл разбирается параллельно, а большие поддеревья обходятся параллельно.
+ Аргументы {@code --offset=N} и {@code --limit=N} задают страницу результатов каждого запроса.
+ Аргумент {@code --cache-entries=N} включает кэш результатов на N запросов, {@code --cache-bytes=N}
+ ограничивает его объем в байтах.
+ Аргумент {@code --fuzzy=N} включает поиск с опечатками: префикс может отличаться от начала названия
+ не больше чем на N вставок, удалений и замен символов, а строки выводятся в порядке расстояния.
+ С аргументом {@code --contains} вместо префикса вводится подстрока, которую должны содержать названия.
+ Аргумент {@code --column=N} включает поиск по префиксу значения строковой колонки N вместо названия.
+ Аргумент {@code --batch=FILE} выполняет запросы из файла без участия пользователя.
+ С аргументом {@code --raw-output} строки вывода складываются из байтов полей CSV-файла без сборки из значений колонок.
+ Метрики поиска публикуются через JMX, а с аргументом {@code --metrics} выводятся при выходе.
+ Аргумент {@code --server=PORT} запускает HTTP-сервер поиска на заданном порту localhost вместо консольных запросов.
  */
 public class App {
+    /**
+     * Аргумент командной строки, включающий режим экономии памяти.
+     */
+    private static final String LOW_MEMORY = "--low-memory";
+    /**
+     * Аргумент командной строки, включающий колоночное хранилище строк.
+     */
+    private static final String COLUMNAR = "--columnar";
+    /**
+     * Аргумент командной строки, включающий сжатое префиксное дерево.
+     */
+    private static final String RADIX = "--radix";
+    /**
+     * Аргумент командной строки, включающий вторичные индексы по числовым колонкам.
+     */
+    private static final String INDEXES = "--indexes";
+    /**
+     * Аргумент командной строки, включающий поиск по образу индекса.
+     */
+    private static final String IMAGE = "--image";
+    /**
+     * Аргумент командной строки, включающий применение изменений файла во время работы.
+     */
+    private static final String WATCH = "--watch";
+    /**
+     * Аргумент командной строки, включающий вывод исходных строк CSV-файла.
+     */
+    private static final String RAW_OUTPUT = "--raw-output";
+    /**
+     * Аргумент командной строки, включающий параллельную загрузку и параллельный поиск.
+     */
+    private static final String PARALLEL = "--parallel";
+    /**
+     * Аргумент командной строки, задающий количество пропускаемых строк результата.
+     */
+    private static final String OFFSET = "--offset=";
+    /**
+     * Аргумент командной строки, задающий максимальное количество выводимых строк.
+     */
+    private static final String LIMIT = "--limit=";
+    /**
+     * Аргумент командной строки, включающий поиск по подстроке названия.
+     */
+    private static final String CONTAINS = "--contains";
+    /**
+     * Аргумент командной строки, включающий поиск по префиксу строковой колонки и задающий ее номер.
+     */
+    private static final String COLUMN = "--column=";
+    /**
+     * Аргумент командной строки, включающий поиск с опечатками и задающий допустимое расстояние Левенштейна.
+     */
+    private static final String FUZZY = "--fuzzy=";
+    /**
+     * Аргумент командной строки, включающий кэш результатов и задающий количество его записей.
+     */
+    private static final String CACHE_ENTRIES = "--cache-entries=";
+    /**
+     * Аргумент командной строки, задающий максимальный объем кэша результатов в байтах.
+     */
+    private static final String CACHE_BYTES = "--cache-bytes=";
+    /**
+     * Аргумент командной строки, включающий вывод метрик поиска при выходе.
+     */
+    private static final String METRICS = "--metrics";
+    /**
+     * Аргумент командной строки, задающий файл запросов для пакетной обработки.
+     */
+    private static final String BATCH = "--batch=";
+    /**
+     * Аргумент командной строки, включающий HTTP-сервер поиска и задающий его порт.
+     */
+    private static final String SERVER = "--server=";
+    /**
+     * Объем кэша результатов по умолчанию в байтах.
+     */
+    private static final int DEFAULT_CACHE_BYTES = 16 * 1024 * 1024;
 
     public static void main(String[] args) throws IOException, FilterException {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
-            Trie airports = Data.readData();
-            UI.processUserRequest(reader, airports);
+            List<String> arguments = Arrays.asList(args);
+            try {
+                SearchMetrics.getInstance().register();
+            } catch (JMException e) {
+                System.err.println("Не удается опубликовать метрики поиска через JMX: " + e.getMessage());
+            }
+            Function<RowStore, Trie> trieFactory = arguments.contains(RADIX) ? RadixTrie::new : AirportTrie::new;
+            MutableRowStore store = arguments.contains(COLUMNAR) ? new ColumnarRowStore() : new ArrayRowStore();
+            boolean watch = arguments.contains(WATCH);
+            if (watch && (arguments.contains(IMAGE) || arguments.contains(LOW_MEMORY))) {
+                throw new IllegalArgumentException("Аргумент " + WATCH + " нельзя использовать вместе с " + IMAGE + " и " + LOW_MEMORY);
+            }
+            if (watch && arguments.contains(RAW_OUTPUT)) {
+                throw new IllegalArgumentException("Аргумент " + WATCH + " нельзя использовать вместе с " + RAW_OUTPUT);
+            }
+            Trie airports;
+            if (watch) {
+                airports = new LockingTrie(trieFactory.apply(store));
+            } else if (arguments.contains(IMAGE)) {
+                airports = Data.loadImage(trieFactory);
+            } else if (arguments.contains(LOW_MEMORY)) {
+                airports = Data.mapData(trieFactory);
+            } else if (arguments.contains(PARALLEL)) {
+                airports = Data.readDataParallel(store, trieFactory);
+            } else {
+                airports = Data.readData(store, trieFactory);
+            }
+            if (arguments.contains(INDEXES)) {
+                airports.createIndexes();
+            }
+            if (arguments.contains(PARALLEL)) {
+                airports.setParallel(true);
+            }
+            int offset = intArgument(arguments, OFFSET, 0);
+            int limit = intArgument(arguments, LIMIT, Trie.NO_LIMIT);
+            int cacheEntries = intArgument(arguments, CACHE_ENTRIES, 0);
+            CachingTrie cachingTrie = null;
+            if (cacheEntries > 0) {
+                QueryCache cache = new QueryCache(cacheEntries, intArgument(arguments, CACHE_BYTES, DEFAULT_CACHE_BYTES));
+                airports = cachingTrie = new CachingTrie(airports, cache);
+            }
+            if (arguments.contains(RAW_OUTPUT)) {
+                airports = new SourceOutputTrie(airports, Data.mapLines());
+            }
+            DataWatcher watcher = null;
+            if (watch) {
+                watcher = new DataWatcher(store, airports);
+                watcher.load();
+                watcher.start();
+            }
+            int column = intArgument(arguments, COLUMN, -1);
+            if (column >= 0 && (Column.byNumber(column) == null || Column.byNumber(column).getType() != ColumnType.STRING)) {
+                throw new IllegalArgumentException("Колонка " + column + " аргумента " + COLUMN + " не является строковой");
+            }
+            int port = intArgument(arguments, SERVER, -1);
+            String batch = argument(arguments, BATCH);
+            if (batch != null) {
+                Batch.process(Paths.get(batch), airports, offset, limit);
+            } else if (port >= 0) {
+                Server server = new Server(airports, port);
+                server.start();
+                System.out.println("Сервер поиска запущен: http://localhost:" + server.getPort() + "/search?prefix=...&filter=...");
+                UI.awaitEnd(reader);
+                server.stop();
+            } else if (column >= 0) {
+                UI.processColumnRequest(reader, airports, column, offset, limit);
+            } else if (arguments.contains(CONTAINS)) {
+                UI.processSubstringRequest(reader, airports, offset, limit);
+            } else {
+                UI.processUserRequest(reader, airports, offset, limit, intArgument(arguments, FUZZY, 0));
+            }
+            if (watcher != null) {
+                watcher.close();
+            }
+            if (cachingTrie != null) {
+                QueryCache cache = cachingTrie.getCache();
+                System.out.println("Кэш запросов: попаданий " + cache.getHits() + ", промахов " + cache.getMisses());
+            }
+            if (arguments.contains(METRICS)) {
+                System.out.println(SearchMetrics.getInstance().report());
+            }
         }
     }
+
+    /**
+     * Получает значение аргумента командной строки вида {@code --name=VALUE}.
+     *
+     * @param arguments аргументы командной строки.
+     * @param name      имя аргумента вместе с символом '='.
+     * @return значение аргумента или null, если аргумент не указан.
+     */
+    private static String argument(List<String> arguments, String name) {
+        for (String argument : arguments) {
+            if (argument.startsWith(name)) {
+                return argument.substring(name.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Получает значение целочисленного аргумента командной строки вида {@code --name=N}.
+     *
+     * @param arguments    аргументы командной строки.
+     * @param name         имя аргумента вместе с символом '='.
+     * @param defaultValue значение, если аргумент не указан.
+     * @return значение аргумента.
+     */
+    private static int intArgument(List<String> arguments, String name, int defaultValue) {
+        for (String argument : arguments) {
+            if (argument.startsWith(name)) {
+                int value = Integer.parseInt(argument.substring(name.length()));
+                if (value < 0) {
+                    throw new IllegalArgumentException("Значение аргумента " + argument + " не может быть отрицательным");
+                }
+                return value;
+            }
+        }
+        return defaultValue;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+package org.example.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ограниченный кэш результатов поиска с вытеснением давно не использованных записей (LRU).
+ * Размер ограничивается как количеством записей, так и оценкой занимаемой памяти.
+ * Методы класса синхронизированы, поэтому кэш можно использовать из нескольких потоков.
+ */
+public class QueryCache {
+    /**
+     * Оценка накладных расходов на одну строку результата в байтах.
+     */
+    private static final int LINE_OVERHEAD = 56;
+    /**
+     * Оценка накладных расходов на одну запись кэша в байтах.
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+    /**
+     * Максимальное количество записей.
+     */
+    private final int maxEntries;
+    /**
+     * Максимальный оценочный объем записей в байтах.
+     */
+    private final long maxBytes;
+    /**
+     * Записи кэша в порядке последнего обращения.
+     */
+    private final LinkedHashMap<String, Entry> entries;
+    /**
+     * Текущий оценочный объем записей в байтах.
+     */
+    private long bytes;
+    /**
+     * Номер поколения данных, увеличивается при каждой очистке кэша.
+     */
+    private long generation;
+    /**
+     * Количество попаданий в кэш.
+     */
+    private long hits;
+    /**
+     * Количество промахов кэша.
+     */
+    private long misses;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param maxEntries максимальное количество записей.
+     * @param maxBytes   максимальный оценочный объем записей в байтах.
+     */
+    public QueryCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Получает результат запроса из кэша.
+     *
+     * @param key ключ запроса.
+     * @return неизменяемый список строк результата или null, если результата в кэше нет.
+     */
+    public synchronized List<String> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+
+    /**
+     * Получает номер поколения данных. Его нужно запомнить до вычисления результата
+     * и передать в {@link #put(String, List, long)}.
+     *
+     * @return номер поколения данных.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Помещает результат запроса в кэш, вытесняя давно не использованные записи.
+     * Результаты, которые больше всего кэша, не сохраняются. Результаты, вычисленные
+     * до последней очистки кэша, тоже не сохраняются, так как могут быть устаревшими.
+     *
+     * @param key        ключ запроса.
+     * @param result     строки результата.
+     * @param generation номер поколения данных, полученный до вычисления результата.
+     * @return неизменяемый список строк результата.
+     */
+    public synchronized List<String> put(String key, List<String> result, long generation) {
+        List<String> value = Collections.unmodifiableList(result);
+        long size = estimate(key, result);
+        if (size > maxBytes || maxEntries == 0 || generation != this.generation) {
+            return value;
+        }
+        Entry previous = entries.put(key, new Entry(value, size));
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += size;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            Entry eldest = iterator.next().getValue();
+            bytes -= eldest.size;
+            iterator.remove();
+        }
+        return value;
+    }
+
+    /**
+     * Удаляет все записи кэша. Вызывается при изменении данных.
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+        bytes = 0;
+        generation++;
+    }
+
+    /**
+     * Получает количество попаданий в кэш.
+     *
+     * @return количество попаданий.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Получает количество промахов кэша.
+     *
+     * @return количество промахов.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Получает количество записей в кэше.
+     *
+     * @return количество записей.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Получает текущий оценочный объем записей в байтах.
+     *
+     * @return объем записей в байтах.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Оценивает объем памяти, занимаемый записью кэша.
+     *
+     * @param key    ключ запроса.
+     * @param result строки результата.
+     * @return оценка объема в байтах.
+     */
+    private static long estimate(String key, List<String> result) {
+        long size = ENTRY_OVERHEAD + 2L * key.length();
+        for (String line : result) {
+            size += LINE_OVERHEAD + 2L * line.length();
+        }
+        return size;
+    }
+
+    /**
+     * Запись кэша: результат запроса и оценка его объема.
+     */
+    private static class Entry {
+        private final List<String> result;
+        private final long size;
+
+        Entry(List<String> result, long size) {
+            this.result = result;
+            this.size = size;
+        }
+    }
+}
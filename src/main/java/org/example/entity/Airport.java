@@ -1,7 +1,6 @@
 package org.example.entity;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 
 /**
@@ -9,30 +8,66 @@ import java.util.List;
  */
 public class Airport {
     /**
-     * Список информации об аэропорте.
+     * Номера строк с информацией об аэропорте в хранилище строк.
      */
-    private final List<Object[]> information;
+    private int[] rows;
+    /**
+     * Количество строк с информацией об аэропорте.
+     */
+    private int size;
 
     /**
      * Конструктор по умолчанию. Создает пустой список информации об аэропорте.
      */
     public Airport() {
-        this.information = new ArrayList<>();
+        this.rows = new int[1];
+    }
+
+    /**
+     * Получает количество строк с информацией об аэропорте.
+     *
+     * @return количество строк
+     */
+    public int size() {
+        return size;
     }
 
     /**
-     * Получает список информации об аэропорте.
-     * @return список информации об аэропорте
+     * Получает номер строки с информацией об аэропорте.
+     *
+     * @param i порядковый номер строки у данного аэропорта
+     * @return номер строки в хранилище строк
      */
-    public List<Object[]> getInformation() {
-        return information;
+    public int getRow(int i) {
+        return rows[i];
     }
 
     /**
      * Добавляет информацию об аэропорте в список.
-     * @param information информация об аэропорте
+     *
+     * @param row номер строки с информацией об аэропорте в хранилище строк
+     */
+    public void addRow(int row) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        rows[size++] = row;
+    }
+
+    /**
+     * Удаляет строку из списка, сохраняя порядок остальных строк.
+     *
+     * @param row номер строки с информацией об аэропорте в хранилище строк
+     * @return false, если такой строки у аэропорта нет
      */
-    public void addInformation(Object[] information) {
-        this.information.add(information);
+    public boolean removeRow(int row) {
+        for (int i = 0; i < size; i++) {
+            if (rows[i] == row) {
+                System.arraycopy(rows, i + 1, rows, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package org.example.entity;
+
+/**
+ * Перечисление колонок таблицы аэропортов, доступных для фильтрации.
+ * Название аэропорта (колонка 2) хранится в Trie и в массиве информации отсутствует.
+ */
+public enum Column {
+    ID(1, ColumnType.INTEGER),
+    CITY(3, ColumnType.STRING),
+    COUNTRY(4, ColumnType.STRING),
+    IATA(5, ColumnType.STRING),
+    ICAO(6, ColumnType.STRING),
+    LATITUDE(7, ColumnType.DOUBLE),
+    LONGITUDE(8, ColumnType.DOUBLE),
+    ALTITUDE(9, ColumnType.INTEGER),
+    TIMEZONE(10, ColumnType.STRING),
+    DST(11, ColumnType.STRING),
+    TZ(12, ColumnType.STRING),
+    TYPE(13, ColumnType.STRING),
+    SOURCE(14, ColumnType.STRING);
+
+    /**
+     * Номер колонки в CSV-файле (начиная с 1).
+     */
+    private final int number;
+    /**
+     * Тип значений колонки.
+     */
+    private final ColumnType type;
+
+    Column(int number, ColumnType type) {
+        this.number = number;
+        this.type = type;
+    }
+
+    /**
+     * Получает номер колонки в CSV-файле.
+     *
+     * @return номер колонки (начиная с 1).
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Получает индекс колонки в массиве информации об аэропорте.
+     *
+     * @return индекс в массиве информации.
+     */
+    public int getIndex() {
+        return number == 1 ? 0 : number - 2;
+    }
+
+    /**
+     * Получает тип значений колонки.
+     *
+     * @return тип значений.
+     */
+    public ColumnType getType() {
+        return type;
+    }
+
+    /**
+     * Находит колонку по ее номеру в CSV-файле.
+     *
+     * @param number номер колонки.
+     * @return колонка или null, если колонки с таким номером нет.
+     */
+    public static Column byNumber(int number) {
+        for (Column column : values()) {
+            if (column.number == number) {
+                return column;
+            }
+        }
+        return null;
+    }
+}
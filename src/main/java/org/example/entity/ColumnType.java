@@ -0,0 +1,8 @@
+package org.example.entity;
+
+/**
+ * Тип значений, хранящихся в колонке таблицы аэропортов.
+ */
+public enum ColumnType {
+    INTEGER, DOUBLE, STRING
+}
@@ -0,0 +1,74 @@
+package org.example.entity;
+
+/**
+ * Класс, представляющий запрос поиска: префикс названия, фильтр и страницу результатов.
+ */
+public class Query {
+    /**
+     * Префикс названия аэропорта.
+     */
+    private final String prefix;
+    /**
+     * Фильтр или пустая строка.
+     */
+    private final String filter;
+    /**
+     * Количество пропускаемых строк результата.
+     */
+    private final int offset;
+    /**
+     * Максимальное количество строк результата.
+     */
+    private final int limit;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param prefix префикс названия аэропорта.
+     * @param filter фильтр или пустая строка.
+     * @param offset количество пропускаемых строк результата.
+     * @param limit  максимальное количество строк результата.
+     */
+    public Query(String prefix, String filter, int offset, int limit) {
+        this.prefix = prefix;
+        this.filter = filter;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Получает префикс названия аэропорта.
+     *
+     * @return префикс.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Получает фильтр.
+     *
+     * @return фильтр или пустая строка.
+     */
+    public String getFilter() {
+        return filter;
+    }
+
+    /**
+     * Получает количество пропускаемых строк результата.
+     *
+     * @return количество пропускаемых строк.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Получает максимальное количество строк результата.
+     *
+     * @return максимальное количество строк.
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
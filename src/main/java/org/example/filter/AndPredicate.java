@@ -0,0 +1,36 @@
+package org.example.filter;
+
+/**
+ * Логическое И над операндами фильтра с коротким замыканием.
+ */
+public class AndPredicate implements RowPredicate {
+    private final RowPredicate[] operands;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param operands операнды, проверяемые слева направо.
+     */
+    public AndPredicate(RowPredicate[] operands) {
+        this.operands = operands;
+    }
+
+    /**
+     * Получает операнды логического И.
+     *
+     * @return операнды в порядке проверки.
+     */
+    public RowPredicate[] getOperands() {
+        return operands;
+    }
+
+    @Override
+    public boolean test(int row) {
+        for (RowPredicate operand : operands) {
+            if (!operand.test(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.filter;
+
+import org.example.entity.Column;
+import org.example.store.RowStore;
+
+/**
+ * Проверка того, что координаты аэропорта (колонки 7 и 8) лежат в прямоугольнике широт и долгот.
+ * Если западная граница больше восточной, прямоугольник пересекает 180-й меридиан.
+ */
+public class BoxPredicate implements RowPredicate {
+    private final RowStore store;
+    private final double south;
+    private final double west;
+    private final double north;
+    private final double east;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param store хранилище строк.
+     * @param south южная граница широты в градусах.
+     * @param west  западная граница долготы в градусах.
+     * @param north северная граница широты в градусах.
+     * @param east  восточная граница долготы в градусах.
+     */
+    public BoxPredicate(RowStore store, double south, double west, double north, double east) {
+        this.store = store;
+        this.south = Math.min(south, north);
+        this.west = west;
+        this.north = Math.max(south, north);
+        this.east = east;
+    }
+
+    /**
+     * Получает южную границу широты.
+     *
+     * @return широта в градусах.
+     */
+    public double getSouth() {
+        return south;
+    }
+
+    /**
+     * Получает западную границу долготы.
+     *
+     * @return долгота в градусах.
+     */
+    public double getWest() {
+        return west;
+    }
+
+    /**
+     * Получает северную границу широты.
+     *
+     * @return широта в градусах.
+     */
+    public double getNorth() {
+        return north;
+    }
+
+    /**
+     * Получает восточную границу долготы.
+     *
+     * @return долгота в градусах.
+     */
+    public double getEast() {
+        return east;
+    }
+
+    /**
+     * Проверяет, лежит ли точка в прямоугольнике.
+     *
+     * @param latitude  широта в градусах.
+     * @param longitude долгота в градусах.
+     * @return true, если точка лежит в прямоугольнике или на его границе.
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < south || latitude > north) {
+            return false;
+        }
+        return west <= east ? longitude >= west && longitude <= east : longitude >= west || longitude <= east;
+    }
+
+    @Override
+    public boolean test(int row) {
+        return contains(store.getDouble(row, Column.LATITUDE.getIndex()), store.getDouble(row, Column.LONGITUDE.getIndex()));
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.filter;
+
+/**
+ * Сравнение числовой колонки с литералом, которое планировщик может выполнить по вторичному индексу.
+ */
+public interface ColumnComparison extends RowPredicate {
+    /**
+     * Получает индекс колонки в массиве информации.
+     *
+     * @return индекс колонки.
+     */
+    int getIndex();
+
+    /**
+     * Получает операцию сравнения.
+     *
+     * @return операция сравнения.
+     */
+    Comparison getComparison();
+
+    /**
+     * Получает значение литерала.
+     *
+     * @return значение литерала.
+     */
+    double getLiteral();
+}
@@ -0,0 +1,362 @@
+package org.example.filter;
+
+import org.example.entity.Column;
+import org.example.entity.ColumnType;
+import org.example.store.RowStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Статистика значений колонок, по которой оценивается селективность и стоимость фильтра
+ * и переупорядочиваются операнды логических операций. Для числовых колонок хранится гистограмма
+ * с равным количеством строк в корзинах и количество различных значений, для строковых колонок -
+ * частоты самых частых значений в нижнем регистре и количество различных значений.
+ * Статистика собирается при первом фильтре после загрузки или изменения данных по равномерной выборке строк,
+ * поэтому она приблизительна, но это влияет лишь на порядок проверки операндов, а не на результат фильтра.
+ */
+public class ColumnStatistics {
+    /**
+     * Количество корзин гистограммы числовой колонки.
+     */
+    private static final int BUCKETS = 64;
+    /**
+     * Наибольшее количество строк выборки, по которой собирается статистика.
+     */
+    private static final int SAMPLE_SIZE = 2048;
+    /**
+     * Количество самых частых значений строковой колонки, частоты которых хранятся точно.
+     */
+    private static final int FREQUENT_VALUES = 32;
+    /**
+     * Селективность выражения, которое нельзя оценить по статистике.
+     */
+    private static final double UNKNOWN_SELECTIVITY = 0.5;
+    /**
+     * Количество строк хранилища.
+     */
+    private final int size;
+    /**
+     * Количество строк выборки.
+     */
+    private final int rows;
+    /**
+     * Шаг между номерами строк выборки.
+     */
+    private final int step;
+    /**
+     * Границы корзин гистограмм по индексу колонки; null для строковых колонок.
+     */
+    private final double[][] boundaries;
+    /**
+     * Количество различных значений по индексу колонки.
+     */
+    private final int[] distinct;
+    /**
+     * Частоты самых частых значений в нижнем регистре по индексу колонки; null для числовых колонок.
+     */
+    private final List<Map<String, Integer>> frequent;
+    /**
+     * Суммарная частота самых частых значений по индексу колонки.
+     */
+    private final int[] frequentTotal;
+
+    /**
+     * Конструктор класса. Просматривает строки выборки по каждой колонке.
+     *
+     * @param store хранилище строк.
+     */
+    public ColumnStatistics(RowStore store) {
+        int columns = Column.values().length;
+        this.size = store.size();
+        this.step = Math.max(1, (store.size() + SAMPLE_SIZE - 1) / SAMPLE_SIZE);
+        this.rows = (store.size() + step - 1) / step;
+        this.boundaries = new double[columns][];
+        this.distinct = new int[columns];
+        this.frequent = new ArrayList<>(Collections.nCopies(columns, null));
+        this.frequentTotal = new int[columns];
+        for (Column column : Column.values()) {
+            if (column.getType() == ColumnType.STRING) {
+                collectStrings(store, column.getIndex());
+            } else {
+                collectNumbers(store, column);
+            }
+        }
+    }
+
+    /**
+     * Переупорядочивает операнды логических операций фильтра: операнды И проверяются в порядке
+     * возрастания отношения стоимости к доле отбрасываемых строк, операнды ИЛИ - в порядке возрастания
+     * отношения стоимости к доле принимаемых строк. Так короткое замыкание срабатывает как можно раньше
+     * на самых дешевых проверках. Вложенные в скобки операции того же вида раскрываются в операнды внешней.
+     * Результат фильтра не меняется.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return фильтр с переупорядоченными операндами.
+     */
+    public RowPredicate reorder(RowPredicate predicate) {
+        if (predicate instanceof NearestPredicate) {
+            NearestPredicate nearest = (NearestPredicate) predicate;
+            return nearest.getCondition() == null ? nearest : nearest.withCondition(reorder(nearest.getCondition()));
+        }
+        if (predicate instanceof AndPredicate) {
+            return new AndPredicate(reorder(((AndPredicate) predicate).getOperands(), true));
+        }
+        if (predicate instanceof OrPredicate) {
+            return new OrPredicate(reorder(((OrPredicate) predicate).getOperands(), false));
+        }
+        return predicate;
+    }
+
+    /**
+     * Оценивает долю строк, удовлетворяющих фильтру. Операнды логических операций считаются независимыми.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return доля строк от 0 до 1.
+     */
+    public double selectivity(RowPredicate predicate) {
+        if (predicate instanceof ColumnComparison) {
+            ColumnComparison comparison = (ColumnComparison) predicate;
+            return numberSelectivity(comparison.getIndex(), comparison.getComparison(), comparison.getLiteral());
+        }
+        if (predicate instanceof StringColumnComparison) {
+            StringColumnComparison comparison = (StringColumnComparison) predicate;
+            double equals = stringSelectivity(comparison.getIndex(), comparison.getLiteral().toLowerCase());
+            return comparison.isNegated() ? 1 - equals : equals;
+        }
+        if (predicate instanceof BoxPredicate) {
+            BoxPredicate box = (BoxPredicate) predicate;
+            double longitude = box.getWest() <= box.getEast()
+                    ? fractionBetween(Column.LONGITUDE.getIndex(), box.getWest(), box.getEast())
+                    : 1 - fractionBetween(Column.LONGITUDE.getIndex(), box.getEast(), box.getWest());
+            return fractionBetween(Column.LATITUDE.getIndex(), box.getSouth(), box.getNorth()) * longitude;
+        }
+        if (predicate instanceof RadiusPredicate) {
+            return selectivity(((RadiusPredicate) predicate).bounds()) * Math.PI / 4;
+        }
+        if (predicate instanceof NearestPredicate) {
+            NearestPredicate nearest = (NearestPredicate) predicate;
+            double condition = nearest.getCondition() == null ? 1 : selectivity(nearest.getCondition());
+            return size == 0 ? 0 : Math.min(condition, (double) nearest.getCount() / size);
+        }
+        if (predicate instanceof AndPredicate) {
+            double selectivity = 1;
+            for (RowPredicate operand : ((AndPredicate) predicate).getOperands()) {
+                selectivity *= selectivity(operand);
+            }
+            return selectivity;
+        }
+        if (predicate instanceof OrPredicate) {
+            double rejected = 1;
+            for (RowPredicate operand : ((OrPredicate) predicate).getOperands()) {
+                rejected *= 1 - selectivity(operand);
+            }
+            return 1 - rejected;
+        }
+        return UNKNOWN_SELECTIVITY;
+    }
+
+    /**
+     * Оценивает среднюю стоимость проверки строки фильтром в количестве сравнений с учетом короткого замыкания.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return ожидаемая стоимость проверки одной строки.
+     */
+    public double cost(RowPredicate predicate) {
+        if (predicate instanceof AndPredicate || predicate instanceof OrPredicate) {
+            boolean and = predicate instanceof AndPredicate;
+            RowPredicate[] operands = and ? ((AndPredicate) predicate).getOperands() : ((OrPredicate) predicate).getOperands();
+            double cost = 0;
+            double reached = 1;
+            for (RowPredicate operand : operands) {
+                cost += reached * cost(operand);
+                double selectivity = selectivity(operand);
+                reached *= and ? selectivity : 1 - selectivity;
+            }
+            return cost;
+        }
+        return 1;
+    }
+
+    /**
+     * Вспомогательный метод, переупорядочивающий операнды одной логической операции.
+     *
+     * @param operands операнды в исходном порядке.
+     * @param and      true для операции И, false для операции ИЛИ.
+     * @return операнды в порядке проверки.
+     */
+    private RowPredicate[] reorder(RowPredicate[] operands, boolean and) {
+        List<RowPredicate> flattened = new ArrayList<>();
+        for (RowPredicate operand : operands) {
+            RowPredicate reordered = reorder(operand);
+            if (and && reordered instanceof AndPredicate) {
+                flattened.addAll(Arrays.asList(((AndPredicate) reordered).getOperands()));
+            } else if (!and && reordered instanceof OrPredicate) {
+                flattened.addAll(Arrays.asList(((OrPredicate) reordered).getOperands()));
+            } else {
+                flattened.add(reordered);
+            }
+        }
+        RowPredicate[] reordered = flattened.toArray(new RowPredicate[0]);
+        double[] ranks = new double[reordered.length];
+        Integer[] order = new Integer[reordered.length];
+        for (int i = 0; i < reordered.length; i++) {
+            double selectivity = selectivity(reordered[i]);
+            double decisive = and ? 1 - selectivity : selectivity;
+            ranks[i] = cost(reordered[i]) / Math.max(decisive, 1e-9);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> ranks[i]));
+        RowPredicate[] result = new RowPredicate[reordered.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = reordered[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Вспомогательный метод, оценивающий селективность сравнения числовой колонки.
+     *
+     * @param index      индекс колонки.
+     * @param comparison операция сравнения.
+     * @param literal    значение литерала.
+     * @return доля строк от 0 до 1.
+     */
+    private double numberSelectivity(int index, Comparison comparison, double literal) {
+        double[] bounds = boundaries[index];
+        if (bounds == null || rows == 0) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        double equals = numberEquals(bounds, distinct[index], literal);
+        switch (comparison) {
+            case EQUALS:
+                return equals;
+            case NOT_EQUALS:
+                return 1 - equals;
+            case LESS:
+                return fractionLess(bounds, literal);
+            default:
+                return Math.max(0, 1 - fractionLess(bounds, literal) - equals);
+        }
+    }
+
+    /**
+     * Вспомогательный метод, оценивающий долю строк, значение которых равно литералу. Значение, занимающее
+     * несколько границ корзин, получает долю этих корзин, остальные значения - равную долю.
+     */
+    private static double numberEquals(double[] bounds, int distinct, double literal) {
+        if (literal < bounds[0] || literal > bounds[BUCKETS]) {
+            return 0;
+        }
+        int equal = 0;
+        for (double bound : bounds) {
+            if (bound == literal) {
+                equal++;
+            }
+        }
+        return equal > 1 ? (double) (equal - 1) / BUCKETS : 1.0 / distinct;
+    }
+
+    /**
+     * Вспомогательный метод, оценивающий долю строк, значение числовой колонки которых лежит между границами.
+     */
+    private double fractionBetween(int index, double low, double high) {
+        double[] bounds = boundaries[index];
+        if (bounds == null || rows == 0) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        return Math.max(0, fractionLess(bounds, high) - fractionLess(bounds, low));
+    }
+
+    /**
+     * Вспомогательный метод, оценивающий долю строк, значение которых меньше литерала,
+     * линейной интерполяцией внутри корзины.
+     */
+    private static double fractionLess(double[] bounds, double literal) {
+        int i = 0;
+        while (i <= BUCKETS && bounds[i] < literal) {
+            i++;
+        }
+        if (i == 0) {
+            return 0;
+        }
+        if (i > BUCKETS) {
+            return 1;
+        }
+        return (i - 1 + (literal - bounds[i - 1]) / (bounds[i] - bounds[i - 1])) / BUCKETS;
+    }
+
+    /**
+     * Вспомогательный метод, оценивающий долю строк, значение строковой колонки которых равно литералу.
+     *
+     * @param index   индекс колонки.
+     * @param literal литерал в нижнем регистре.
+     * @return доля строк от 0 до 1.
+     */
+    private double stringSelectivity(int index, String literal) {
+        Map<String, Integer> values = frequent.get(index);
+        if (values == null || rows == 0) {
+            return UNKNOWN_SELECTIVITY;
+        }
+        Integer count = values.get(literal);
+        if (count != null) {
+            return (double) count / rows;
+        }
+        int rare = distinct[index] - values.size();
+        return rare == 0 ? 0 : (double) (rows - frequentTotal[index]) / rare / rows;
+    }
+
+    /**
+     * Вспомогательный метод, собирающий гистограмму и количество различных значений числовой колонки.
+     */
+    private void collectNumbers(RowStore store, Column column) {
+        int index = column.getIndex();
+        double[] values = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            int row = i * step;
+            values[i] = column.getType() == ColumnType.INTEGER ? store.getInteger(row, index) : store.getDouble(row, index);
+        }
+        if (rows == 0) {
+            return;
+        }
+        Arrays.sort(values);
+        int count = 1;
+        for (int i = 1; i < rows; i++) {
+            if (values[i] != values[i - 1]) {
+                count++;
+            }
+        }
+        double[] bounds = new double[BUCKETS + 1];
+        for (int i = 0; i <= BUCKETS; i++) {
+            bounds[i] = values[(int) ((long) i * (rows - 1) / BUCKETS)];
+        }
+        boundaries[index] = bounds;
+        distinct[index] = count;
+    }
+
+    /**
+     * Вспомогательный метод, собирающий частоты самых частых значений и количество различных значений строковой колонки.
+     */
+    private void collectStrings(RowStore store, int index) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < rows; i++) {
+            counts.merge(store.getString(i * step, index).toLowerCase(), 1, Integer::sum);
+        }
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        Map<String, Integer> top = new HashMap<>();
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : entries.subList(0, Math.min(FREQUENT_VALUES, entries.size()))) {
+            top.put(entry.getKey(), entry.getValue());
+            total += entry.getValue();
+        }
+        frequent.set(index, top);
+        distinct[index] = counts.size();
+        frequentTotal[index] = total;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.filter;
+
+/**
+ * Операция сравнения значения колонки с литералом фильтра.
+ */
+public enum Comparison {
+    EQUALS, NOT_EQUALS, LARGER, LESS;
+
+    /**
+     * Сравнивает два целых числа.
+     *
+     * @param value   значение колонки.
+     * @param literal значение из фильтра.
+     * @return результат сравнения.
+     */
+    public boolean test(int value, int literal) {
+        switch (this) {
+            case EQUALS:
+                return value == literal;
+            case NOT_EQUALS:
+                return value != literal;
+            case LARGER:
+                return value > literal;
+            default:
+                return value < literal;
+        }
+    }
+
+    /**
+     * Сравнивает два вещественных числа.
+     *
+     * @param value   значение колонки.
+     * @param literal значение из фильтра.
+     * @return результат сравнения.
+     */
+    public boolean test(double value, double literal) {
+        switch (this) {
+            case EQUALS:
+                return value == literal;
+            case NOT_EQUALS:
+                return value != literal;
+            case LARGER:
+                return value > literal;
+            default:
+                return value < literal;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.filter;
+
+import org.example.store.ColumnarRowStore;
+import org.example.store.Dictionary;
+
+/**
+ * Сравнение строковой колонки, закодированной словарем, с литералом без учета регистра.
+ * Литерал сравнивается со значениями словаря один раз при компиляции,
+ * а для каждой строки проверяется только код ее значения.
+ */
+public class DictionaryComparison implements StringColumnComparison {
+    private final ColumnarRowStore store;
+    private final int index;
+    private final boolean negate;
+    private final String literal;
+    private final boolean[] matches;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param store   колоночное хранилище строк.
+     * @param index   индекс колонки в массиве информации.
+     * @param negate  true для операции неравенства.
+     * @param literal значение из фильтра.
+     */
+    public DictionaryComparison(ColumnarRowStore store, int index, boolean negate, String literal) {
+        this.store = store;
+        this.index = index;
+        this.negate = negate;
+        this.literal = literal;
+        Dictionary dictionary = store.getDictionary(index);
+        this.matches = new boolean[dictionary.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = dictionary.decode(code).equalsIgnoreCase(literal);
+        }
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public boolean isNegated() {
+        return negate;
+    }
+
+    @Override
+    public String getLiteral() {
+        return literal;
+    }
+
+    @Override
+    public boolean test(int row) {
+        return matches[store.getCode(row, index)] != negate;
+    }
+}
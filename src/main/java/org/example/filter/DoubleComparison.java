@@ -0,0 +1,48 @@
+package org.example.filter;
+
+import org.example.store.RowStore;
+
+/**
+ * Сравнение вещественной колонки с заранее разобранным литералом.
+ */
+public class DoubleComparison implements ColumnComparison {
+    private final RowStore store;
+    private final int index;
+    private final Comparison comparison;
+    private final double literal;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param store      хранилище строк.
+     * @param index      индекс колонки в массиве информации.
+     * @param comparison операция сравнения.
+     * @param literal    значение из фильтра.
+     */
+    public DoubleComparison(RowStore store, int index, Comparison comparison, double literal) {
+        this.store = store;
+        this.index = index;
+        this.comparison = comparison;
+        this.literal = literal;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public Comparison getComparison() {
+        return comparison;
+    }
+
+    @Override
+    public double getLiteral() {
+        return literal;
+    }
+
+    @Override
+    public boolean test(int row) {
+        return comparison.test(store.getDouble(row, index), literal);
+    }
+}
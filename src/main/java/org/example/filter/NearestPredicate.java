@@ -0,0 +1,98 @@
+package org.example.filter;
+
+import org.example.entity.Column;
+import org.example.store.RowStore;
+
+/**
+ * Выбор заданного количества ближайших к точке аэропортов среди строк, которые удовлетворяют префиксу
+ * и остальной части фильтра. Функция {@code nearest} может быть только всем фильтром или операндом логического И
+ * верхнего уровня, поэтому при компиляции она поднимается в корень фильтра, а остальные операнды становятся
+ * ее условием. Сам объект проверяет только условие: ближайшие строки выбирает дерево при поиске
+ * и выдает их в порядке возрастания расстояния.
+ */
+public class NearestPredicate implements RowPredicate {
+    private final RowStore store;
+    private final double latitude;
+    private final double longitude;
+    private final int count;
+    private final RowPredicate condition;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param store     хранилище строк.
+     * @param latitude  широта точки в градусах.
+     * @param longitude долгота точки в градусах.
+     * @param count     количество аэропортов.
+     * @param condition условие, которому должны удовлетворять строки, или null.
+     */
+    public NearestPredicate(RowStore store, double latitude, double longitude, int count, RowPredicate condition) {
+        this.store = store;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+        this.condition = condition;
+    }
+
+    /**
+     * Получает широту точки.
+     *
+     * @return широта в градусах.
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Получает долготу точки.
+     *
+     * @return долгота в градусах.
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Получает количество выбираемых аэропортов.
+     *
+     * @return количество строк.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Получает условие, которому должны удовлетворять строки.
+     *
+     * @return условие или null, если строки выбираются только по расстоянию.
+     */
+    public RowPredicate getCondition() {
+        return condition;
+    }
+
+    /**
+     * Создает такой же выбор ближайших аэропортов с другим условием.
+     *
+     * @param condition условие или null.
+     * @return новый фильтр.
+     */
+    public NearestPredicate withCondition(RowPredicate condition) {
+        return new NearestPredicate(store, latitude, longitude, count, condition);
+    }
+
+    /**
+     * Вычисляет расстояние от точки до аэропорта строки.
+     *
+     * @param row номер строки в хранилище.
+     * @return расстояние в километрах.
+     */
+    public double distance(int row) {
+        return RadiusPredicate.distance(latitude, longitude,
+                store.getDouble(row, Column.LATITUDE.getIndex()), store.getDouble(row, Column.LONGITUDE.getIndex()));
+    }
+
+    @Override
+    public boolean test(int row) {
+        return condition == null || condition.test(row);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.filter;
+
+/**
+ * Логическое ИЛИ над операндами фильтра с коротким замыканием.
+ */
+public class OrPredicate implements RowPredicate {
+    private final RowPredicate[] operands;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param operands операнды, проверяемые слева направо.
+     */
+    public OrPredicate(RowPredicate[] operands) {
+        this.operands = operands;
+    }
+
+    /**
+     * Получает операнды логического ИЛИ.
+     *
+     * @return операнды в порядке проверки.
+     */
+    public RowPredicate[] getOperands() {
+        return operands;
+    }
+
+    @Override
+    public boolean test(int row) {
+        for (RowPredicate operand : operands) {
+            if (operand.test(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
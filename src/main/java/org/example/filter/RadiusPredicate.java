@@ -0,0 +1,87 @@
+package org.example.filter;
+
+import org.example.entity.Column;
+import org.example.store.RowStore;
+
+/**
+ * Проверка того, что аэропорт находится не дальше заданного расстояния от точки.
+ * Расстояние измеряется по дуге большого круга на сфере со средним радиусом Земли.
+ */
+public class RadiusPredicate implements RowPredicate {
+    /**
+     * Средний радиус Земли в километрах.
+     */
+    public static final double EARTH_RADIUS = 6371.0088;
+    private final RowStore store;
+    private final double latitude;
+    private final double longitude;
+    private final double radius;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param store     хранилище строк.
+     * @param latitude  широта центра в градусах.
+     * @param longitude долгота центра в градусах.
+     * @param radius    радиус в километрах.
+     */
+    public RadiusPredicate(RowStore store, double latitude, double longitude, double radius) {
+        this.store = store;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radius = radius;
+    }
+
+    /**
+     * Вычисляет расстояние между точками по формуле гаверсинусов.
+     *
+     * @param latitude1  широта первой точки в градусах.
+     * @param longitude1 долгота первой точки в градусах.
+     * @param latitude2  широта второй точки в градусах.
+     * @param longitude2 долгота второй точки в градусах.
+     * @return расстояние в километрах.
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double h = sinLatitude * sinLatitude
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * sinLongitude * sinLongitude;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /**
+     * Вычисляет наименьший прямоугольник широт и долгот, содержащий круг. Если круг содержит полюс,
+     * прямоугольник охватывает все долготы, а если пересекает 180-й меридиан, западная граница больше восточной.
+     *
+     * @return прямоугольник, содержащий круг.
+     */
+    public BoxPredicate bounds() {
+        double angle = radius / EARTH_RADIUS;
+        double center = Math.toRadians(latitude);
+        double south = center - angle;
+        double north = center + angle;
+        if (south <= -Math.PI / 2 || north >= Math.PI / 2) {
+            return new BoxPredicate(store, Math.max(Math.toDegrees(south), -90), -180, Math.min(Math.toDegrees(north), 90), 180);
+        }
+        double delta = Math.toDegrees(Math.asin(Math.sin(angle) / Math.cos(center)));
+        double west = longitude - delta;
+        double east = longitude + delta;
+        return new BoxPredicate(store, Math.toDegrees(south), west < -180 ? west + 360 : west,
+                Math.toDegrees(north), east > 180 ? east - 360 : east);
+    }
+
+    /**
+     * Вычисляет расстояние от центра до аэропорта строки.
+     *
+     * @param row номер строки в хранилище.
+     * @return расстояние в километрах.
+     */
+    public double distance(int row) {
+        return distance(latitude, longitude, store.getDouble(row, Column.LATITUDE.getIndex()), store.getDouble(row, Column.LONGITUDE.getIndex()));
+    }
+
+    @Override
+    public boolean test(int row) {
+        return distance(row) <= radius;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.filter;
+
+/**
+ * Скомпилированный фильтр, который проверяет строку с информацией об аэропорте.
+ * Объекты фильтра неизменяемы, создаются один раз на запрос и привязаны к хранилищу строк.
+ */
+public interface RowPredicate {
+    /**
+     * Проверяет, удовлетворяет ли строка фильтру.
+     *
+     * @param row номер строки в хранилище.
+     * @return true, если строка удовлетворяет фильтру, false - в противном случае.
+     */
+    boolean test(int row);
+}
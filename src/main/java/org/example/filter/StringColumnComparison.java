@@ -0,0 +1,28 @@
+package org.example.filter;
+
+/**
+ * Сравнение строковой колонки с литералом на равенство или неравенство, селективность которого
+ * оценивается по статистике колонки.
+ */
+public interface StringColumnComparison extends RowPredicate {
+    /**
+     * Получает индекс колонки в массиве информации.
+     *
+     * @return индекс колонки.
+     */
+    int getIndex();
+
+    /**
+     * Проверяет, является ли сравнение неравенством.
+     *
+     * @return true для операции неравенства.
+     */
+    boolean isNegated();
+
+    /**
+     * Получает значение литерала.
+     *
+     * @return значение из фильтра.
+     */
+    String getLiteral();
+}
@@ -0,0 +1,49 @@
+package org.example.filter;
+
+import org.example.store.RowStore;
+
+/**
+ * Сравнение строковой колонки с литералом без учета регистра.
+ * Поддерживаются только операции равенства и неравенства.
+ */
+public class StringComparison implements StringColumnComparison {
+    private final RowStore store;
+    private final int index;
+    private final boolean negate;
+    private final String literal;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param store   хранилище строк.
+     * @param index   индекс колонки в массиве информации.
+     * @param negate  true для операции неравенства.
+     * @param literal значение из фильтра.
+     */
+    public StringComparison(RowStore store, int index, boolean negate, String literal) {
+        this.store = store;
+        this.index = index;
+        this.negate = negate;
+        this.literal = literal;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public boolean isNegated() {
+        return negate;
+    }
+
+    @Override
+    public String getLiteral() {
+        return literal;
+    }
+
+    @Override
+    public boolean test(int row) {
+        return store.getString(row, index).equalsIgnoreCase(literal) != negate;
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.image;
+
+import org.example.entity.Column;
+import org.example.entity.ColumnType;
+import org.example.store.RowStore;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Хранилище строк, читающее значения колонок прямо из отображенного в память образа индекса.
+ * Каждая строка хранится записью фиксированной длины: целые числа, дробные числа
+ * и ссылки на строки в общем пуле строк образа.
+ */
+public class ImageRowStore implements RowStore {
+    /**
+     * Смещения значений колонок внутри записи по индексу колонки.
+     */
+    private static final int[] COLUMN_OFFSETS = new int[Column.values().length];
+    /**
+     * Длина записи одной строки в байтах.
+     */
+    static final int RECORD_SIZE;
+
+    static {
+        int offset = 0;
+        for (Column column : Column.values()) {
+            COLUMN_OFFSETS[column.getIndex()] = offset;
+            offset += column.getType() == ColumnType.DOUBLE ? Double.BYTES : Integer.BYTES;
+        }
+        RECORD_SIZE = offset;
+    }
+
+    /**
+     * Содержимое образа индекса.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Смещение записей строк в образе.
+     */
+    private final int rowsOffset;
+    /**
+     * Количество строк.
+     */
+    private final int size;
+    /**
+     * Смещение пула строк в образе.
+     */
+    private final int stringsOffset;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param buffer        содержимое образа индекса.
+     * @param rowsOffset    смещение записей строк в образе.
+     * @param size          количество строк.
+     * @param stringsOffset смещение пула строк в образе.
+     */
+    ImageRowStore(ByteBuffer buffer, int rowsOffset, int size, int stringsOffset) {
+        this.buffer = buffer;
+        this.rowsOffset = rowsOffset;
+        this.size = size;
+        this.stringsOffset = stringsOffset;
+    }
+
+    /**
+     * Получает смещение значения колонки внутри записи строки.
+     *
+     * @param index индекс колонки.
+     * @return смещение значения в байтах.
+     */
+    static int columnOffset(int index) {
+        return COLUMN_OFFSETS[index];
+    }
+
+    @Override
+    public int getInteger(int row, int index) {
+        return buffer.getInt(position(row, index));
+    }
+
+    @Override
+    public double getDouble(int row, int index) {
+        return buffer.getDouble(position(row, index));
+    }
+
+    @Override
+    public String getString(int row, int index) {
+        return string(buffer.getInt(position(row, index)));
+    }
+
+    @Override
+    public Object[] get(int row) {
+        Object[] information = new Object[Column.values().length];
+        for (Column column : Column.values()) {
+            int index = column.getIndex();
+            switch (column.getType()) {
+                case INTEGER: {
+                    information[index] = getInteger(row, index);
+                    break;
+                }
+                case DOUBLE: {
+                    information[index] = getDouble(row, index);
+                    break;
+                }
+                default: {
+                    information[index] = getString(row, index);
+                    break;
+                }
+            }
+        }
+        return information;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Декодирует строку из пула строк образа.
+     *
+     * @param ref смещение строки относительно начала пула.
+     * @return строка.
+     */
+    String string(int ref) {
+        int length = length(ref);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = charAt(ref, i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Получает длину строки из пула строк образа.
+     *
+     * @param ref смещение строки относительно начала пула.
+     * @return длина строки в символах.
+     */
+    int length(int ref) {
+        return buffer.getInt(stringsOffset + ref);
+    }
+
+    /**
+     * Получает символ строки из пула строк образа без декодирования всей строки.
+     *
+     * @param ref смещение строки относительно начала пула.
+     * @param i   номер символа.
+     * @return символ строки.
+     */
+    char charAt(int ref, int i) {
+        return buffer.getChar(stringsOffset + ref + Integer.BYTES + i * Character.BYTES);
+    }
+
+    /**
+     * Вспомогательный метод, вычисляющий положение значения колонки строки в образе.
+     *
+     * @param row   номер строки.
+     * @param index индекс колонки.
+     * @return положение значения в образе.
+     */
+    private int position(int row, int index) {
+        return rowsOffset + row * RECORD_SIZE + COLUMN_OFFSETS[index];
+    }
+}
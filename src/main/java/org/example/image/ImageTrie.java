@@ -0,0 +1,214 @@
+package org.example.image;
+
+import org.example.entity.Airport;
+import org.example.trie.AbstractTrie;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Сжатое префиксное дерево, которое читается прямо из отображенного в память образа индекса
+ * без создания объектов узлов. Узел задается смещением его записи в образе:
+ * количество строк поддерева, ссылки на наименьшее и собственное названия, строки аэропорта
+ * и отсортированные по первому символу ребра с метками и ссылками на дочерние узлы.
+ * Дерево доступно только для чтения.
+ */
+public class ImageTrie extends AbstractTrie<Integer> {
+    /**
+     * Значение ссылки на название для узла, в котором не заканчивается слово.
+     */
+    static final int NO_NAME = -1;
+    /**
+     * Хранилище строк образа, через которое читаются и названия.
+     */
+    private final ImageRowStore image;
+    /**
+     * Содержимое образа индекса.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Смещение записей узлов в образе.
+     */
+    private final int nodesOffset;
+    /**
+     * Смещение таблицы узлов по номерам строк в образе.
+     */
+    private final int rowNodesOffset;
+    /**
+     * Смещение корня относительно записей узлов.
+     */
+    private final int root;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param image          хранилище строк образа.
+     * @param buffer         содержимое образа индекса.
+     * @param nodesOffset    смещение записей узлов в образе.
+     * @param rowNodesOffset смещение таблицы узлов по номерам строк в образе.
+     * @param root           смещение корня относительно записей узлов.
+     */
+    ImageTrie(ImageRowStore image, ByteBuffer buffer, int nodesOffset, int rowNodesOffset, int root) {
+        super(image);
+        this.image = image;
+        this.buffer = buffer;
+        this.nodesOffset = nodesOffset;
+        this.rowNodesOffset = rowNodesOffset;
+        this.root = root;
+    }
+
+    /**
+     * Образ индекса доступен только для чтения.
+     *
+     * @throws UnsupportedOperationException всегда.
+     */
+    @Override
+    public void insert(String word, int row) {
+        throw new UnsupportedOperationException("Образ индекса доступен только для чтения");
+    }
+
+    /**
+     * Образ индекса доступен только для чтения.
+     *
+     * @throws UnsupportedOperationException всегда.
+     */
+    @Override
+    public void remove(String word, int row) {
+        throw new UnsupportedOperationException("Образ индекса доступен только для чтения");
+    }
+
+    /**
+     * Образ индекса доступен только для чтения.
+     *
+     * @throws UnsupportedOperationException всегда.
+     */
+    @Override
+    protected Integer branch(List<String> words, List<Integer> rows) {
+        throw new UnsupportedOperationException("Образ индекса доступен только для чтения");
+    }
+
+    /**
+     * Образ индекса доступен только для чтения.
+     *
+     * @throws UnsupportedOperationException всегда.
+     */
+    @Override
+    protected void graft(char first, Integer node) {
+        throw new UnsupportedOperationException("Образ индекса доступен только для чтения");
+    }
+
+    @Override
+    protected Integer descend(String prefix) {
+        int node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int edge = findEdge(node, prefix.charAt(pos));
+            if (edge < 0) {
+                return null;
+            }
+            int label = buffer.getInt(edge);
+            int length = Math.min(image.length(label), prefix.length() - pos);
+            for (int i = 1; i < length; i++) {
+                if (image.charAt(label, i) != prefix.charAt(pos + i)) {
+                    return null;
+                }
+            }
+            node = buffer.getInt(edge + Integer.BYTES);
+            pos += length;
+        }
+        return node;
+    }
+
+    @Override
+    protected int rowCount(Integer node) {
+        return buffer.getInt(nodesOffset + node);
+    }
+
+    @Override
+    protected String originalName(Integer node) {
+        return image.string(buffer.getInt(nodesOffset + node + 2 * Integer.BYTES));
+    }
+
+    @Override
+    protected String minName(Integer node) {
+        int ref = buffer.getInt(nodesOffset + node + Integer.BYTES);
+        return ref == NO_NAME ? null : image.string(ref);
+    }
+
+    @Override
+    protected Airport airport(Integer node) {
+        if (buffer.getInt(nodesOffset + node + 2 * Integer.BYTES) == NO_NAME) {
+            return null;
+        }
+        int pos = nodesOffset + node + 3 * Integer.BYTES;
+        int count = buffer.getInt(pos);
+        Airport airport = new Airport();
+        for (int i = 0; i < count; i++) {
+            airport.addRow(buffer.getInt(pos + (i + 1) * Integer.BYTES));
+        }
+        return airport;
+    }
+
+    @Override
+    protected void forEachChild(Integer node, Consumer<Integer> action) {
+        int pos = edgesOffset(node);
+        int count = buffer.getInt(pos);
+        for (int i = 0; i < count; i++) {
+            action.accept(buffer.getInt(pos + Integer.BYTES + i * 2 * Integer.BYTES + Integer.BYTES));
+        }
+    }
+
+    @Override
+    protected void forEachEdge(Integer node, BiConsumer<CharSequence, Integer> action) {
+        int pos = edgesOffset(node);
+        int count = buffer.getInt(pos);
+        for (int i = 0; i < count; i++) {
+            int edge = pos + Integer.BYTES + i * 2 * Integer.BYTES;
+            action.accept(image.string(buffer.getInt(edge)), buffer.getInt(edge + Integer.BYTES));
+        }
+    }
+
+    @Override
+    protected Integer nodeOf(int row) {
+        return buffer.getInt(rowNodesOffset + row * Integer.BYTES);
+    }
+
+    /**
+     * Вспомогательный метод, вычисляющий положение списка ребер узла в образе.
+     *
+     * @param node смещение узла относительно записей узлов.
+     * @return положение количества ребер, за которым следуют сами ребра.
+     */
+    private int edgesOffset(int node) {
+        int rows = nodesOffset + node + 3 * Integer.BYTES;
+        return rows + (buffer.getInt(rows) + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Вспомогательный метод, находящий двоичным поиском ребро, метка которого начинается с символа.
+     *
+     * @param node смещение узла относительно записей узлов.
+     * @param c    первый символ метки.
+     * @return положение ребра в образе или -1, если такого ребра нет.
+     */
+    private int findEdge(int node, char c) {
+        int pos = edgesOffset(node);
+        int low = 0;
+        int high = buffer.getInt(pos) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int edge = pos + Integer.BYTES + mid * 2 * Integer.BYTES;
+            char first = image.charAt(buffer.getInt(edge), 0);
+            if (first < c) {
+                low = mid + 1;
+            } else if (first > c) {
+                high = mid - 1;
+            } else {
+                return edge;
+            }
+        }
+        return -1;
+    }
+}
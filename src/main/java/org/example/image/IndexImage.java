@@ -0,0 +1,320 @@
+package org.example.image;
+
+import org.example.entity.Column;
+import org.example.store.RowStore;
+import org.example.trie.Trie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Образ индекса: сжатое префиксное дерево и строки с информацией об аэропортах, записанные
+ * в один плоский двоичный файл. Образ открывается через {@link FileChannel#map} и используется
+ * для поиска без разбора CSV-файла и без создания объектов узлов.
+ * <p>
+ * Файл состоит из заголовка (сигнатура, версия, размер и время изменения CSV-файла, контрольная сумма
+ * CRC32 остальной части файла, количество строк и смещения разделов), пула строк, записей строк,
+ * таблицы узлов по номерам строк и записей узлов дерева. Образ считается устаревшим,
+ * если не совпадают версия, размер или время изменения CSV-файла либо контрольная сумма.
+ */
+public class IndexImage {
+    /**
+     * Сигнатура файла образа.
+     */
+    static final int MAGIC = 0x41495458;
+    /**
+     * Версия формата образа.
+     */
+    static final int VERSION = 1;
+    /**
+     * Положения полей заголовка.
+     */
+    static final int MAGIC_POS = 0;
+    static final int VERSION_POS = 4;
+    static final int CSV_SIZE_POS = 8;
+    static final int CSV_MODIFIED_POS = 16;
+    static final int CHECKSUM_POS = 24;
+    private static final int ROW_COUNT_POS = 32;
+    private static final int STRINGS_POS = 36;
+    private static final int ROWS_POS = 40;
+    private static final int ROW_NODES_POS = 44;
+    private static final int NODES_POS = 48;
+    private static final int ROOT_POS = 52;
+    /**
+     * Размер заголовка в байтах.
+     */
+    static final int HEADER_SIZE = 56;
+
+    /**
+     * Открывает образ индекса, если он существует и построен по текущей версии CSV-файла.
+     *
+     * @param image       путь к файлу образа.
+     * @param csvSize     размер CSV-файла в байтах.
+     * @param csvModified время изменения CSV-файла в миллисекундах.
+     * @return дерево, читающее данные из образа, или null, если образа нет или он устарел.
+     * @throws IOException если не удается прочитать файл образа.
+     */
+    public static Trie open(Path image, long csvSize, long csvModified) throws IOException {
+        if (!Files.isRegularFile(image)) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(MAGIC_POS) != MAGIC
+                || buffer.getInt(VERSION_POS) != VERSION
+                || buffer.getLong(CSV_SIZE_POS) != csvSize
+                || buffer.getLong(CSV_MODIFIED_POS) != csvModified) {
+            return null;
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE);
+        CRC32 checksum = new CRC32();
+        checksum.update(body);
+        if (checksum.getValue() != buffer.getLong(CHECKSUM_POS)) {
+            return null;
+        }
+        ImageRowStore store = new ImageRowStore(buffer, buffer.getInt(ROWS_POS), buffer.getInt(ROW_COUNT_POS), buffer.getInt(STRINGS_POS));
+        return new ImageTrie(store, buffer, buffer.getInt(NODES_POS), buffer.getInt(ROW_NODES_POS), buffer.getInt(ROOT_POS));
+    }
+
+    /**
+     * Записывает образ индекса. Файл сначала записывается во временный файл рядом с образом
+     * и затем переименовывается, поэтому читатели никогда не видят частично записанный образ.
+     *
+     * @param image       путь к файлу образа.
+     * @param store       хранилище строк с информацией об аэропортах.
+     * @param names       названия аэропортов по номерам строк.
+     * @param csvSize     размер CSV-файла в байтах.
+     * @param csvModified время изменения CSV-файла в миллисекундах.
+     * @throws IOException если не удается записать файл образа.
+     */
+    public static void write(Path image, RowStore store, List<String> names, long csvSize, long csvModified) throws IOException {
+        Builder builder = new Builder();
+        byte[] nodes = builder.nodes(names);
+        byte[] rows = builder.rows(store);
+        byte[] rowNodes = builder.rowNodes(names);
+        byte[] strings = builder.strings.toByteArray();
+
+        int stringsOffset = HEADER_SIZE;
+        int rowsOffset = stringsOffset + strings.length;
+        int rowNodesOffset = rowsOffset + rows.length;
+        int nodesOffset = rowNodesOffset + rowNodes.length;
+        CRC32 checksum = new CRC32();
+        checksum.update(strings);
+        checksum.update(rows);
+        checksum.update(rowNodes);
+        checksum.update(nodes);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC_POS, MAGIC);
+        header.putInt(VERSION_POS, VERSION);
+        header.putLong(CSV_SIZE_POS, csvSize);
+        header.putLong(CSV_MODIFIED_POS, csvModified);
+        header.putLong(CHECKSUM_POS, checksum.getValue());
+        header.putInt(ROW_COUNT_POS, store.size());
+        header.putInt(STRINGS_POS, stringsOffset);
+        header.putInt(ROWS_POS, rowsOffset);
+        header.putInt(ROW_NODES_POS, rowNodesOffset);
+        header.putInt(NODES_POS, nodesOffset);
+        header.putInt(ROOT_POS, builder.root);
+
+        Path temporary = image.resolveSibling(image.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (ByteBuffer part : new ByteBuffer[]{header, ByteBuffer.wrap(strings), ByteBuffer.wrap(rows),
+                    ByteBuffer.wrap(rowNodes), ByteBuffer.wrap(nodes)}) {
+                while (part.hasRemaining()) {
+                    channel.write(part);
+                }
+            }
+        }
+        try {
+            Files.move(temporary, image, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, image, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Построитель разделов образа. Одинаковые строки записываются в пул один раз.
+     */
+    private static class Builder {
+        private final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        private final DataOutputStream stringsOut = new DataOutputStream(strings);
+        private final Map<String, Integer> stringRefs = new HashMap<>();
+        private final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+        private final DataOutputStream nodesOut = new DataOutputStream(nodes);
+        private final Map<String, Word> words = new LinkedHashMap<>();
+        private String[] keys;
+        private int root;
+
+        /**
+         * Строит записи узлов сжатого дерева по отсортированным названиям в нижнем регистре.
+         * Узлы записываются после своих потомков, поэтому ссылки на потомков уже известны.
+         */
+        byte[] nodes(List<String> names) throws IOException {
+            for (int row = 0; row < names.size(); row++) {
+                String name = names.get(row);
+                words.computeIfAbsent(name.toLowerCase(), key -> new Word(name)).rows.add(row);
+            }
+            keys = words.keySet().toArray(new String[0]);
+            Arrays.sort(keys);
+            root = build(0, keys.length, 0).offset;
+            return nodes.toByteArray();
+        }
+
+        byte[] rows(RowStore store) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(store.size() * ImageRowStore.RECORD_SIZE);
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (int row = 0; row < store.size(); row++) {
+                for (Column column : Column.values()) {
+                    int index = column.getIndex();
+                    switch (column.getType()) {
+                        case INTEGER: {
+                            out.writeInt(store.getInteger(row, index));
+                            break;
+                        }
+                        case DOUBLE: {
+                            out.writeDouble(store.getDouble(row, index));
+                            break;
+                        }
+                        default: {
+                            out.writeInt(string(store.getString(row, index)));
+                            break;
+                        }
+                    }
+                }
+            }
+            return bytes.toByteArray();
+        }
+
+        byte[] rowNodes(List<String> names) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(names.size() * Integer.BYTES);
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (String name : names) {
+                out.writeInt(words.get(name.toLowerCase()).node);
+            }
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Записывает узел, поддерево которого содержит названия keys[low..high), имеющие общий префикс длины depth.
+         */
+        private Node build(int low, int high, int depth) throws IOException {
+            Word word = null;
+            int start = low;
+            if (low < high && keys[low].length() == depth) {
+                word = words.get(keys[low]);
+                start++;
+            }
+            String minName = word == null ? null : word.name;
+            int rowCount = word == null ? 0 : word.rows.size();
+            List<int[]> edges = new ArrayList<>();
+            for (int i = start; i < high; ) {
+                char c = keys[i].charAt(depth);
+                int j = i + 1;
+                while (j < high && keys[j].charAt(depth) == c) {
+                    j++;
+                }
+                int common = commonPrefix(keys[i], keys[j - 1]);
+                Node child = build(i, j, common);
+                edges.add(new int[]{string(keys[i].substring(depth, common)), child.offset});
+                if (minName == null || child.minName.compareTo(minName) < 0) {
+                    minName = child.minName;
+                }
+                rowCount += child.rowCount;
+                i = j;
+            }
+            int offset = nodesOut.size();
+            nodesOut.writeInt(rowCount);
+            nodesOut.writeInt(minName == null ? ImageTrie.NO_NAME : string(minName));
+            nodesOut.writeInt(word == null ? ImageTrie.NO_NAME : string(word.name));
+            nodesOut.writeInt(word == null ? 0 : word.rows.size());
+            if (word != null) {
+                for (int row : word.rows) {
+                    nodesOut.writeInt(row);
+                }
+                word.node = offset;
+            }
+            nodesOut.writeInt(edges.size());
+            for (int[] edge : edges) {
+                nodesOut.writeInt(edge[0]);
+                nodesOut.writeInt(edge[1]);
+            }
+            return new Node(offset, minName, rowCount);
+        }
+
+        /**
+         * Добавляет строку в пул строк, если ее там еще нет.
+         *
+         * @return смещение строки относительно начала пула.
+         */
+        private int string(String value) throws IOException {
+            Integer ref = stringRefs.get(value);
+            if (ref == null) {
+                ref = stringsOut.size();
+                stringsOut.writeInt(value.length());
+                stringsOut.writeChars(value);
+                stringRefs.put(value, ref);
+            }
+            return ref;
+        }
+
+        private static int commonPrefix(String a, String b) {
+            int length = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < length && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Название аэропорта в исходном регистре, его строки и смещение его узла.
+     */
+    private static class Word {
+        private final String name;
+        private final List<Integer> rows = new ArrayList<>();
+        private int node;
+
+        Word(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Записанный узел: смещение, наименьшее название и количество строк поддерева.
+     */
+    private static class Node {
+        private final int offset;
+        private final String minName;
+        private final int rowCount;
+
+        Node(int offset, String minName, int rowCount) {
+            this.offset = offset;
+            this.minName = minName;
+            this.rowCount = rowCount;
+        }
+    }
+}
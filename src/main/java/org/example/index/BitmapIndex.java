@@ -0,0 +1,81 @@
+package org.example.index;
+
+import org.example.entity.Column;
+import org.example.entity.ColumnType;
+import org.example.store.RowStore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Битовый индекс по строковой колонке с небольшим количеством различных значений:
+ * для каждого значения хранится сжатое множество номеров строк {@link RowBitmap}.
+ * Сравнение колонки с литералом выполняется без просмотра строк объединением множеств значений,
+ * равных литералу без учета регистра.
+ */
+public class BitmapIndex {
+    /**
+     * Различные значения колонки.
+     */
+    private final String[] values;
+    /**
+     * Множества строк по позиции значения.
+     */
+    private final RowBitmap[] bitmaps;
+
+    private BitmapIndex(String[] values, RowBitmap[] bitmaps) {
+        this.values = values;
+        this.bitmaps = bitmaps;
+    }
+
+    /**
+     * Строит индекс по колонке, если количество ее различных значений не превышает заданного.
+     *
+     * @param store       хранилище строк.
+     * @param column      строковая колонка.
+     * @param maxDistinct наибольшее количество различных значений.
+     * @return индекс или null, если различных значений больше.
+     */
+    public static BitmapIndex create(RowStore store, Column column, int maxDistinct) {
+        if (column.getType() != ColumnType.STRING) {
+            throw new IllegalArgumentException("Колонка " + column.getNumber() + " не является строковой");
+        }
+        Map<String, RowBitmap.Builder> builders = new HashMap<>();
+        for (int row = 0; row < store.size(); row++) {
+            String value = store.getString(row, column.getIndex());
+            RowBitmap.Builder builder = builders.get(value);
+            if (builder == null) {
+                if (builders.size() == maxDistinct) {
+                    return null;
+                }
+                builder = new RowBitmap.Builder();
+                builders.put(value, builder);
+            }
+            builder.add(row);
+        }
+        String[] values = new String[builders.size()];
+        RowBitmap[] bitmaps = new RowBitmap[values.length];
+        int i = 0;
+        for (Map.Entry<String, RowBitmap.Builder> entry : builders.entrySet()) {
+            values[i] = entry.getKey();
+            bitmaps[i++] = entry.getValue().build();
+        }
+        return new BitmapIndex(values, bitmaps);
+    }
+
+    /**
+     * Находит строки, значение колонки которых равно литералу без учета регистра.
+     *
+     * @param literal значение из фильтра.
+     * @return множество номеров строк.
+     */
+    public RowBitmap find(String literal) {
+        RowBitmap result = RowBitmap.empty();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equalsIgnoreCase(literal)) {
+                result = result.or(bitmaps[i]);
+            }
+        }
+        return result;
+    }
+}
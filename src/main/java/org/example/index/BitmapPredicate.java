@@ -0,0 +1,52 @@
+package org.example.index;
+
+import org.example.filter.RowPredicate;
+
+/**
+ * Фильтр, часть которого вычислена по битовым индексам: строка удовлетворяет фильтру, если она есть
+ * во множестве строк, найденном по индексам, и удовлетворяет остатку фильтра, который нельзя выполнить по индексам.
+ */
+public class BitmapPredicate implements RowPredicate {
+    /**
+     * Строки, удовлетворяющие части фильтра, вычисленной по индексам.
+     */
+    private final RowBitmap bitmap;
+    /**
+     * Остаток фильтра или null, если весь фильтр вычислен по индексам.
+     */
+    private final RowPredicate residual;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param bitmap   строки, удовлетворяющие части фильтра, вычисленной по индексам.
+     * @param residual остаток фильтра или null.
+     */
+    public BitmapPredicate(RowBitmap bitmap, RowPredicate residual) {
+        this.bitmap = bitmap;
+        this.residual = residual;
+    }
+
+    /**
+     * Получает множество строк, удовлетворяющих части фильтра, вычисленной по индексам.
+     *
+     * @return множество номеров строк.
+     */
+    public RowBitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Получает остаток фильтра, который проверяется для каждой строки.
+     *
+     * @return остаток фильтра или null.
+     */
+    public RowPredicate getResidual() {
+        return residual;
+    }
+
+    @Override
+    public boolean test(int row) {
+        return bitmap.contains(row) && (residual == null || residual.test(row));
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.index;
+
+/**
+ * Диапазон позиций вторичного индекса, строки в котором удовлетворяют сравнению.
+ */
+public class IndexRange {
+    private final SortedIndex index;
+    private final int from;
+    private final int to;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param index вторичный индекс.
+     * @param from  первая позиция диапазона (включительно).
+     * @param to    последняя позиция диапазона (не включительно).
+     */
+    public IndexRange(SortedIndex index, int from, int to) {
+        this.index = index;
+        this.from = from;
+        this.to = Math.max(from, to);
+    }
+
+    /**
+     * Получает количество строк в диапазоне.
+     *
+     * @return количество строк.
+     */
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Получает номер строки диапазона.
+     *
+     * @param i порядковый номер строки в диапазоне.
+     * @return номер строки в хранилище.
+     */
+    public int rowAt(int i) {
+        return index.rowAt(from + i);
+    }
+}
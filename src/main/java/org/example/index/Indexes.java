@@ -0,0 +1,156 @@
+package org.example.index;
+
+import org.example.entity.Column;
+import org.example.entity.ColumnType;
+import org.example.filter.AndPredicate;
+import org.example.filter.ColumnComparison;
+import org.example.filter.NearestPredicate;
+import org.example.filter.OrPredicate;
+import org.example.filter.RowPredicate;
+import org.example.filter.StringColumnComparison;
+import org.example.store.RowStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Набор вторичных индексов и планировщик, выбирающий по скомпилированному фильтру наиболее селективный
+ * диапазон индекса. По числовым колонкам строятся отсортированные индексы, по строковым колонкам
+ * с небольшим количеством различных значений - битовые индексы, по которым сравнения и логические
+ * операции над ними вычисляются операциями над множествами строк.
+ */
+public class Indexes {
+    /**
+     * Наименьшее среднее количество строк на одно значение колонки, при котором по ней строится битовый индекс.
+     */
+    private static final int MIN_ROWS_PER_VALUE = 16;
+    /**
+     * Индексы по индексу колонки в массиве информации.
+     */
+    private final SortedIndex[] indexes;
+    /**
+     * Битовые индексы по индексу колонки в массиве информации; null для колонок без битового индекса.
+     */
+    private final BitmapIndex[] bitmaps;
+    /**
+     * Множество всех номеров строк хранилища, из которого вычитаются строки при неравенстве.
+     */
+    private final RowBitmap all;
+
+    /**
+     * Конструктор класса. Строит индексы по всем числовым колонкам хранилища
+     * и битовые индексы по строковым колонкам с небольшим количеством различных значений.
+     *
+     * @param store хранилище строк.
+     */
+    public Indexes(RowStore store) {
+        this.indexes = new SortedIndex[Column.values().length];
+        this.bitmaps = new BitmapIndex[Column.values().length];
+        this.all = RowBitmap.range(0, store.size());
+        for (Column column : Column.values()) {
+            if (column.getType() != ColumnType.STRING) {
+                indexes[column.getIndex()] = new SortedIndex(store, column);
+            } else {
+                bitmaps[column.getIndex()] = BitmapIndex.create(store, column, Math.max(1, store.size() / MIN_ROWS_PER_VALUE));
+            }
+        }
+    }
+
+    /**
+     * Вычисляет по битовым индексам ту часть фильтра, которую можно выполнить без проверки строк.
+     * Если весь фильтр состоит из сравнений колонок с битовыми индексами, соединенных И и ИЛИ на любой глубине,
+     * он вычисляется целиком пересечением, объединением и разностью множеств строк. Если так можно вычислить
+     * только часть операндов логического И, остальные операнды остаются проверяться для каждой строки.
+     * У выбора ближайших аэропортов вычисляется его условие.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return {@link BitmapPredicate} или исходный фильтр, если ни одна его часть не вычисляется по индексам.
+     */
+    public RowPredicate rewrite(RowPredicate predicate) {
+        if (predicate instanceof NearestPredicate) {
+            NearestPredicate nearest = (NearestPredicate) predicate;
+            return nearest.getCondition() == null ? nearest : nearest.withCondition(rewrite(nearest.getCondition()));
+        }
+        if (predicate instanceof AndPredicate) {
+            RowBitmap rows = null;
+            List<RowPredicate> residual = new ArrayList<>();
+            for (RowPredicate operand : ((AndPredicate) predicate).getOperands()) {
+                RowBitmap bitmap = bitmap(operand);
+                if (bitmap == null) {
+                    residual.add(operand);
+                } else {
+                    rows = rows == null ? bitmap : rows.and(bitmap);
+                }
+            }
+            if (rows == null) {
+                return predicate;
+            }
+            if (residual.isEmpty()) {
+                return new BitmapPredicate(rows, null);
+            }
+            return new BitmapPredicate(rows, residual.size() == 1 ? residual.get(0) : new AndPredicate(residual.toArray(new RowPredicate[0])));
+        }
+        RowBitmap bitmap = bitmap(predicate);
+        return bitmap == null ? predicate : new BitmapPredicate(bitmap, null);
+    }
+
+    /**
+     * Выбирает наименьший диапазон индекса, который содержит все строки, удовлетворяющие фильтру.
+     * Диапазон может быть получен из сравнения верхнего уровня или из операнда логического И.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return диапазон индекса или null, если фильтр нельзя выполнить по индексу.
+     */
+    public IndexRange plan(RowPredicate predicate) {
+        if (predicate instanceof BitmapPredicate) {
+            return plan(((BitmapPredicate) predicate).getResidual());
+        }
+        if (predicate instanceof ColumnComparison) {
+            ColumnComparison comparison = (ColumnComparison) predicate;
+            SortedIndex index = indexes[comparison.getIndex()];
+            return index == null ? null : index.range(comparison.getComparison(), comparison.getLiteral());
+        }
+        IndexRange best = null;
+        if (predicate instanceof AndPredicate) {
+            for (RowPredicate operand : ((AndPredicate) predicate).getOperands()) {
+                IndexRange range = plan(operand);
+                if (range != null && (best == null || range.size() < best.size())) {
+                    best = range;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Вспомогательный метод, вычисляющий по битовым индексам множество строк, удовлетворяющих фильтру.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return множество номеров строк или null, если фильтр нельзя вычислить по битовым индексам целиком.
+     */
+    private RowBitmap bitmap(RowPredicate predicate) {
+        if (predicate instanceof StringColumnComparison) {
+            StringColumnComparison comparison = (StringColumnComparison) predicate;
+            BitmapIndex index = bitmaps[comparison.getIndex()];
+            if (index == null) {
+                return null;
+            }
+            RowBitmap equal = index.find(comparison.getLiteral());
+            return comparison.isNegated() ? all.andNot(equal) : equal;
+        }
+        boolean and = predicate instanceof AndPredicate;
+        if (!and && !(predicate instanceof OrPredicate)) {
+            return null;
+        }
+        RowPredicate[] operands = and ? ((AndPredicate) predicate).getOperands() : ((OrPredicate) predicate).getOperands();
+        RowBitmap result = null;
+        for (RowPredicate operand : operands) {
+            RowBitmap bitmap = bitmap(operand);
+            if (bitmap == null) {
+                return null;
+            }
+            result = result == null ? bitmap : and ? result.and(bitmap) : result.or(bitmap);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.index;
+
+import org.example.entity.Column;
+import org.example.entity.ColumnType;
+import org.example.store.RowStore;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Вторичный индекс по строковой колонке: номера строк, упорядоченные по значению колонки в нижнем регистре.
+ * Строки, значения которых начинаются с префикса, занимают в индексе непрерывный диапазон,
+ * границы которого находятся двоичным поиском. Значения не хранятся в индексе, а читаются из хранилища
+ * только при поиске границ.
+ */
+public class PrefixIndex {
+    /**
+     * Хранилище строк.
+     */
+    private final RowStore store;
+    /**
+     * Индекс колонки в массиве информации.
+     */
+    private final int index;
+    /**
+     * Номера строк в порядке возрастания значений колонки в нижнем регистре.
+     */
+    private final int[] rows;
+
+    /**
+     * Конструктор класса. Сортирует строки хранилища по значению колонки.
+     *
+     * @param store  хранилище строк.
+     * @param column строковая колонка.
+     */
+    public PrefixIndex(RowStore store, Column column) {
+        if (column.getType() != ColumnType.STRING) {
+            throw new IllegalArgumentException("Колонка " + column.getNumber() + " не является строковой");
+        }
+        this.store = store;
+        this.index = column.getIndex();
+        String[] values = new String[store.size()];
+        for (int row = 0; row < values.length; row++) {
+            values[row] = store.getString(row, index).toLowerCase();
+        }
+        this.rows = IntStream.range(0, values.length).boxed()
+                .sorted(Comparator.comparing(row -> values[row]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Находит строки, значения колонки которых начинаются с префикса.
+     *
+     * @param prefix префикс в нижнем регистре.
+     * @return номера строк в порядке значений колонки.
+     */
+    public int[] find(String prefix) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (value(middle).compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int from = low;
+        high = rows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (value(middle).startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return Arrays.copyOfRange(rows, from, low);
+    }
+
+    /**
+     * Вспомогательный метод, читающий значение колонки строки на позиции индекса.
+     *
+     * @param position позиция индекса.
+     * @return значение в нижнем регистре.
+     */
+    private String value(int position) {
+        return store.getString(rows[position], index).toLowerCase();
+    }
+}
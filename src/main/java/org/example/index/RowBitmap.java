@@ -0,0 +1,518 @@
+package org.example.index;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемое сжатое множество номеров строк. Номера делятся на блоки по 65536 по старшим 16 битам,
+ * и каждый блок хранится в наиболее компактном из трех представлений: упорядоченный массив младших битов
+ * для редких строк, битовая карта из 1024 слов для плотных блоков или список отрезков для непрерывных
+ * диапазонов номеров. Пересечение, объединение и разность вычисляются поблочно: над словами битовых карт,
+ * а массивы фильтруются проверкой принадлежности без распаковки.
+ */
+public final class RowBitmap {
+    /**
+     * Количество слов битовой карты блока.
+     */
+    private static final int WORDS = 1 << 10;
+    /**
+     * Наибольшее количество строк блока, хранимых массивом.
+     */
+    private static final int ARRAY_LIMIT = 1 << 12;
+    /**
+     * Пустое множество.
+     */
+    private static final RowBitmap EMPTY = new RowBitmap(new char[0], new Container[0], 0);
+    /**
+     * Старшие 16 бит номеров строк блоков в порядке возрастания.
+     */
+    private final char[] keys;
+    /**
+     * Блоки в порядке ключей.
+     */
+    private final Container[] containers;
+    /**
+     * Количество строк во множестве.
+     */
+    private final int cardinality;
+
+    private RowBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = Arrays.copyOf(keys, size);
+        this.containers = Arrays.copyOf(containers, size);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += containers[i].cardinality();
+        }
+        this.cardinality = count;
+    }
+
+    /**
+     * Получает пустое множество.
+     *
+     * @return пустое множество.
+     */
+    public static RowBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Создает множество всех номеров строк диапазона. Каждый блок диапазона хранится одним отрезком.
+     *
+     * @param from первый номер строки (включительно).
+     * @param to   последний номер строки (не включительно).
+     * @return множество номеров.
+     */
+    public static RowBitmap range(int from, int to) {
+        if (from >= to) {
+            return EMPTY;
+        }
+        int first = from >>> 16;
+        int last = (to - 1) >>> 16;
+        char[] keys = new char[last - first + 1];
+        Container[] containers = new Container[keys.length];
+        for (int key = first; key <= last; key++) {
+            int start = key == first ? from & 0xFFFF : 0;
+            int end = key == last ? (to - 1) & 0xFFFF : 0xFFFF;
+            keys[key - first] = (char) key;
+            containers[key - first] = new RunContainer(new char[]{(char) start}, new char[]{(char) end});
+        }
+        return new RowBitmap(keys, containers, keys.length);
+    }
+
+    /**
+     * Проверяет, содержит ли множество номер строки.
+     *
+     * @param row номер строки.
+     * @return true, если номер есть во множестве.
+     */
+    public boolean contains(int row) {
+        int i = keys.length == 1 ? (keys[0] == row >>> 16 ? 0 : -1) : Arrays.binarySearch(keys, (char) (row >>> 16));
+        return i >= 0 && containers[i].contains(row & 0xFFFF);
+    }
+
+    /**
+     * Получает количество строк во множестве.
+     *
+     * @return количество строк.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Распаковывает множество в массив номеров строк.
+     *
+     * @return номера строк в порядке возрастания.
+     */
+    public int[] toArray() {
+        int[] rows = new int[cardinality];
+        int position = 0;
+        for (int i = 0; i < keys.length; i++) {
+            position = containers[i].fill(keys[i] << 16, rows, position);
+        }
+        return rows;
+    }
+
+    /**
+     * Вычисляет пересечение множеств.
+     *
+     * @param other другое множество.
+     * @return строки, которые есть в обоих множествах.
+     */
+    public RowBitmap and(RowBitmap other) {
+        char[] resultKeys = new char[Math.min(keys.length, other.keys.length)];
+        Container[] result = new Container[resultKeys.length];
+        int size = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container != null) {
+                    resultKeys[size] = keys[i];
+                    result[size++] = container;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new RowBitmap(resultKeys, result, size);
+    }
+
+    /**
+     * Вычисляет объединение множеств.
+     *
+     * @param other другое множество.
+     * @return строки, которые есть хотя бы в одном множестве.
+     */
+    public RowBitmap or(RowBitmap other) {
+        char[] resultKeys = new char[keys.length + other.keys.length];
+        Container[] result = new Container[resultKeys.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || i < keys.length && keys[i] < other.keys[j]) {
+                resultKeys[size] = keys[i];
+                result[size++] = containers[i++];
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                resultKeys[size] = other.keys[j];
+                result[size++] = other.containers[j++];
+            } else {
+                resultKeys[size] = keys[i];
+                result[size++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return new RowBitmap(resultKeys, result, size);
+    }
+
+    /**
+     * Вычисляет разность множеств.
+     *
+     * @param other вычитаемое множество.
+     * @return строки этого множества, которых нет в другом.
+     */
+    public RowBitmap andNot(RowBitmap other) {
+        char[] resultKeys = new char[keys.length];
+        Container[] result = new Container[keys.length];
+        int size = 0;
+        for (int i = 0, j = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container container = j < other.keys.length && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j]) : containers[i];
+            if (container != null) {
+                resultKeys[size] = keys[i];
+                result[size++] = container;
+            }
+        }
+        return new RowBitmap(resultKeys, result, size);
+    }
+
+    /**
+     * Построитель множества из номеров строк в произвольном порядке. Номера собираются в битовые карты блоков,
+     * которые при построении сжимаются в наиболее компактное представление.
+     */
+    public static class Builder {
+        private long[][] blocks = new long[1][];
+
+        /**
+         * Добавляет номер строки.
+         *
+         * @param row номер строки.
+         * @return этот построитель.
+         */
+        public Builder add(int row) {
+            int key = row >>> 16;
+            if (key >= blocks.length) {
+                blocks = Arrays.copyOf(blocks, Math.max(key + 1, blocks.length * 2));
+            }
+            if (blocks[key] == null) {
+                blocks[key] = new long[WORDS];
+            }
+            blocks[key][(row & 0xFFFF) >>> 6] |= 1L << row;
+            return this;
+        }
+
+        /**
+         * Строит множество из добавленных номеров.
+         *
+         * @return множество номеров строк.
+         */
+        public RowBitmap build() {
+            char[] keys = new char[blocks.length];
+            Container[] containers = new Container[blocks.length];
+            int size = 0;
+            for (int key = 0; key < blocks.length; key++) {
+                Container container = blocks[key] == null ? null : Container.of(blocks[key]);
+                if (container != null) {
+                    keys[size] = (char) key;
+                    containers[size++] = container;
+                }
+            }
+            return new RowBitmap(keys, containers, size);
+        }
+    }
+
+    /**
+     * Блок множества: младшие 16 бит номеров строк с одинаковыми старшими битами.
+     * Операции над блоками возвращают новый блок или null, если результат пуст.
+     */
+    private abstract static class Container {
+        abstract boolean contains(int low);
+
+        abstract int cardinality();
+
+        /**
+         * Получает битовую карту блока. Результат нельзя изменять.
+         */
+        abstract long[] words();
+
+        /**
+         * Записывает номера строк блока в массив начиная с позиции и возвращает следующую позицию.
+         */
+        abstract int fill(int high, int[] rows, int position);
+
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return ((ArrayContainer) other).filter(this, true);
+            }
+            long[] a = words();
+            long[] b = other.words();
+            long[] result = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = a[i] & b[i];
+            }
+            return of(result);
+        }
+
+        Container or(Container other) {
+            long[] a = words();
+            long[] b = other.words();
+            long[] result = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = a[i] | b[i];
+            }
+            return of(result);
+        }
+
+        Container andNot(Container other) {
+            long[] a = words();
+            long[] b = other.words();
+            long[] result = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = a[i] & ~b[i];
+            }
+            return of(result);
+        }
+
+        /**
+         * Сжимает битовую карту в самое компактное представление: массив занимает 2 байта на строку,
+         * список отрезков 4 байта на отрезок, битовая карта 8 КБ.
+         *
+         * @param words битовая карта блока.
+         * @return блок или null, если в карте нет строк.
+         */
+        static Container of(long[] words) {
+            int cardinality = 0;
+            int runs = 0;
+            long previous = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+                runs += Long.bitCount(word & ~(word << 1 | previous >>> 63));
+                previous = word;
+            }
+            if (cardinality == 0) {
+                return null;
+            }
+            if (runs * 2 < Math.min(cardinality, ARRAY_LIMIT)) {
+                return RunContainer.of(words, runs);
+            }
+            if (cardinality <= ARRAY_LIMIT) {
+                return ArrayContainer.of(words, cardinality);
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    /**
+     * Блок с редкими строками: упорядоченный массив младших битов номеров.
+     */
+    private static class ArrayContainer extends Container {
+        private final char[] values;
+
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        static ArrayContainer of(long[] words, int cardinality) {
+            char[] values = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[size++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values);
+        }
+
+        @Override
+        boolean contains(int low) {
+            return Arrays.binarySearch(values, (char) low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        long[] words() {
+            long[] words = new long[WORDS];
+            for (char value : values) {
+                words[value >>> 6] |= 1L << value;
+            }
+            return words;
+        }
+
+        @Override
+        int fill(int high, int[] rows, int position) {
+            for (char value : values) {
+                rows[position++] = high | value;
+            }
+            return position;
+        }
+
+        @Override
+        Container and(Container other) {
+            return filter(other, true);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            return filter(other, false);
+        }
+
+        /**
+         * Оставляет строки, принадлежность которых другому блоку совпадает с заданной.
+         */
+        Container filter(Container other, boolean member) {
+            char[] result = new char[values.length];
+            int size = 0;
+            for (char value : values) {
+                if (other.contains(value) == member) {
+                    result[size++] = value;
+                }
+            }
+            return size == 0 ? null : new ArrayContainer(size == values.length ? values : Arrays.copyOf(result, size));
+        }
+    }
+
+    /**
+     * Плотный блок: битовая карта из 1024 слов.
+     */
+    private static class BitmapContainer extends Container {
+        private final long[] words;
+        private final int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return (words[low >>> 6] & 1L << low) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        long[] words() {
+            return words;
+        }
+
+        @Override
+        int fill(int high, int[] rows, int position) {
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    rows[position++] = high | i << 6 | Long.numberOfTrailingZeros(word);
+                }
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Блок из непрерывных диапазонов номеров: упорядоченные отрезки с включительными границами.
+     */
+    private static class RunContainer extends Container {
+        private final char[] starts;
+        private final char[] ends;
+
+        RunContainer(char[] starts, char[] ends) {
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        static RunContainer of(long[] words, int runs) {
+            char[] starts = new char[runs];
+            char[] ends = new char[runs];
+            int size = 0;
+            boolean open = false;
+            for (int i = 0; i < WORDS; i++) {
+                if (words[i] == (open ? -1L : 0L)) {
+                    continue;
+                }
+                for (int bit = i << 6; bit < (i + 1) << 6; bit++) {
+                    boolean set = (words[i] & 1L << bit) != 0;
+                    if (set && !open) {
+                        starts[size] = (char) bit;
+                    } else if (!set && open) {
+                        ends[size++] = (char) (bit - 1);
+                    }
+                    open = set;
+                }
+            }
+            if (open) {
+                ends[size] = (char) ((WORDS << 6) - 1);
+            }
+            return new RunContainer(starts, ends);
+        }
+
+        @Override
+        boolean contains(int low) {
+            int i = Arrays.binarySearch(starts, (char) low);
+            if (i >= 0) {
+                return true;
+            }
+            i = -i - 2;
+            return i >= 0 && low <= ends[i];
+        }
+
+        @Override
+        int cardinality() {
+            int cardinality = 0;
+            for (int i = 0; i < starts.length; i++) {
+                cardinality += ends[i] - starts[i] + 1;
+            }
+            return cardinality;
+        }
+
+        @Override
+        long[] words() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < starts.length; i++) {
+                int from = starts[i];
+                int to = ends[i] + 1;
+                int first = from >>> 6;
+                int last = (to - 1) >>> 6;
+                if (first == last) {
+                    words[first] |= -1L >>> (64 - (to - from)) << from;
+                    continue;
+                }
+                words[first] |= -1L << from;
+                for (int word = first + 1; word < last; word++) {
+                    words[word] = -1L;
+                }
+                words[last] |= -1L >>> -to;
+            }
+            return words;
+        }
+
+        @Override
+        int fill(int high, int[] rows, int position) {
+            for (int i = 0; i < starts.length; i++) {
+                for (int value = starts[i]; value <= ends[i]; value++) {
+                    rows[position++] = high | value;
+                }
+            }
+            return position;
+        }
+    }
+}
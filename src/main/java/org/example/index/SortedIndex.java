@@ -0,0 +1,126 @@
+package org.example.index;
+
+import org.example.entity.Column;
+import org.example.filter.Comparison;
+import org.example.store.RowStore;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Вторичный индекс по числовой колонке: номера строк, упорядоченные по значению колонки.
+ * Позволяет за логарифмическое время найти диапазон строк, удовлетворяющих сравнению.
+ */
+public class SortedIndex {
+    /**
+     * Значения колонки в порядке возрастания.
+     */
+    private final double[] values;
+    /**
+     * Номера строк в порядке возрастания значений колонки.
+     */
+    private final int[] rows;
+
+    /**
+     * Конструктор класса. Сортирует строки хранилища по значению колонки.
+     *
+     * @param store  хранилище строк.
+     * @param column числовая колонка.
+     */
+    public SortedIndex(RowStore store, Column column) {
+        int index = column.getIndex();
+        double[] columnValues = new double[store.size()];
+        for (int row = 0; row < columnValues.length; row++) {
+            switch (column.getType()) {
+                case INTEGER: {
+                    columnValues[row] = store.getInteger(row, index);
+                    break;
+                }
+                case DOUBLE: {
+                    columnValues[row] = store.getDouble(row, index);
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Колонка " + column.getNumber() + " не является числовой");
+            }
+        }
+        this.rows = IntStream.range(0, columnValues.length).boxed()
+                .sorted(Comparator.comparingDouble(row -> columnValues[row]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.values = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            values[i] = columnValues[rows[i]];
+        }
+    }
+
+    /**
+     * Находит диапазон позиций индекса, значения в которых удовлетворяют сравнению.
+     *
+     * @param comparison операция сравнения.
+     * @param literal    значение литерала.
+     * @return диапазон позиций или null, если операция не может быть выполнена по индексу.
+     */
+    public IndexRange range(Comparison comparison, double literal) {
+        switch (comparison) {
+            case EQUALS:
+                return new IndexRange(this, lowerBound(literal), upperBound(literal));
+            case LARGER:
+                return new IndexRange(this, upperBound(literal), rows.length);
+            case LESS:
+                return new IndexRange(this, 0, lowerBound(literal));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Получает номер строки на заданной позиции индекса.
+     *
+     * @param position позиция индекса.
+     * @return номер строки.
+     */
+    public int rowAt(int position) {
+        return rows[position];
+    }
+
+    /**
+     * Находит первую позицию, значение в которой не меньше заданного.
+     *
+     * @param value значение.
+     * @return позиция.
+     */
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Находит первую позицию, значение в которой больше заданного.
+     *
+     * @param value значение.
+     * @return позиция.
+     */
+    private int upperBound(double value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
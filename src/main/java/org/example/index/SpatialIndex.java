@@ -0,0 +1,296 @@
+package org.example.index;
+
+import org.example.entity.Column;
+import org.example.filter.AndPredicate;
+import org.example.filter.BoxPredicate;
+import org.example.filter.RadiusPredicate;
+import org.example.filter.RowPredicate;
+import org.example.store.RowStore;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntPredicate;
+
+/**
+ * Пространственный индекс координат аэропортов: двумерное k-d дерево по широте и долготе.
+ * Дерево хранится неявно в массивах: медиана диапазона по широте или долготе, чередующимся по глубине,
+ * находится в середине диапазона, слева от нее точки с меньшими значениями, справа с большими.
+ * Прямоугольник находится обходом только тех поддеревьев, которые он пересекает, круг - по описанному
+ * вокруг него прямоугольнику с проверкой расстояния, а ближайшие аэропорты - кругами удваивающегося радиуса.
+ */
+public class SpatialIndex {
+    /**
+     * Начальный радиус поиска ближайших аэропортов в километрах.
+     */
+    private static final double NEAREST_RADIUS = 64;
+    /**
+     * Хранилище строк.
+     */
+    private final RowStore store;
+    /**
+     * Номера строк в порядке дерева.
+     */
+    private final int[] rows;
+    /**
+     * Широты в порядке дерева.
+     */
+    private final double[] latitudes;
+    /**
+     * Долготы в порядке дерева.
+     */
+    private final double[] longitudes;
+
+    /**
+     * Конструктор класса. Строит дерево по координатам строк.
+     *
+     * @param store    хранилище строк.
+     * @param included условие, которому должны удовлетворять номера строк, попадающих в индекс.
+     */
+    public SpatialIndex(RowStore store, IntPredicate included) {
+        this.store = store;
+        int[] selected = new int[store.size()];
+        int size = 0;
+        for (int row = 0; row < selected.length; row++) {
+            if (included.test(row)) {
+                selected[size++] = row;
+            }
+        }
+        this.rows = Arrays.copyOf(selected, size);
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = store.getDouble(rows[i], Column.LATITUDE.getIndex());
+            longitudes[i] = store.getDouble(rows[i], Column.LONGITUDE.getIndex());
+        }
+        build(0, size, true);
+    }
+
+    /**
+     * Находит строки, координаты которых лежат в прямоугольнике.
+     *
+     * @param box прямоугольник широт и долгот.
+     * @return номера строк.
+     */
+    public int[] find(BoxPredicate box) {
+        RowList result = new RowList();
+        if (box.getWest() <= box.getEast()) {
+            find(0, rows.length, true, box.getSouth(), box.getWest(), box.getNorth(), box.getEast(), result);
+        } else {
+            find(0, rows.length, true, box.getSouth(), box.getWest(), box.getNorth(), 180, result);
+            find(0, rows.length, true, box.getSouth(), -180, box.getNorth(), box.getEast(), result);
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Находит строки, аэропорты которых находятся не дальше радиуса от центра круга.
+     *
+     * @param radius круг.
+     * @return номера строк.
+     */
+    public int[] find(RadiusPredicate radius) {
+        int[] candidates = find(radius.bounds());
+        int count = 0;
+        for (int row : candidates) {
+            if (radius.test(row)) {
+                candidates[count++] = row;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Находит ближайшие к точке аэропорты среди строк, удовлетворяющих условию. Радиус поиска удваивается,
+     * пока в круг не попадет нужное количество подходящих аэропортов: тогда все ближайшие из них гарантированно
+     * лежат в круге. Аэропорты на одинаковом расстоянии упорядочиваются по номеру строки.
+     *
+     * @param latitude  широта точки в градусах.
+     * @param longitude долгота точки в градусах.
+     * @param count     количество аэропортов.
+     * @param accepted  условие, которому должны удовлетворять номера строк.
+     * @return номера строк в порядке возрастания расстояния.
+     */
+    public int[] nearest(double latitude, double longitude, int count, IntPredicate accepted) {
+        double maxRadius = Math.PI * RadiusPredicate.EARTH_RADIUS;
+        for (double radius = NEAREST_RADIUS; ; radius *= 2) {
+            RadiusPredicate circle = new RadiusPredicate(store, latitude, longitude, radius >= maxRadius ? Double.POSITIVE_INFINITY : radius);
+            int[] found = find(circle.bounds());
+            int size = 0;
+            for (int row : found) {
+                if (circle.test(row) && accepted.test(row)) {
+                    found[size++] = row;
+                }
+            }
+            if (size >= count || radius >= maxRadius) {
+                double[] distances = new double[size];
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    distances[i] = circle.distance(found[i]);
+                    order[i] = i;
+                }
+                Arrays.sort(order, Comparator.comparingDouble((Integer i) -> distances[i]).thenComparingInt(i -> found[i]));
+                int[] result = new int[Math.min(count, size)];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = found[order[i]];
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Выбирает строки-кандидаты для фильтра: строки прямоугольника или круга,
+     * полученного из фильтра верхнего уровня или из операнда логического И. Из нескольких операндов
+     * выбирается дающий меньше всего строк.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return номера строк, среди которых находятся все строки, удовлетворяющие фильтру,
+     * или null, если фильтр нельзя выполнить по индексу.
+     */
+    public int[] plan(RowPredicate predicate) {
+        if (predicate instanceof BoxPredicate) {
+            return find((BoxPredicate) predicate);
+        }
+        if (predicate instanceof RadiusPredicate) {
+            return find((RadiusPredicate) predicate);
+        }
+        if (predicate instanceof BitmapPredicate) {
+            return plan(((BitmapPredicate) predicate).getResidual());
+        }
+        int[] best = null;
+        if (predicate instanceof AndPredicate) {
+            for (RowPredicate operand : ((AndPredicate) predicate).getOperands()) {
+                int[] candidates = plan(operand);
+                if (candidates != null && (best == null || candidates.length < best.length)) {
+                    best = candidates;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Проверяет, может ли фильтр быть выполнен по индексу, не строя сам индекс: содержит ли он прямоугольник
+     * или круг на верхнем уровне или в операнде логического И.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return true, если {@link #plan(RowPredicate)} может вернуть строки-кандидаты.
+     */
+    public static boolean plannable(RowPredicate predicate) {
+        if (predicate instanceof BoxPredicate || predicate instanceof RadiusPredicate) {
+            return true;
+        }
+        if (predicate instanceof BitmapPredicate) {
+            return plannable(((BitmapPredicate) predicate).getResidual());
+        }
+        if (predicate instanceof AndPredicate) {
+            for (RowPredicate operand : ((AndPredicate) predicate).getOperands()) {
+                if (plannable(operand)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Вспомогательный метод, строящий поддерево диапазона: медиана по координате уровня
+     * переставляется в середину диапазона, после чего поддеревья строятся по другой координате.
+     *
+     * @param from     первая позиция диапазона (включительно).
+     * @param to       последняя позиция диапазона (не включительно).
+     * @param latitude true, если уровень делится по широте.
+     */
+    private void build(int from, int to, boolean latitude) {
+        if (to - from <= 1) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        select(from, to - 1, middle, latitude ? latitudes : longitudes);
+        build(from, middle, !latitude);
+        build(middle + 1, to, !latitude);
+    }
+
+    /**
+     * Вспомогательный метод, находящий k-й по величине элемент диапазона быстрым выбором:
+     * после него элемент стоит на своей позиции, слева не больше его, справа не меньше.
+     */
+    private void select(int left, int right, int k, double[] keys) {
+        while (left < right) {
+            double pivot = keys[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        double value = latitudes[i];
+        latitudes[i] = latitudes[j];
+        latitudes[j] = value;
+        value = longitudes[i];
+        longitudes[i] = longitudes[j];
+        longitudes[j] = value;
+    }
+
+    /**
+     * Вспомогательный метод, добавляющий строки поддерева, лежащие в прямоугольнике без пересечения 180-го меридиана.
+     */
+    private void find(int from, int to, boolean latitude, double south, double west, double north, double east, RowList result) {
+        if (from >= to) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        double lat = latitudes[middle];
+        double lon = longitudes[middle];
+        if (lat >= south && lat <= north && lon >= west && lon <= east) {
+            result.add(rows[middle]);
+        }
+        double key = latitude ? lat : lon;
+        if ((latitude ? south : west) <= key) {
+            find(from, middle, !latitude, south, west, north, east, result);
+        }
+        if ((latitude ? north : east) >= key) {
+            find(middle + 1, to, !latitude, south, west, north, east, result);
+        }
+    }
+
+    /**
+     * Растущий список номеров строк.
+     */
+    private static class RowList {
+        private int[] rows = new int[16];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
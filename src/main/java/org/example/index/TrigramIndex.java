@@ -0,0 +1,160 @@
+package org.example.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Индекс триграмм названий аэропортов для поиска по подстроке. Для каждой тройки подряд идущих символов
+ * названий в нижнем регистре хранится упорядоченный список номеров строк, в названиях которых она встречается.
+ * Строки-кандидаты для подстроки получаются пересечением списков ее триграмм, и только они
+ * проверяются сравнением названия с подстрокой.
+ */
+public class TrigramIndex {
+    /**
+     * Длина n-граммы.
+     */
+    private static final int N = 3;
+    /**
+     * Названия в нижнем регистре по номеру строки; null, если строки нет в дереве.
+     */
+    private final String[] names;
+    /**
+     * Упорядоченные номера строк по триграмме.
+     */
+    private final Map<Long, int[]> postings;
+
+    /**
+     * Конструктор класса. Разбивает названия на триграммы.
+     *
+     * @param names оригинальные названия по номеру строки; null, если строки нет в дереве.
+     */
+    public TrigramIndex(String[] names) {
+        this.names = new String[names.length];
+        Map<Long, RowList> lists = new HashMap<>();
+        for (int row = 0; row < names.length; row++) {
+            if (names[row] == null) {
+                continue;
+            }
+            String name = names[row].toLowerCase();
+            this.names[row] = name;
+            for (int i = 0; i + N <= name.length(); i++) {
+                lists.computeIfAbsent(trigram(name, i), key -> new RowList()).add(row);
+            }
+        }
+        this.postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, RowList> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    /**
+     * Находит строки, названия которых содержат подстроку. Для подстроки короче триграммы
+     * проверяются названия всех строк.
+     *
+     * @param substring подстрока в нижнем регистре.
+     * @return номера строк в порядке возрастания.
+     */
+    public int[] find(String substring) {
+        int[] candidates = candidates(substring);
+        int count = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            int row = candidates[i];
+            if (names[row] != null && names[row].contains(substring)) {
+                candidates[count++] = row;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Вспомогательный метод, пересекающий списки строк триграмм подстроки, начиная с самого короткого.
+     *
+     * @param substring подстрока в нижнем регистре.
+     * @return номера строк-кандидатов в порядке возрастания; массив можно изменять.
+     */
+    private int[] candidates(String substring) {
+        if (substring.length() < N) {
+            int[] rows = new int[names.length];
+            for (int row = 0; row < rows.length; row++) {
+                rows[row] = row;
+            }
+            return rows;
+        }
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + N <= substring.length(); i++) {
+            int[] rows = postings.get(trigram(substring, i));
+            if (rows == null) {
+                return new int[0];
+            }
+            lists.add(rows);
+        }
+        lists.sort(Comparator.comparingInt(rows -> rows.length));
+        int[] result = lists.get(0).clone();
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; i++) {
+            size = intersect(result, size, lists.get(i));
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Вспомогательный метод, оставляющий в начале массива только строки, которые есть в другом списке.
+     * Позиции в длинном списке ищутся двоичным поиском от последней найденной позиции.
+     *
+     * @param rows  упорядоченные номера строк.
+     * @param size  количество строк в начале массива.
+     * @param other упорядоченный список, не короче первого.
+     * @return количество оставшихся строк.
+     */
+    private static int intersect(int[] rows, int size, int[] other) {
+        int count = 0;
+        int from = 0;
+        for (int i = 0; i < size && from < other.length; i++) {
+            int position = Arrays.binarySearch(other, from, other.length, rows[i]);
+            if (position >= 0) {
+                rows[count++] = rows[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Вспомогательный метод, упаковывающий три символа строки в одно число.
+     *
+     * @param s     строка.
+     * @param start позиция первого символа.
+     * @return ключ триграммы.
+     */
+    private static long trigram(String s, int start) {
+        return (long) s.charAt(start) << 32 | (long) s.charAt(start + 1) << 16 | s.charAt(start + 2);
+    }
+
+    /**
+     * Растущий список номеров строк одной триграммы без повторов подряд.
+     */
+    private static class RowList {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size > 0 && rows[size - 1] == row) {
+                return;
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек с логарифмическими корзинами: каждая степень двойки делится на
+ * {@value #SUB_BUCKETS} равные корзины, поэтому процентили определяются с относительной
+ * погрешностью не больше 12.5%, а память не зависит от количества измерений.
+ * Запись не блокирует потоки, поэтому гистограмму можно заполнять из нескольких потоков.
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+    /**
+     * Количество корзин на одну степень двойки.
+     */
+    private static final int SUB_BUCKETS = 8;
+    /**
+     * Двоичный логарифм количества корзин на одну степень двойки.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    /**
+     * Количество корзин, достаточное для любого неотрицательного значения long.
+     */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    /**
+     * Количество измерений в каждой корзине.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /**
+     * Количество измерений.
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * Суммарное время в наносекундах.
+     */
+    private final LongAdder total = new LongAdder();
+    /**
+     * Наибольшее измерение в наносекундах.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Записывает измерение.
+     *
+     * @param nanos задержка в наносекундах.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Сбрасывает все измерения. Измерения, записываемые одновременно со сбросом, могут частично сохраниться.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Вычисляет процентиль задержки.
+     *
+     * @param percentile процентиль от 0 до 100.
+     * @return верхняя граница корзины процентиля, но не больше наибольшего измерения, в наносекундах.
+     */
+    public long percentile(double percentile) {
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            recorded += counts.get(i);
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return max.get() / 1000.0;
+    }
+
+    @Override
+    public double getTotalMicros() {
+        return total.sum() / 1000.0;
+    }
+
+    /**
+     * Вспомогательный метод, вычисляющий номер корзины значения.
+     *
+     * @param value неотрицательное значение.
+     * @return номер корзины.
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Вспомогательный метод, вычисляющий наибольшее значение корзины.
+     *
+     * @param bucket номер корзины.
+     * @return наибольшее значение, попадающее в корзину.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.metrics;
+
+/**
+ * Интерфейс MBean гистограммы задержек одной фазы поиска. Времена отдаются в микросекундах.
+ */
+public interface LatencyHistogramMBean {
+    /**
+     * Получает количество измерений.
+     *
+     * @return количество измерений.
+     */
+    long getCount();
+
+    /**
+     * Получает медиану задержки.
+     *
+     * @return 50-й процентиль в микросекундах.
+     */
+    double getP50Micros();
+
+    /**
+     * Получает 99-й процентиль задержки.
+     *
+     * @return 99-й процентиль в микросекундах.
+     */
+    double getP99Micros();
+
+    /**
+     * Получает наибольшую задержку.
+     *
+     * @return наибольшая задержка в микросекундах.
+     */
+    double getMaxMicros();
+
+    /**
+     * Получает суммарное время фазы.
+     *
+     * @return суммарное время в микросекундах.
+     */
+    double getTotalMicros();
+}
@@ -0,0 +1,236 @@
+package org.example.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики поиска: гистограммы задержек по фазам и счетчики строк и ошибок фильтров.
+ * Метрики общие для всех деревьев процесса и заполняются из нескольких потоков без блокировок.
+ * После вызова {@link #register()} они доступны через JMX: счетчики под именем
+ * {@code org.example:type=SearchMetrics}, гистограммы под именами
+ * {@code org.example:type=SearchMetrics,phase=<фаза>}.
+ */
+public class SearchMetrics implements SearchMetricsMBean {
+    /**
+     * Имя MBean счетчиков.
+     */
+    private static final String OBJECT_NAME = "org.example:type=SearchMetrics";
+    /**
+     * Единственный экземпляр метрик.
+     */
+    private static final SearchMetrics INSTANCE = new SearchMetrics();
+    /**
+     * Гистограммы задержек по фазам.
+     */
+    private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    /**
+     * Количество выполненных запросов поиска.
+     */
+    private final LongAdder queries = new LongAdder();
+    /**
+     * Количество строк, проверенных при обходе.
+     */
+    private final LongAdder rowsVisited = new LongAdder();
+    /**
+     * Количество строк, удовлетворивших фильтру.
+     */
+    private final LongAdder rowsMatched = new LongAdder();
+    /**
+     * Количество ошибок лексического анализа фильтров.
+     */
+    private final LongAdder lexerErrors = new LongAdder();
+    /**
+     * Количество ошибок компиляции фильтров.
+     */
+    private final LongAdder compileErrors = new LongAdder();
+
+    /**
+     * Фаза поиска.
+     */
+    public enum Phase {
+        /**
+         * Спуск по дереву к узлу префикса.
+         */
+        DESCENT("descent"),
+        /**
+         * Лексический анализ и компиляция фильтра.
+         */
+        FILTER("filter"),
+        /**
+         * Обход поддерева или диапазона индекса с проверкой фильтра и формированием строк результата.
+         */
+        TRAVERSAL("traversal"),
+        /**
+         * Сортировка строк диапазона индекса и слияние частичных результатов параллельного поиска.
+         */
+        SORT("sort"),
+        /**
+         * Вывод результата в консоль.
+         */
+        OUTPUT("output");
+
+        private final String name;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Получает имя фазы, под которым публикуется ее гистограмма.
+         *
+         * @return имя фазы.
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Конструктор класса.
+     */
+    private SearchMetrics() {
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Получает метрики поиска процесса.
+     *
+     * @return метрики поиска.
+     */
+    public static SearchMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Публикует счетчики и гистограммы фаз как MBean в платформенном сервере MBean.
+     * Повторный вызов ничего не делает.
+     *
+     * @throws JMException если не удается зарегистрировать MBean.
+     */
+    public synchronized void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            return;
+        }
+        server.registerMBean(this, name);
+        for (Map.Entry<Phase, LatencyHistogram> entry : histograms.entrySet()) {
+            server.registerMBean(entry.getValue(), new ObjectName(OBJECT_NAME + ",phase=" + entry.getKey().getName()));
+        }
+    }
+
+    /**
+     * Записывает длительность фазы.
+     *
+     * @param phase фаза поиска.
+     * @param nanos длительность в наносекундах.
+     */
+    public void record(Phase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+    /**
+     * Получает гистограмму задержек фазы.
+     *
+     * @param phase фаза поиска.
+     * @return гистограмма фазы.
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    /**
+     * Учитывает выполненный запрос поиска.
+     */
+    public void query() {
+        queries.increment();
+    }
+
+    /**
+     * Учитывает строки, проверенные при обходе.
+     *
+     * @param visited количество проверенных строк.
+     * @param matched количество строк, удовлетворивших фильтру.
+     */
+    public void rows(long visited, long matched) {
+        rowsVisited.add(visited);
+        rowsMatched.add(matched);
+    }
+
+    /**
+     * Учитывает фильтр, который не удалось разобрать на лексемы.
+     */
+    public void lexerError() {
+        lexerErrors.increment();
+    }
+
+    /**
+     * Учитывает фильтр, который не удалось скомпилировать.
+     */
+    public void compileError() {
+        compileErrors.increment();
+    }
+
+    @Override
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    @Override
+    public long getRowsVisited() {
+        return rowsVisited.sum();
+    }
+
+    @Override
+    public long getRowsMatched() {
+        return rowsMatched.sum();
+    }
+
+    @Override
+    public long getLexerErrors() {
+        return lexerErrors.sum();
+    }
+
+    @Override
+    public long getCompileErrors() {
+        return compileErrors.sum();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        queries.reset();
+        rowsVisited.reset();
+        rowsMatched.reset();
+        lexerErrors.reset();
+        compileErrors.reset();
+    }
+
+    /**
+     * Формирует текстовый отчет по всем метрикам.
+     *
+     * @return отчет, по строке на фазу и строка счетчиков.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("Метрики поиска:");
+        for (Map.Entry<Phase, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            sb.append(String.format(Locale.ROOT, "%n  %-9s количество %d, p50 %.1f мкс, p99 %.1f мкс, max %.1f мкс, всего %.1f мс",
+                    entry.getKey().getName(), histogram.getCount(), histogram.getP50Micros(), histogram.getP99Micros(),
+                    histogram.getMaxMicros(), histogram.getTotalMicros() / 1000));
+        }
+        sb.append(String.format("%n  запросов %d, проверено строк %d, найдено строк %d, ошибок лексического анализа %d, ошибок компиляции фильтра %d",
+                getQueries(), getRowsVisited(), getRowsMatched(), getLexerErrors(), getCompileErrors()));
+        return sb.toString();
+    }
+}
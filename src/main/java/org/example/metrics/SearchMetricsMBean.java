@@ -0,0 +1,46 @@
+package org.example.metrics;
+
+/**
+ * Интерфейс MBean счетчиков поиска.
+ */
+public interface SearchMetricsMBean {
+    /**
+     * Получает количество выполненных запросов поиска.
+     *
+     * @return количество запросов.
+     */
+    long getQueries();
+
+    /**
+     * Получает количество строк, проверенных при обходе.
+     *
+     * @return количество проверенных строк.
+     */
+    long getRowsVisited();
+
+    /**
+     * Получает количество строк, удовлетворивших фильтру.
+     *
+     * @return количество найденных строк.
+     */
+    long getRowsMatched();
+
+    /**
+     * Получает количество фильтров, которые не удалось разобрать на лексемы.
+     *
+     * @return количество ошибок лексического анализа.
+     */
+    long getLexerErrors();
+
+    /**
+     * Получает количество фильтров, которые разобраны на лексемы, но не удалось скомпилировать.
+     *
+     * @return количество ошибок компиляции фильтра.
+     */
+    long getCompileErrors();
+
+    /**
+     * Сбрасывает гистограммы и счетчики.
+     */
+    void reset();
+}
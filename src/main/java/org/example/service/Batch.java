@@ -0,0 +1,140 @@
+package org.example.service;
+
+import org.example.entity.Query;
+import org.example.exception.FilterException;
+import org.example.trie.Trie;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетная обработка запросов из файла без участия пользователя.
+ * Файл имеет тот же формат, что и консольный ввод: строка фильтра, затем строка префикса, и так далее;
+ * строка {@code !quit} завершает список запросов. Запросы выполняются порциями через
+ * {@link Trie#searchAll(List)}, поэтому запросы с общим префиксом обрабатываются за один обход дерева.
+ * Результаты выводятся в порядке запросов, а в конце выводится общая пропускная способность.
+ */
+public class Batch {
+    /**
+     * Константа, обозначающая конец списка запросов.
+     */
+    private static final String END_WORK = "!quit";
+    /**
+     * Количество запросов, выполняемых за один вызов {@link Trie#searchAll(List)}.
+     * Ограничивает количество результатов, хранимых в памяти до вывода.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Выполняет все запросы файла и выводит их результаты.
+     *
+     * @param file     файл запросов в кодировке UTF-8.
+     * @param airports объект Trie, содержащий данные об аэропортах.
+     * @param offset   количество пропускаемых строк результата каждого запроса.
+     * @param limit    максимальное количество строк результата каждого запроса или {@link Trie#NO_LIMIT}.
+     * @throws IOException если не удается прочитать файл запросов.
+     */
+    public static void process(Path file, Trie airports, int offset, int limit) throws IOException {
+        List<Query> queries = readQueries(file, offset, limit);
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        long start = System.nanoTime();
+        long rows = 0;
+        for (int from = 0; from < queries.size(); from += CHUNK_SIZE) {
+            List<Query> chunk = queries.subList(from, Math.min(from + CHUNK_SIZE, queries.size()));
+            String[] errors = new String[chunk.size()];
+            List<List<String>> results = execute(airports, chunk, errors);
+            for (int i = 0; i < chunk.size(); i++) {
+                rows += print(out, chunk.get(i), results.get(i), errors[i]);
+            }
+            out.flush();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long throughput = millis == 0 ? queries.size() * 1000L : queries.size() * 1000L / millis;
+        out.println("Обработано запросов: " + queries.size() + ", найдено строк: " + rows
+                + ", время: " + millis + " мс, запросов в секунду: " + throughput);
+        out.flush();
+    }
+
+    /**
+     * Вспомогательный метод, читающий запросы из файла.
+     *
+     * @param file   файл запросов.
+     * @param offset количество пропускаемых строк результата каждого запроса.
+     * @param limit  максимальное количество строк результата каждого запроса.
+     * @return запросы в порядке файла.
+     * @throws IOException если не удается прочитать файл.
+     */
+    private static List<Query> readQueries(Path file, int offset, int limit) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<Query> queries = new ArrayList<>();
+        for (int i = 0; i + 1 < lines.size(); i += 2) {
+            String filter = lines.get(i);
+            String prefix = lines.get(i + 1);
+            if (filter.equals(END_WORK) || prefix.equals(END_WORK)) {
+                break;
+            }
+            queries.add(new Query(prefix, filter, offset, limit));
+        }
+        return queries;
+    }
+
+    /**
+     * Вспомогательный метод, выполняющий порцию запросов. Если фильтр одного из запросов неверен,
+     * запросы порции выполняются по одному, чтобы ошибка относилась только к своему запросу.
+     *
+     * @param airports объект Trie, содержащий данные об аэропортах.
+     * @param chunk    порция запросов.
+     * @param errors   массив, в который записываются сообщения об ошибках фильтров запросов.
+     * @return результаты запросов в порядке порции.
+     */
+    private static List<List<String>> execute(Trie airports, List<Query> chunk, String[] errors) {
+        try {
+            return airports.searchAll(chunk);
+        } catch (FilterException e) {
+            List<List<String>> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Query query = chunk.get(i);
+                try {
+                    results.add(airports.search(query.getPrefix(), query.getFilter(), query.getOffset(), query.getLimit()));
+                } catch (FilterException queryException) {
+                    results.add(null);
+                    errors[i] = queryException.getMessage();
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Вспомогательный метод, выводящий результат запроса в том же виде, что и {@link Trie#find(String, String)},
+     * но без времени поиска.
+     *
+     * @param out      поток вывода.
+     * @param query    запрос.
+     * @param airports строки результата или null, если слов с префиксом нет.
+     * @param error    сообщение об ошибке фильтра или null.
+     * @return количество выведенных строк результата.
+     */
+    private static int print(PrintWriter out, Query query, List<String> airports, String error) {
+        if (error != null) {
+            out.println("Ошибка в фильтре '" + query.getFilter() + "': " + error);
+            return 0;
+        }
+        if (airports == null) {
+            out.println("По префиксу '" + query.getPrefix() + "' нет строк");
+            return 0;
+        }
+        for (String airport : airports) {
+            out.println(airport);
+        }
+        out.println("Количество найденных строк: " + airports.size());
+        return airports.size();
+    }
+}
@@ -0,0 +1,284 @@
+package org.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Построчный разборщик CSV, работающий непосредственно с байтами файла.
+ * Для текущей строки запоминаются только границы полей, поэтому строки создаются
+ * лишь для строковых полей, а числа разбираются прямо из байтов.
+ * Кавычки, как и раньше, не входят в значение поля, а запятые внутри кавычек не разделяют поля.
+ * Пустые строки пропускаются.
+ */
+public class CsvParser {
+    /**
+     * Наибольшая мантисса, которая точно представима в типе double.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /**
+     * Точно представимые в типе double степени десяти.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * Содержимое файла.
+     */
+    private final byte[] bytes;
+    /**
+     * Конец разбираемого диапазона.
+     */
+    private final int end;
+    /**
+     * Начало следующей строки.
+     */
+    private int pos;
+    /**
+     * Начало текущей строки.
+     */
+    private int lineStart;
+    /**
+     * Конец текущей строки без символов перевода строки.
+     */
+    private int lineEnd;
+    /**
+     * Начала полей текущей строки, включая кавычки.
+     */
+    private int[] starts;
+    /**
+     * Концы полей текущей строки, включая кавычки.
+     */
+    private int[] ends;
+    /**
+     * Количество кавычек в каждом поле текущей строки.
+     */
+    private int[] quotes;
+    /**
+     * Количество полей текущей строки.
+     */
+    private int fieldCount;
+    /**
+     * Буфер для полей, кавычки которых стоят не только по краям.
+     */
+    private byte[] scratch;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param bytes содержимое файла.
+     * @param start начало разбираемого диапазона, совпадающее с началом строки.
+     * @param end   конец разбираемого диапазона, совпадающий с концом строки.
+     */
+    public CsvParser(byte[] bytes, int start, int end) {
+        this.bytes = bytes;
+        this.pos = start;
+        this.end = end;
+        this.starts = new int[16];
+        this.ends = new int[16];
+        this.quotes = new int[16];
+        this.scratch = new byte[64];
+    }
+
+    /**
+     * Переходит к следующей непустой строке и находит границы ее полей.
+     *
+     * @return false, если строк больше нет.
+     */
+    public boolean next() {
+        while (pos < end) {
+            lineStart = pos;
+            lineEnd = lineStart;
+            while (lineEnd < end && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            pos = lineEnd + 1;
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                split(lineStart, lineEnd);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Получает начало текущей строки в содержимом файла.
+     *
+     * @return положение первого байта строки.
+     */
+    public int lineStart() {
+        return lineStart;
+    }
+
+    /**
+     * Получает конец текущей строки в содержимом файла.
+     *
+     * @return положение байта, следующего за последним байтом строки без символов перевода строки.
+     */
+    public int lineEnd() {
+        return lineEnd;
+    }
+
+    /**
+     * Получает количество полей текущей строки.
+     *
+     * @return количество полей.
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Получает значение поля текущей строки без кавычек.
+     *
+     * @param field номер поля, начиная с нуля.
+     * @return значение поля.
+     */
+    public String getString(int field) {
+        int start = starts[field];
+        int fieldEnd = ends[field];
+        if (quotes[field] == 0) {
+            return new String(bytes, start, fieldEnd - start, StandardCharsets.UTF_8);
+        }
+        if (quotes[field] == 2 && bytes[start] == '\"' && bytes[fieldEnd - 1] == '\"') {
+            return new String(bytes, start + 1, fieldEnd - start - 2, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < fieldEnd - start) {
+            scratch = new byte[fieldEnd - start];
+        }
+        int length = 0;
+        for (int i = start; i < fieldEnd; i++) {
+            if (bytes[i] != '\"') {
+                scratch[length++] = bytes[i];
+            }
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Разбирает целое число из поля текущей строки без создания промежуточной строки.
+     *
+     * @param field номер поля, начиная с нуля.
+     * @return значение поля.
+     * @throws NumberFormatException если поле не является целым числом.
+     */
+    public int getInt(int field) {
+        int i = starts[field];
+        int fieldEnd = ends[field];
+        if (quotes[field] != 0) {
+            return Integer.parseInt(getString(field));
+        }
+        boolean negative = i < fieldEnd && bytes[i] == '-';
+        if (negative || i < fieldEnd && bytes[i] == '+') {
+            i++;
+        }
+        if (i == fieldEnd) {
+            throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9' || value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+            value = value * 10 + (b - '0');
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Разбирает дробное число из поля текущей строки. Числа вида {@code -12.345}, мантисса которых
+     * и степень десяти точно представимы в типе double, разбираются прямо из байтов одним делением,
+     * что дает тот же результат, что и {@link Double#parseDouble(String)}. Остальные записи
+     * разбираются методом {@link Double#parseDouble(String)}.
+     *
+     * @param field номер поля, начиная с нуля.
+     * @return значение поля.
+     * @throws NumberFormatException если поле не является числом.
+     */
+    public double getDouble(int field) {
+        int i = starts[field];
+        int fieldEnd = ends[field];
+        if (quotes[field] != 0) {
+            return Double.parseDouble(getString(field));
+        }
+        boolean negative = i < fieldEnd && bytes[i] == '-';
+        if (negative || i < fieldEnd && bytes[i] == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean point = false;
+        for (; i < fieldEnd; i++) {
+            byte b = bytes[i];
+            if (b == '.' && !point) {
+                point = true;
+            } else if (b >= '0' && b <= '9' && mantissa < MAX_EXACT_MANTISSA) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (point) {
+                    scale++;
+                }
+            } else {
+                break;
+            }
+        }
+        if (i < fieldEnd || digits == 0 || mantissa >= MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(getString(field));
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Вспомогательный метод, находящий границы полей строки.
+     *
+     * @param lineStart начало строки.
+     * @param lineEnd   конец строки без символов перевода строки.
+     */
+    private void split(int lineStart, int lineEnd) {
+        fieldCount = 0;
+        int fieldStart = lineStart;
+        int fieldQuotes = 0;
+        boolean quoted = false;
+        for (int i = lineStart; i < lineEnd; i++) {
+            byte b = bytes[i];
+            if (b == '\"') {
+                quoted = !quoted;
+                fieldQuotes++;
+            } else if (b == ',' && !quoted) {
+                addField(fieldStart, i, fieldQuotes);
+                fieldStart = i + 1;
+                fieldQuotes = 0;
+            }
+        }
+        addField(fieldStart, lineEnd, fieldQuotes);
+    }
+
+    /**
+     * Вспомогательный метод, запоминающий границы поля.
+     *
+     * @param start       начало поля.
+     * @param fieldEnd    конец поля.
+     * @param fieldQuotes количество кавычек в поле.
+     */
+    private void addField(int start, int fieldEnd, int fieldQuotes) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            quotes = Arrays.copyOf(quotes, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = fieldEnd;
+        quotes[fieldCount] = fieldQuotes;
+        fieldCount++;
+    }
+}
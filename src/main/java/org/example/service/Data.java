@@ -1,15 +1,25 @@
 package org.example.service;
 
+import org.example.entity.Column;
+import org.example.image.IndexImage;
+import org.example.store.ArrayRowStore;
+import org.example.store.MappedRowStore;
+import org.example.store.MutableRowStore;
+import org.example.store.RowStore;
 import org.example.trie.AirportTrie;
 import org.example.trie.Trie;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Iterator;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Класс, представляющий собой загрузчик данных из CSV-файла и сохраняющий их в Trie-структуру.
@@ -19,7 +29,19 @@ public class Data {
     /**
      * Имя CSV-файла, из которого будут загружены данные.
      */
-    private static final String FILE_NAME = "airports.csv";
+    static final String FILE_NAME = "airports.csv";
+    /**
+     * Имя файла образа индекса, который строится по CSV-файлу.
+     */
+    private static final String IMAGE_NAME = "airports.idx";
+    /**
+     * Минимальный размер части файла в байтах при параллельной загрузке.
+     */
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    /**
+     * Количество частей файла на один процессор при параллельной загрузке.
+     */
+    private static final int CHUNKS_PER_PROCESSOR = 4;
 
     /**
      * Загружает данные из CSV-файла и сохраняет их в Trie-структуру.
@@ -28,69 +50,262 @@ public class Data {
      * @throws IOException если не удается прочитать файл.
      */
     public static Trie readData() throws IOException {
-        List<String> lines;
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(FILE_NAME))) {
-            lines = reader.lines().collect(Collectors.toList());
+        return readData(AirportTrie::new);
+    }
+
+    /**
+     * Загружает данные из CSV-файла и сохраняет их в Trie-структуру заданного вида.
+     *
+     * @param trieFactory функция, создающая пустое дерево поверх хранилища строк.
+     * @return Trie-структуру, содержащую данные об аэропортах.
+     * @throws IOException если не удается прочитать файл.
+     */
+    public static Trie readData(Function<RowStore, Trie> trieFactory) throws IOException {
+        return readData(new ArrayRowStore(), trieFactory);
+    }
+
+    /**
+     * Загружает данные из CSV-файла в заданное хранилище строк и сохраняет их в Trie-структуру заданного вида.
+     *
+     * @param store       пустое хранилище, в которое добавляются разобранные строки.
+     * @param trieFactory функция, создающая пустое дерево поверх хранилища строк.
+     * @return Trie-структуру, содержащую данные об аэропортах.
+     * @throws IOException если не удается прочитать файл.
+     */
+    public static Trie readData(MutableRowStore store, Function<RowStore, Trie> trieFactory) throws IOException {
+        return readData(Paths.get(FILE_NAME), store, trieFactory);
+    }
+
+    /**
+     * Загружает данные из заданного CSV-файла в хранилище строк и сохраняет их в Trie-структуру заданного вида.
+     *
+     * @param file        путь к CSV-файлу.
+     * @param store       пустое хранилище, в которое добавляются разобранные строки.
+     * @param trieFactory функция, создающая пустое дерево поверх хранилища строк.
+     * @return Trie-структуру, содержащую данные об аэропортах.
+     * @throws IOException если не удается прочитать файл.
+     */
+    static Trie readData(Path file, MutableRowStore store, Function<RowStore, Trie> trieFactory) throws IOException {
+        Trie trie = trieFactory.apply(store);
+        loadDataIntoTrie(readBytes(file), store, trie, null);
+        return trie;
+    }
+
+    /**
+     * Открывает образ индекса, построенный по текущей версии CSV-файла, и ищет прямо в нем.
+     * Если образа нет или он устарел, данные загружаются из CSV-файла, как в {@link #readData(Function)},
+     * а образ перестраивается для следующих запусков.
+     *
+     * @param trieFactory функция, создающая пустое дерево, если образ приходится перестраивать.
+     * @return Trie-структуру, содержащую данные об аэропортах.
+     * @throws IOException если не удается прочитать файл.
+     */
+    public static Trie loadImage(Function<RowStore, Trie> trieFactory) throws IOException {
+        return loadImage(Paths.get(FILE_NAME), Paths.get(IMAGE_NAME), trieFactory);
+    }
+
+    /**
+     * Открывает образ индекса заданного CSV-файла или перестраивает его, как {@link #loadImage(Function)}.
+     *
+     * @param csv         путь к CSV-файлу.
+     * @param image       путь к файлу образа.
+     * @param trieFactory функция, создающая пустое дерево, если образ приходится перестраивать.
+     * @return Trie-структуру, содержащую данные об аэропортах.
+     * @throws IOException если не удается прочитать файл.
+     */
+    public static Trie loadImage(Path csv, Path image, Function<RowStore, Trie> trieFactory) throws IOException {
+        long size;
+        long modified;
+        try {
+            size = Files.size(csv);
+            modified = Files.getLastModifiedTime(csv).toMillis();
         } catch (IOException e) {
-            throw new IOException("Не удается прочитать файл: " + FILE_NAME, e);
+            throw new IOException("Не удается прочитать файл: " + csv, e);
+        }
+        Trie trie = IndexImage.open(image, size, modified);
+        if (trie != null) {
+            return trie;
+        }
+        ArrayRowStore store = new ArrayRowStore();
+        List<String> names = new ArrayList<>();
+        trie = trieFactory.apply(store);
+        loadDataIntoTrie(readBytes(csv), store, trie, names);
+        try {
+            IndexImage.write(image, store, names, size, modified);
+        } catch (IOException e) {
+            System.err.println("Не удается записать образ индекса: " + image);
+        }
+        return trie;
+    }
+
+    /**
+     * Загружает данные из содержимого CSV-файла в Trie-структуру.
+     *
+     * @param bytes содержимое CSV-файла.
+     * @param store хранилище, в которое добавляются разобранные строки.
+     * @param trie  дерево, в которое добавляются названия аэропортов.
+     * @param names список, в который добавляются названия по номерам строк, или null.
+     */
+    private static void loadDataIntoTrie(byte[] bytes, MutableRowStore store, Trie trie, List<String> names) {
+        CsvParser parser = new CsvParser(bytes, 0, bytes.length);
+        while (parser.next()) {
+            String name = extractNameAirport(parser);
+            if (names != null) {
+                names.add(name);
+            }
+            trie.insert(name, store.add(extractInformationAboutAirport(parser)));
         }
-        return loadDataIntoTrie(lines);
     }
 
     /**
-     * Загружает данные из списка строк в Trie-структуру.
+     * Загружает данные из CSV-файла, разбирая его части параллельно, и сохраняет их в Trie-структуру заданного вида.
+     * Файл делится на части по границам строк, каждая часть разбирается в отдельной задаче,
+     * после чего разобранные строки добавляются в хранилище в порядке файла, а дерево строится
+     * через {@link Trie#insertAll(List, int)}: поддеревья названий с разными первыми символами
+     * строятся параллельно. Результат совпадает с {@link #readData(MutableRowStore, Function)}.
      *
-     * @param lines список строк, содержащих данные об аэропортах в формате CSV.
+     * @param store       пустое хранилище, в которое добавляются разобранные строки.
+     * @param trieFactory функция, создающая пустое дерево поверх хранилища строк.
      * @return Trie-структуру, содержащую данные об аэропортах.
+     * @throws IOException если не удается прочитать файл.
+     */
+    public static Trie readDataParallel(MutableRowStore store, Function<RowStore, Trie> trieFactory) throws IOException {
+        byte[] bytes = readBytes();
+        int[] bounds = chunkBounds(bytes);
+        List<Chunk> chunks = IntStream.range(0, bounds.length - 1)
+                .parallel()
+                .mapToObj(i -> parseChunk(bytes, bounds[i], bounds[i + 1]))
+                .collect(Collectors.toList());
+        Trie trie = trieFactory.apply(store);
+        int firstRow = store.size();
+        List<String> names = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.names.size(); i++) {
+                store.add(chunk.information.get(i));
+            }
+            names.addAll(chunk.names);
+        }
+        trie.insertAll(names, firstRow);
+        return trie;
+    }
+
+    /**
+     * Читает содержимое CSV-файла.
+     *
+     * @return содержимое файла.
+     * @throws IOException если не удается прочитать файл.
+     */
+    static byte[] readBytes() throws IOException {
+        return readBytes(Paths.get(FILE_NAME));
+    }
+
+    /**
+     * Читает содержимое заданного CSV-файла.
+     *
+     * @param file путь к CSV-файлу.
+     * @return содержимое файла.
+     * @throws IOException если не удается прочитать файл.
+     */
+    static byte[] readBytes(Path file) throws IOException {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new IOException("Не удается прочитать файл: " + file, e);
+        }
+    }
+
+    /**
+     * Делит содержимое файла на части, каждая из которых начинается с начала строки.
+     *
+     * @param bytes содержимое файла.
+     * @return границы частей: i-я часть занимает байты с bounds[i] по bounds[i + 1].
+     */
+    private static int[] chunkBounds(byte[] bytes) {
+        int chunks = Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR;
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, bytes.length / chunks + 1);
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int pos = 0;
+        while (pos < bytes.length) {
+            pos = Math.min(bytes.length, pos + chunkSize);
+            while (pos < bytes.length && bytes[pos - 1] != '\n') {
+                pos++;
+            }
+            bounds.add(pos);
+        }
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Разбирает строки части файла.
+     *
+     * @param bytes содержимое файла.
+     * @param start начало части.
+     * @param end   конец части.
+     * @return названия аэропортов и информация о них в порядке строк.
+     */
+    private static Chunk parseChunk(byte[] bytes, int start, int end) {
+        Chunk chunk = new Chunk();
+        CsvParser parser = new CsvParser(bytes, start, end);
+        while (parser.next()) {
+            chunk.names.add(extractNameAirport(parser));
+            chunk.information.add(extractInformationAboutAirport(parser));
+        }
+        return chunk;
+    }
+
+    /**
+     * Отображает CSV-файл в память и строит Trie-структуру, хранящую только названия аэропортов
+     * и положение их строк в файле. Остальные колонки читаются из файла по требованию.
+     *
+     * @param trieFactory функция, создающая пустое дерево поверх хранилища строк.
+     * @return Trie-структуру, содержащую данные об аэропортах.
+     * @throws IOException если не удается прочитать файл.
      */
-    private static Trie loadDataIntoTrie(List<String> lines) {
-        Trie trie = new AirportTrie();
-        Iterator<String> iterator = lines.iterator();
-        while (iterator.hasNext()) {
-            String line = iterator.next();
-            String[] content = parseCsvLine(line);
-            String airportName = extractNameAirport(content);
-            Object[] airportInfo = extractInformationAboutAirport(content);
-            trie.insert(airportName, airportInfo);
-            iterator.remove();
+    public static Trie mapData(Function<RowStore, Trie> trieFactory) throws IOException {
+        MappedRowStore store = mapLines();
+        Trie trie = trieFactory.apply(store);
+        for (int row = 0; row < store.size(); row++) {
+            trie.insert(store.getName(row), row);
         }
         return trie;
     }
 
     /**
-     * Извлекает информацию об аэропорте из строки CSV-файла.
+     * Отображает CSV-файл в память и находит границы его строк.
      *
-     * @param content массив строк, содержащий информацию об аэропорте.
+     * @return хранилище строк поверх отображенного в память файла.
+     * @throws IOException если не удается прочитать файл.
+     */
+    public static MappedRowStore mapLines() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(FILE_NAME), StandardOpenOption.READ)) {
+            return new MappedRowStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new IOException("Не удается прочитать файл: " + FILE_NAME, e);
+        }
+    }
+
+    /**
+     * Извлекает информацию об аэропорте из текущей строки CSV-файла.
+     *
+     * @param parser разборщик, установленный на строку с информацией об аэропорте.
      * @return массив объектов, содержащий информацию об аэропорте.
      */
-    private static Object[] extractInformationAboutAirport(String[] content) {
-        Object[] data = new Object[content.length - 1];
-        int index = 0;
-        for (int i = 0; i < content.length && index < data.length; i++) {
-            switch (i) {
-                case 0:
-                case 8: {
-                    data[index] = Integer.parseInt(content[i]);
-                    index++;
+    static Object[] extractInformationAboutAirport(CsvParser parser) {
+        Object[] data = new Object[Column.values().length];
+        for (Column column : Column.values()) {
+            int field = column.getNumber() - 1;
+            switch (column.getType()) {
+                case INTEGER: {
+                    data[column.getIndex()] = parser.getInt(field);
                     break;
                 }
-                case 2:
-                case 3:
-                case 4:
-                case 5:
-                case 9:
-                case 10:
-                case 11:
-                case 12:
-                case 13: {
-                    data[index] = content[i];
-                    index++;
+                case DOUBLE: {
+                    data[column.getIndex()] = parser.getDouble(field);
                     break;
                 }
-                case 6:
-                case 7: {
-                    data[index] = Double.parseDouble(content[i]);
-                    index++;
+                default: {
+                    data[column.getIndex()] = parser.getString(field);
                     break;
                 }
             }
@@ -99,47 +314,20 @@ public class Data {
     }
 
     /**
-     * Извлекает имя аэропорта из строки CSV-файла.
+     * Извлекает имя аэропорта из текущей строки CSV-файла.
      *
-     * @param content массив строк, содержащий информацию об аэропорте.
+     * @param parser разборщик, установленный на строку с информацией об аэропорте.
      * @return имя аэропорта.
      */
-    private static String extractNameAirport(String[] content) {
-        return content[1];
+    static String extractNameAirport(CsvParser parser) {
+        return parser.getString(1);
     }
 
     /**
-     * Разбивает строку CSV-файла на отдельные поля.
-     *
-     * @param line строка CSV-файла.
-     * @return массив строк, содержащий отдельные поля.
+     * Разобранная часть CSV-файла.
      */
-    private static String[] parseCsvLine(String line) {
-        String[] parts = new String[14];
-        StringBuilder sb = new StringBuilder();
-        boolean counter_flag = false;
-        for (int i = 0, j = 0; j < line.length(); j++) {
-            char current = line.charAt(j);
-            switch (current) {
-                case ',':
-                    if (counter_flag) {
-                        sb.append(current);
-                    } else {
-                        parts[i] = sb.toString();
-                        sb = new StringBuilder();
-                        i++;
-                    }
-                    break;
-                case '\"':
-                    counter_flag = !counter_flag;
-                    break;
-                default:
-                    sb.append(current);
-                    break;
-            }
-            parts[i] = sb.toString();
-        }
-        return parts;
-
+    private static class Chunk {
+        private final List<String> names = new ArrayList<>();
+        private final List<Object[]> information = new ArrayList<>();
     }
 }
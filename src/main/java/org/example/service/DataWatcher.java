@@ -0,0 +1,273 @@
+package org.example.service;
+
+import org.example.entity.Column;
+import org.example.store.MutableRowStore;
+import org.example.trie.Trie;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Наблюдатель за CSV-файлом, который применяет к дереву только изменения файла.
+ * Строки файла сопоставляются с загруженными строками по идентификатору аэропорта (колонка 1),
+ * а изменение строки определяется по хешу ее байтов. Новые строки добавляются, измененные
+ * заменяются на месте с сохранением номера строки, а пропавшие удаляются из дерева.
+ * Разбираются только новые и измененные строки.
+ */
+public class DataWatcher implements Closeable {
+    /**
+     * Время ожидания следующих событий файла, после которого изменения применяются, в миллисекундах.
+     */
+    private static final long SETTLE_MILLIS = 100;
+    /**
+     * Начальное значение хеша FNV-1a.
+     */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    /**
+     * Множитель хеша FNV-1a.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+    /**
+     * Путь к CSV-файлу.
+     */
+    private final Path file;
+    /**
+     * Хранилище строк дерева.
+     */
+    private final MutableRowStore store;
+    /**
+     * Дерево, к которому применяются изменения.
+     */
+    private final Trie trie;
+    /**
+     * Загруженные строки по ключу из идентификатора аэропорта и номера его повторения в файле.
+     */
+    private final Map<Long, Entry> entries;
+    /**
+     * Номер текущего прохода по файлу.
+     */
+    private long pass;
+    /**
+     * Служба наблюдения за каталогом файла.
+     */
+    private WatchService watchService;
+
+    /**
+     * Конструктор класса для файла "airports.csv" в корневой директории проекта.
+     *
+     * @param store пустое хранилище строк дерева.
+     * @param trie  пустое дерево поверх хранилища строк.
+     */
+    public DataWatcher(MutableRowStore store, Trie trie) {
+        this(Paths.get(Data.FILE_NAME), store, trie);
+    }
+
+    /**
+     * Конструктор класса для заданного CSV-файла.
+     *
+     * @param file  путь к CSV-файлу.
+     * @param store пустое хранилище строк дерева.
+     * @param trie  пустое дерево поверх хранилища строк.
+     */
+    DataWatcher(Path file, MutableRowStore store, Trie trie) {
+        this.file = file;
+        this.store = store;
+        this.trie = trie;
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Загружает все строки файла в дерево.
+     *
+     * @throws IOException если не удается прочитать файл.
+     */
+    public void load() throws IOException {
+        apply(Data.readBytes(file));
+    }
+
+    /**
+     * Запускает фоновый поток, который применяет изменения файла после каждого его сохранения.
+     *
+     * @throws IOException если не удается начать наблюдение за каталогом файла.
+     */
+    public void start() throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(this::watch, "data-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Останавливает наблюдение за файлом.
+     *
+     * @throws IOException если не удается закрыть службу наблюдения.
+     */
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Применяет к дереву разницу между загруженными строками и содержимым файла.
+     * Изменение выполняется через {@link Trie#update(Runnable)}, поэтому поиск не видит его частично.
+     * Если строку не удается разобрать, уже примененные строки остаются, а удаление пропавших строк
+     * откладывается до следующего изменения файла.
+     *
+     * @param bytes содержимое файла.
+     * @return количество добавленных, измененных и удаленных строк.
+     */
+    Delta apply(byte[] bytes) {
+        Delta delta = new Delta();
+        trie.update(() -> {
+            pass++;
+            Map<Integer, Integer> occurrences = new HashMap<>();
+            CsvParser parser = new CsvParser(bytes, 0, bytes.length);
+            while (parser.next()) {
+                int id = parser.getInt(Column.ID.getNumber() - 1);
+                int occurrence = occurrences.merge(id, 1, Integer::sum);
+                long key = (long) occurrence << 32 | (id & 0xffffffffL);
+                long hash = hash(bytes, parser.lineStart(), parser.lineEnd());
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    String name = Data.extractNameAirport(parser);
+                    int row = store.add(Data.extractInformationAboutAirport(parser));
+                    trie.insert(name, row);
+                    entries.put(key, new Entry(row, name, hash, pass));
+                    delta.added++;
+                    continue;
+                }
+                if (entry.hash != hash) {
+                    String name = Data.extractNameAirport(parser);
+                    Object[] information = Data.extractInformationAboutAirport(parser);
+                    trie.remove(entry.name, entry.row);
+                    store.set(entry.row, information);
+                    trie.insert(name, entry.row);
+                    entry.name = name;
+                    entry.hash = hash;
+                    delta.changed++;
+                }
+                entry.pass = pass;
+            }
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.pass != pass) {
+                    trie.remove(entry.name, entry.row);
+                    iterator.remove();
+                    delta.removed++;
+                }
+            }
+        });
+        return delta;
+    }
+
+    /**
+     * Цикл фонового потока: дожидается изменения файла, дает записи завершиться и применяет изменения.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                boolean changed = events(watchService.take());
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= events(key);
+                }
+                if (changed) {
+                    refresh();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Вспомогательный метод, проверяющий, относятся ли события к CSV-файлу.
+     *
+     * @param key ключ службы наблюдения с событиями.
+     * @return true, если файл мог измениться.
+     */
+    private boolean events(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Вспомогательный метод, перечитывающий файл и применяющий изменения. После изменения данных
+     * статистика колонок собирается заново при следующем фильтре.
+     */
+    private void refresh() {
+        try {
+            Delta delta = apply(Data.readBytes(file));
+            if (delta.added + delta.changed + delta.removed > 0) {
+                System.out.println("Файл " + file + " обновлен: добавлено " + delta.added
+                        + ", изменено " + delta.changed + ", удалено " + delta.removed);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Не удается применить изменения файла " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Вспомогательный метод, вычисляющий 64-битный хеш FNV-1a байтов строки.
+     *
+     * @param bytes содержимое файла.
+     * @param start начало строки.
+     * @param end   конец строки.
+     * @return хеш строки.
+     */
+    private static long hash(byte[] bytes, int start, int end) {
+        long hash = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ (bytes[i] & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Загруженная строка файла.
+     */
+    private static class Entry {
+        private final int row;
+        private String name;
+        private long hash;
+        private long pass;
+
+        Entry(int row, String name, long hash, long pass) {
+            this.row = row;
+            this.name = name;
+            this.hash = hash;
+            this.pass = pass;
+        }
+    }
+
+    /**
+     * Количество строк, затронутых одним применением изменений.
+     */
+    static class Delta {
+        int added;
+        int changed;
+        int removed;
+    }
+}
@@ -1,20 +1,41 @@
 package org.example.service;
 
 
+import org.example.entity.Column;
 import org.example.exception.FilterException;
+import org.example.filter.AndPredicate;
+import org.example.filter.BoxPredicate;
+import org.example.filter.ColumnStatistics;
+import org.example.filter.Comparison;
+import org.example.filter.DictionaryComparison;
+import org.example.filter.DoubleComparison;
+import org.example.filter.IntegerComparison;
+import org.example.filter.NearestPredicate;
+import org.example.filter.OrPredicate;
+import org.example.filter.RadiusPredicate;
+import org.example.filter.RowPredicate;
+import org.example.filter.StringComparison;
+import org.example.store.ColumnarRowStore;
+import org.example.store.RowStore;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Класс Filter предназначен для лексического анализа и фильтрации текстового выражения.
+ * Класс Filter предназначен для лексического анализа текстового выражения и его компиляции в фильтр.
+ * Кроме сравнений колонок, фильтр может содержать пространственные функции: {@code box(lat1, lon1, lat2, lon2)} -
+ * аэропорты в прямоугольнике от юго-западного до северо-восточного угла, {@code radius(lat, lon, km)} - аэропорты
+ * не дальше {@code km} километров от точки и {@code nearest(lat, lon, k)} - {@code k} ближайших к точке аэропортов
+ * среди строк, удовлетворяющих префиксу и остальной части фильтра. Функция {@code nearest} может быть только всем
+ * фильтром или операндом логического И верхнего уровня, а ее результаты упорядочиваются по расстоянию.
  */
 public class Filter {
     /**
      * Enum для задания типов лексем.
      */
     public enum LexemeType {
-        LEFT_BRACKET, RIGHT_BRACKET, OP_OR, OP_AND, OP_EQUALS, OP_LARGER, OP_LESS, OP_NOT_EQUALS, COLUMN, EOF, VALUE
+        LEFT_BRACKET, RIGHT_BRACKET, OP_OR, OP_AND, OP_EQUALS, OP_LARGER, OP_LESS, OP_NOT_EQUALS, COLUMN, EOF, VALUE,
+        FUNCTION, COMMA
     }
 
     /**
@@ -22,7 +43,7 @@ public class Filter {
      */
     public static class LexemeBuffer {
 
-        private final Object[] info;
+        private final RowStore store;
 
         private int pos;
 
@@ -32,11 +53,11 @@ public class Filter {
          * Конструктор класса.
          *
          * @param lexemes список лексем.
-         * @param info    информация.
+         * @param store   хранилище строк, к которому привязывается фильтр.
          */
-        public LexemeBuffer(List<Lexeme> lexemes, Object[] info) {
+        public LexemeBuffer(List<Lexeme> lexemes, RowStore store) {
             this.lexemes = lexemes;
-            this.info = info;
+            this.store = store;
         }
 
         /**
@@ -143,6 +164,11 @@ public class Filter {
                         pos++;
                         break;
                     }
+                    case ',': {
+                        lexemes.add(new Lexeme(LexemeType.COMMA, c));
+                        pos++;
+                        break;
+                    }
                     case '>': {
                         lexemes.add(new Lexeme(LexemeType.OP_LARGER, c));
                         pos++;
@@ -187,7 +213,7 @@ public class Filter {
                         break;
                     }
                     default: {
-                        if (c <= '9' && c >= '0') {
+                        if (c <= '9' && c >= '0' || c == '-' && pos + 1 < exText.length() && Character.isDigit(exText.charAt(pos + 1))) {
                             StringBuilder sb = new StringBuilder();
                             do {
                                 sb.append(c);
@@ -196,8 +222,15 @@ public class Filter {
                                     break;
                                 }
                                 c = exText.charAt(pos);
-                            } while (c <= '9' && c >= '0');
+                            } while (c <= '9' && c >= '0' || c == '.');
                             lexemes.add(new Lexeme(LexemeType.VALUE, sb.toString()));
+                        } else if (Character.isLetter(c)) {
+                            StringBuilder sb = new StringBuilder();
+                            do {
+                                sb.append(c);
+                                pos++;
+                            } while (pos < exText.length() && Character.isLetter(c = exText.charAt(pos)));
+                            lexemes.add(new Lexeme(LexemeType.FUNCTION, sb.toString()));
                         } else if (c == '|') {
                             StringBuilder sb = new StringBuilder();
                             sb.append(c);
@@ -243,59 +276,189 @@ public class Filter {
     }
 
     /**
-     * Метод для обработки логического оператора AND.
+     * Компилирует список лексем в неизменяемый фильтр, который затем проверяется для каждой строки.
      *
-     * @param lexemes лексемы, содержащие логическое выражение, которое необходимо обработать
-     * @return результат выполнения логического выражения
+     * @param lexemes список лексем, полученный из {@link Lexeme#lexAnalyze(String)}.
+     * @param store   хранилище строк, которые будет проверять фильтр.
+     * @return скомпилированный фильтр.
      * @throws FilterException если выражение содержит ошибки
      */
-    public static Boolean and(LexemeBuffer lexemes) throws FilterException {
-        Boolean expression = factor(lexemes);
-        while (true) {
-            Lexeme lexeme = lexemes.next();
+    public static RowPredicate compile(List<Lexeme> lexemes, RowStore store) throws FilterException {
+        return compile(lexemes, store, null);
+    }
+
+    /**
+     * Компилирует список лексем в фильтр и переупорядочивает операнды логических операций по статистике колонок.
+     *
+     * @param lexemes    список лексем, полученный из {@link Lexeme#lexAnalyze(String)}.
+     * @param store      хранилище строк, которые будет проверять фильтр.
+     * @param statistics статистика значений колонок или null, чтобы сохранить порядок записи фильтра.
+     * @return скомпилированный фильтр.
+     * @throws FilterException если выражение содержит ошибки
+     */
+    public static RowPredicate compile(List<Lexeme> lexemes, RowStore store, ColumnStatistics statistics) throws FilterException {
+        LexemeBuffer buffer = new LexemeBuffer(lexemes, store);
+        RowPredicate predicate = expr(buffer);
+        Lexeme lexeme = buffer.next();
+        if (lexeme.type != LexemeType.EOF) {
+            throw new FilterException("Не корректное выражение " + lexeme.value + " на месте " + buffer.getPos());
+        }
+        predicate = hoistNearest(predicate);
+        return statistics == null ? predicate : statistics.reorder(predicate);
+    }
+
+    /**
+     * Вспомогательный метод, поднимающий функцию {@code nearest} в корень фильтра: остальные операнды
+     * логического И верхнего уровня становятся условием, среди строк которого выбираются ближайшие аэропорты.
+     *
+     * @param predicate скомпилированный фильтр.
+     * @return {@link NearestPredicate} с условием или исходный фильтр, если функции {@code nearest} в нем нет.
+     * @throws FilterException если функция {@code nearest} встречается больше одного раза или не в операнде И верхнего уровня.
+     */
+    private static RowPredicate hoistNearest(RowPredicate predicate) throws FilterException {
+        if (predicate instanceof NearestPredicate) {
+            return predicate;
+        }
+        if (!(predicate instanceof AndPredicate)) {
+            checkNoNearest(predicate);
+            return predicate;
+        }
+        List<RowPredicate> operands = new ArrayList<>();
+        flattenAnd(predicate, operands);
+        NearestPredicate nearest = null;
+        List<RowPredicate> condition = new ArrayList<>();
+        for (RowPredicate operand : operands) {
+            if (operand instanceof NearestPredicate) {
+                if (nearest != null) {
+                    throw new FilterException("Функция nearest может встречаться в фильтре только один раз");
+                }
+                nearest = (NearestPredicate) operand;
+            } else {
+                checkNoNearest(operand);
+                condition.add(operand);
+            }
+        }
+        if (nearest == null) {
+            return predicate;
+        }
+        return nearest.withCondition(condition.size() == 1 ? condition.get(0) : new AndPredicate(condition.toArray(new RowPredicate[0])));
+    }
+
+    /**
+     * Вспомогательный метод, раскрывающий вложенные операции И в список операндов.
+     */
+    private static void flattenAnd(RowPredicate predicate, List<RowPredicate> operands) {
+        if (predicate instanceof AndPredicate) {
+            for (RowPredicate operand : ((AndPredicate) predicate).getOperands()) {
+                flattenAnd(operand, operands);
+            }
+        } else {
+            operands.add(predicate);
+        }
+    }
+
+    /**
+     * Вспомогательный метод, проверяющий, что функция {@code nearest} не используется внутри выражения.
+     *
+     * @param predicate операнд фильтра.
+     * @throws FilterException если выражение содержит функцию {@code nearest}.
+     */
+    private static void checkNoNearest(RowPredicate predicate) throws FilterException {
+        if (predicate instanceof NearestPredicate) {
+            throw new FilterException("Функция nearest может быть только всем фильтром или операндом логического И верхнего уровня");
+        }
+        RowPredicate[] operands = predicate instanceof AndPredicate ? ((AndPredicate) predicate).getOperands()
+                : predicate instanceof OrPredicate ? ((OrPredicate) predicate).getOperands() : new RowPredicate[0];
+        for (RowPredicate operand : operands) {
+            checkNoNearest(operand);
+        }
+    }
+
+    /**
+     * Приводит список лексем к каноническому строковому виду, который не зависит от пробелов,
+     * записи колонок ({@code column[1]} или {@code [1]}) и кавычек вокруг значений.
+     * Два фильтра с одинаковым каноническим видом отбирают одни и те же строки.
+     *
+     * @param lexemes список лексем, полученный из {@link Lexeme#lexAnalyze(String)}.
+     * @return канонический вид фильтра.
+     */
+    public static String normalize(List<Lexeme> lexemes) {
+        StringBuilder sb = new StringBuilder();
+        for (Lexeme lexeme : lexemes) {
             switch (lexeme.type) {
-                case OP_AND: {
-                    expression = expression & factor(lexemes);
+                case COLUMN: {
+                    String column = lexeme.value;
+                    try {
+                        column = Integer.toString(Integer.parseInt(column));
+                    } catch (NumberFormatException ignored) {
+                    }
+                    sb.append("column[").append(column).append(']');
+                    break;
+                }
+                case VALUE: {
+                    sb.append('\"').append(lexeme.value).append('\"');
+                    break;
+                }
+                case EOF: {
+                    break;
                 }
                 default: {
-                    lexemes.back();
-                    return expression;
+                    sb.append(lexeme.value);
+                    break;
                 }
             }
         }
+        return sb.toString();
+    }
 
+    /**
+     * Метод для обработки логического оператора AND.
+     *
+     * @param lexemes лексемы, содержащие логическое выражение, которое необходимо обработать
+     * @return фильтр, соответствующий логическому выражению
+     * @throws FilterException если выражение содержит ошибки
+     */
+    public static RowPredicate and(LexemeBuffer lexemes) throws FilterException {
+        List<RowPredicate> operands = new ArrayList<>();
+        operands.add(factor(lexemes));
+        while (lexemes.next().type == LexemeType.OP_AND) {
+            operands.add(factor(lexemes));
+        }
+        lexemes.back();
+        if (operands.size() == 1) {
+            return operands.get(0);
+        }
+        return new AndPredicate(operands.toArray(new RowPredicate[0]));
     }
 
     /**
      * Метод для обработки логического оператора OR.
      *
      * @param lexemes лексемы, содержащие логическое выражение, которое необходимо обработать
-     * @return результат выполнения логического выражения
+     * @return фильтр, соответствующий логическому выражению
      * @throws FilterException если выражение содержит ошибки
      */
-    public static Boolean or(LexemeBuffer lexemes) throws FilterException {
-        boolean expression = and(lexemes);
-        while (true) {
-            Lexeme lexeme = lexemes.next();
-            switch (lexeme.type) {
-                case OP_OR:
-                    expression = expression | and(lexemes);
-                default: {
-                    lexemes.back();
-                    return expression;
-                }
-            }
+    public static RowPredicate or(LexemeBuffer lexemes) throws FilterException {
+        List<RowPredicate> operands = new ArrayList<>();
+        operands.add(and(lexemes));
+        while (lexemes.next().type == LexemeType.OP_OR) {
+            operands.add(and(lexemes));
+        }
+        lexemes.back();
+        if (operands.size() == 1) {
+            return operands.get(0);
         }
+        return new OrPredicate(operands.toArray(new RowPredicate[0]));
     }
 
     /**
      * Метод для обработки логического выражения.
      *
      * @param lexemes лексемы, содержащие логическое выражение, которое необходимо обработать
-     * @return результат выполнения логического выражения
+     * @return фильтр, соответствующий логическому выражению
      * @throws FilterException если выражение содержит ошибки
      */
-    public static Boolean expr(LexemeBuffer lexemes) throws FilterException {
+    public static RowPredicate expr(LexemeBuffer lexemes) throws FilterException {
         Lexeme lexeme = lexemes.next();
         if (lexeme.type == LexemeType.EOF) {
             throw new FilterException("Не верное количество скобок");
@@ -309,78 +472,29 @@ public class Filter {
      * Метод для обработки фактора логического выражения.
      *
      * @param lexemes лексемы, содержащие фактор логического выражения, который необходимо обработать
-     * @return результат выполнения логического выражения
+     * @return фильтр, соответствующий фактору
      * @throws FilterException если фактор содержит ошибки
      */
-    public static Boolean factor(LexemeBuffer lexemes) throws FilterException {
+    public static RowPredicate factor(LexemeBuffer lexemes) throws FilterException {
         Lexeme lexeme = lexemes.next();
         switch (lexeme.type) {
             case COLUMN: {
-                int index = Integer.parseInt(lexeme.value);
-                if (index == 1) {
-                    index--;
-                } else if (index > 2 && index < 15) {
-                    index -= 2;
-                } else {
-                    throw new ArrayIndexOutOfBoundsException("Такого индекса нет в массиве");
+                Column column = Column.byNumber(parseInteger(lexeme.value));
+                if (column == null) {
+                    throw new FilterException("Такого индекса нет в массиве: " + lexeme.value);
                 }
-                Object currentColumnValue = lexemes.info[index];
+                Comparison comparison = comparison(lexemes.next());
                 lexeme = lexemes.next();
-                switch (lexeme.type) {
-                    case OP_LARGER: {
-                        lexeme = lexemes.next();
-                        if (currentColumnValue instanceof Integer) {
-                            return (Integer) currentColumnValue > Integer.parseInt(lexeme.value);
-                        } else if (currentColumnValue instanceof Double) {
-                            return (Double) currentColumnValue > Double.parseDouble(lexeme.value);
-                        } else {
-                            throw new FilterException("Операция не применима к этому индексу");
-                        }
-                    }
-                    case OP_LESS: {
-                        lexeme = lexemes.next();
-                        if (currentColumnValue instanceof Integer) {
-                            return (Integer) currentColumnValue < Integer.parseInt(lexeme.value);
-                        } else if (currentColumnValue instanceof Double) {
-                            return (Double) currentColumnValue < Double.parseDouble(lexeme.value);
-                        } else {
-                            throw new FilterException("Операция не применима к этому индексу");
-                        }
-                    }
-                    case OP_EQUALS: {
-                        lexeme = lexemes.next();
-                        if (currentColumnValue instanceof String) {
-                            if (isNumeric(lexeme.value)) {
-                                return ((String) currentColumnValue).equalsIgnoreCase(lexeme.value);
-                            } else if (isDouble(lexeme.value)) {
-                                return ((String) currentColumnValue).equalsIgnoreCase(lexeme.value);
-                            }
-                            return ((String) currentColumnValue).equalsIgnoreCase(lexeme.value);
-                        } else if (currentColumnValue instanceof Integer) {
-                            return (Integer) currentColumnValue == Integer.parseInt(lexeme.value);
-                        } else if (currentColumnValue instanceof Double) {
-                            return (Double) currentColumnValue == Double.parseDouble(lexeme.value);
-                        }
-                    }
-                    case OP_NOT_EQUALS: {
-                        lexeme = lexemes.next();
-                        if (currentColumnValue instanceof String) {
-                            if (isNumeric(lexeme.value)) {
-                                return !((String) currentColumnValue).equalsIgnoreCase(lexeme.value);
-                            } else if (isDouble(lexeme.value)) {
-                                return !((String) currentColumnValue).equalsIgnoreCase(lexeme.value);
-                            }
-                            return !((String) currentColumnValue).equalsIgnoreCase(lexeme.value);
-                        } else if (currentColumnValue instanceof Integer) {
-                            return (Integer) currentColumnValue != Integer.parseInt(lexeme.value);
-                        } else if (currentColumnValue instanceof Double) {
-                            return (Double) currentColumnValue != Double.parseDouble(lexeme.value);
-                        }
-                    }
+                if (lexeme.type != LexemeType.VALUE) {
+                    throw new FilterException("Не корректное выражение " + lexeme.value + " на месте " + lexemes.getPos());
                 }
+                return comparison(lexemes.store, column, comparison, lexeme.value);
+            }
+            case FUNCTION: {
+                return function(lexemes, lexeme.value, arguments(lexemes));
             }
             case LEFT_BRACKET: {
-                boolean expression = expr(lexemes);
+                RowPredicate expression = expr(lexemes);
                 lexeme = lexemes.next();
                 if (lexeme.type != LexemeType.RIGHT_BRACKET) {
                     throw new FilterException("Не корректное выражение  " + lexeme.value + " на месте " + lexemes.getPos());
@@ -393,36 +507,190 @@ public class Filter {
     }
 
     /**
-     * Метод проверяет, является ли строка числом типа int.
+     * Метод для обработки списка аргументов функции в скобках через запятую.
+     *
+     * @param lexemes лексемы, начинающиеся с открывающей скобки
+     * @return значения аргументов
+     * @throws FilterException если список аргументов содержит ошибки
+     */
+    private static List<String> arguments(LexemeBuffer lexemes) throws FilterException {
+        Lexeme lexeme = lexemes.next();
+        if (lexeme.type != LexemeType.LEFT_BRACKET) {
+            throw new FilterException("Ожидалась скобка вместо " + lexeme.value + " на месте " + lexemes.getPos());
+        }
+        List<String> arguments = new ArrayList<>();
+        do {
+            lexeme = lexemes.next();
+            if (lexeme.type != LexemeType.VALUE) {
+                throw new FilterException("Не корректное выражение " + lexeme.value + " на месте " + lexemes.getPos());
+            }
+            arguments.add(lexeme.value);
+            lexeme = lexemes.next();
+        } while (lexeme.type == LexemeType.COMMA);
+        if (lexeme.type != LexemeType.RIGHT_BRACKET) {
+            throw new FilterException("Не корректное выражение " + lexeme.value + " на месте " + lexemes.getPos());
+        }
+        return arguments;
+    }
+
+    /**
+     * Метод создает пространственный фильтр по имени функции и ее аргументам.
+     *
+     * @param lexemes   лексемы, содержащие хранилище строк и пространственный индекс
+     * @param name      имя функции
+     * @param arguments значения аргументов
+     * @return фильтр функции
+     * @throws FilterException если функции нет, количество аргументов неверно или координаты вне допустимых значений
+     */
+    private static RowPredicate function(LexemeBuffer lexemes, String name, List<String> arguments) throws FilterException {
+        switch (name) {
+            case "box": {
+                checkArguments(name, arguments, 4);
+                return new BoxPredicate(lexemes.store, latitude(arguments.get(0)), longitude(arguments.get(1)),
+                        latitude(arguments.get(2)), longitude(arguments.get(3)));
+            }
+            case "radius": {
+                checkArguments(name, arguments, 3);
+                double radius = parseDouble(arguments.get(2));
+                if (!(radius >= 0)) {
+                    throw new FilterException("Радиус не может быть отрицательным: " + arguments.get(2));
+                }
+                return new RadiusPredicate(lexemes.store, latitude(arguments.get(0)), longitude(arguments.get(1)), radius);
+            }
+            case "nearest": {
+                checkArguments(name, arguments, 3);
+                int count = parseInteger(arguments.get(2));
+                if (count < 1) {
+                    throw new FilterException("Количество аэропортов должно быть положительным: " + arguments.get(2));
+                }
+                return new NearestPredicate(lexemes.store, latitude(arguments.get(0)), longitude(arguments.get(1)), count, null);
+            }
+            default:
+                throw new FilterException("Неизвестная функция: " + name);
+        }
+    }
+
+    /**
+     * Метод проверяет количество аргументов функции.
+     *
+     * @param name      имя функции
+     * @param arguments значения аргументов
+     * @param count     ожидаемое количество аргументов
+     * @throws FilterException если количество аргументов не совпадает с ожидаемым
+     */
+    private static void checkArguments(String name, List<String> arguments, int count) throws FilterException {
+        if (arguments.size() != count) {
+            throw new FilterException("Функция " + name + " принимает " + count + " аргумента вместо " + arguments.size());
+        }
+    }
+
+    /**
+     * Метод разбирает строку как широту в градусах.
+     *
+     * @param str строка, которую необходимо разобрать
+     * @return широта
+     * @throws FilterException если строка не является числом от -90 до 90
+     */
+    private static double latitude(String str) throws FilterException {
+        double latitude = parseDouble(str);
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new FilterException("Широта должна быть от -90 до 90 вместо " + str);
+        }
+        return latitude;
+    }
+
+    /**
+     * Метод разбирает строку как долготу в градусах.
+     *
+     * @param str строка, которую необходимо разобрать
+     * @return долгота
+     * @throws FilterException если строка не является числом от -180 до 180
+     */
+    private static double longitude(String str) throws FilterException {
+        double longitude = parseDouble(str);
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new FilterException("Долгота должна быть от -180 до 180 вместо " + str);
+        }
+        return longitude;
+    }
+
+    /**
+     * Метод преобразует лексему оператора в операцию сравнения.
+     *
+     * @param lexeme лексема оператора
+     * @return операция сравнения
+     * @throws FilterException если лексема не является оператором сравнения
+     */
+    private static Comparison comparison(Lexeme lexeme) throws FilterException {
+        switch (lexeme.type) {
+            case OP_EQUALS:
+                return Comparison.EQUALS;
+            case OP_NOT_EQUALS:
+                return Comparison.NOT_EQUALS;
+            case OP_LARGER:
+                return Comparison.LARGER;
+            case OP_LESS:
+                return Comparison.LESS;
+            default:
+                throw new FilterException("Ожидался оператор сравнения вместо " + lexeme.value);
+        }
+    }
+
+    /**
+     * Метод создает сравнение, специализированное под тип колонки, с заранее разобранным литералом.
      *
-     * @param str строка, которую необходимо проверить
-     * @return true, если строка является числом типа int, false - в противном случае
+     * @param store      хранилище строк
+     * @param column     колонка, значение которой сравнивается
+     * @param comparison операция сравнения
+     * @param value      значение литерала из фильтра
+     * @return фильтр сравнения
+     * @throws FilterException если операция не применима к колонке или литерал не соответствует ее типу
      */
-    private static boolean isNumeric(String str) {
+    private static RowPredicate comparison(RowStore store, Column column, Comparison comparison, String value) throws FilterException {
+        switch (column.getType()) {
+            case INTEGER:
+                return new IntegerComparison(store, column.getIndex(), comparison, parseInteger(value));
+            case DOUBLE:
+                return new DoubleComparison(store, column.getIndex(), comparison, parseDouble(value));
+            default:
+                if (comparison == Comparison.LARGER || comparison == Comparison.LESS) {
+                    throw new FilterException("Операция не применима к этому индексу");
+                }
+                boolean negate = comparison == Comparison.NOT_EQUALS;
+                if (store instanceof ColumnarRowStore && ((ColumnarRowStore) store).getDictionary(column.getIndex()) != null) {
+                    return new DictionaryComparison((ColumnarRowStore) store, column.getIndex(), negate, value);
+                }
+                return new StringComparison(store, column.getIndex(), negate, value);
+        }
+    }
+
+    /**
+     * Метод разбирает строку как число типа int.
+     *
+     * @param str строка, которую необходимо разобрать
+     * @return число типа int
+     * @throws FilterException если строка не является числом типа int
+     */
+    private static int parseInteger(String str) throws FilterException {
         try {
-            Integer.parseInt(str);
-            return true;
+            return Integer.parseInt(str);
         } catch (NumberFormatException e) {
-            return false;
+            throw new FilterException("Ожидалось целое число вместо " + str);
         }
     }
 
     /**
-     * Метод проверяет, является ли строка числом типа double.
+     * Метод разбирает строку как число типа double.
      *
-     * @param str строка, которую необходимо проверить
-     * @return true, если строка является числом типа double, false - в противном случае
+     * @param str строка, которую необходимо разобрать
+     * @return число типа double
+     * @throws FilterException если строка не является числом типа double
      */
-    private static boolean isDouble(String str) {
+    private static double parseDouble(String str) throws FilterException {
         try {
-            Double.parseDouble(str);
-            return true;
+            return Double.parseDouble(str);
         } catch (NumberFormatException e) {
-            return false;
+            throw new FilterException("Ожидалось число вместо " + str);
         }
     }
 }
-
-
-
-
@@ -0,0 +1,255 @@
+package org.example.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.exception.FilterException;
+import org.example.trie.AirportRow;
+import org.example.trie.Trie;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP-сервер, выполняющий поиск по одному загруженному дереву для многих клиентов.
+ * Сервер слушает только localhost и принимает запросы вида
+ * {@code GET /search?prefix=Bo&filter=column[1]>10&offset=0&limit=10}; параметры, кроме префикса, необязательны.
+ * Параметр {@code distance} включает поиск с опечатками с заданным расстоянием Левенштейна,
+ * параметр {@code contains} вместо префикса задает подстроку, которую должны содержать названия,
+ * а параметр {@code column} ищет префикс в значениях строковой колонки с этим номером вместо названий.
+ * Ответ содержит найденные строки в том же формате и порядке, что и консольный вывод, по одной в строке,
+ * а их количество передается в заголовке {@code X-Result-Count}.
+ * Каждый запрос обрабатывается в отдельном виртуальном потоке, если среда выполнения их поддерживает,
+ * иначе в пуле потоков.
+ */
+public class Server {
+    /**
+     * Путь, по которому выполняется поиск.
+     */
+    private static final String SEARCH_PATH = "/search";
+    /**
+     * Дерево, по которому выполняется поиск.
+     */
+    private final Trie airports;
+    /**
+     * Исполнитель, в котором обрабатываются запросы.
+     */
+    private final ExecutorService executor;
+    /**
+     * HTTP-сервер.
+     */
+    private final HttpServer server;
+
+    /**
+     * Конструктор класса. Создает сервер на заданном порту localhost, но не запускает его.
+     *
+     * @param airports дерево, по которому выполняется поиск.
+     * @param port     порт; 0 означает любой свободный порт.
+     * @throws IOException если не удается открыть порт.
+     */
+    public Server(Trie airports, int port) throws IOException {
+        this.airports = airports;
+        this.executor = newExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext(SEARCH_PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Запускает сервер.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Останавливает сервер, дожидаясь завершения начатых запросов не дольше секунды.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Получает порт, на котором работает сервер.
+     *
+     * @return номер порта.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Обрабатывает запрос поиска. Неверный фильтр возвращается с кодом 400,
+     * отсутствие слов с префиксом с кодом 404.
+     *
+     * @param exchange HTTP-запрос и ответ.
+     * @throws IOException если не удается отправить ответ.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Поддерживается только метод GET");
+                return;
+            }
+            Map<String, String> parameters = parameters(exchange.getRequestURI().getRawQuery());
+            String prefix = parameters.get("prefix");
+            String substring = parameters.get("contains");
+            if (prefix == null && substring == null) {
+                respond(exchange, 400, "Не указан параметр prefix или contains");
+                return;
+            }
+            String filter = parameters.getOrDefault("filter", "");
+            List<String> result;
+            try {
+                int offset = Integer.parseInt(parameters.getOrDefault("offset", "0"));
+                int limit = Integer.parseInt(parameters.getOrDefault("limit", String.valueOf(Trie.NO_LIMIT)));
+                int distance = Integer.parseInt(parameters.getOrDefault("distance", "0"));
+                int column = Integer.parseInt(parameters.getOrDefault("column", "0"));
+                if (offset < 0 || limit < 0 || distance < 0 || column < 0) {
+                    respond(exchange, 400, "Параметры offset, limit, distance и column не могут быть отрицательными");
+                    return;
+                }
+                if (substring != null) {
+                    result = page(airports.iteratorContaining(substring, filter), offset, limit);
+                } else if (column > 0) {
+                    result = page(airports.iteratorByColumn(column, prefix, filter), offset, limit);
+                } else if (distance > 0) {
+                    result = searchFuzzy(prefix, filter, distance, offset, limit);
+                } else {
+                    result = airports.search(prefix, filter, offset, limit);
+                }
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, "Не корректное число: " + e.getMessage());
+                return;
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage());
+                return;
+            } catch (FilterException e) {
+                respond(exchange, 400, e.getMessage());
+                return;
+            }
+            if (result == null) {
+                respond(exchange, 404, substring != null ? "По подстроке '" + substring + "' нет строк" : "По префиксу '" + prefix + "' нет строк");
+                return;
+            }
+            exchange.getResponseHeaders().set("X-Result-Count", String.valueOf(result.size()));
+            respond(exchange, 200, String.join("\n", result));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Вспомогательный метод, выполняющий поиск с опечатками и формирующий строки результата.
+     *
+     * @param prefix   префикс для поиска слов.
+     * @param filter   фильтр для фильтрации результатов.
+     * @param distance допустимое расстояние Левенштейна.
+     * @param offset   количество пропускаемых строк.
+     * @param limit    максимальное количество строк.
+     * @return строки результата или null, если слов в пределах расстояния нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    private List<String> searchFuzzy(String prefix, String filter, int distance, int offset, int limit) throws FilterException {
+        List<AirportRow> rows = airports.searchFuzzy(prefix, filter, distance, offset, limit);
+        if (rows == null) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(rows.size());
+        for (AirportRow row : rows) {
+            result.add(row.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Вспомогательный метод, формирующий строки страницы результата ленивого поиска.
+     *
+     * @param rows   найденные строки или null, если подходящих слов нет.
+     * @param offset количество пропускаемых строк.
+     * @param limit  максимальное количество строк.
+     * @return строки результата или null, если подходящих слов нет.
+     */
+    private static List<String> page(Iterator<AirportRow> rows, int offset, int limit) {
+        if (rows == null) {
+            return null;
+        }
+        List<String> result = new ArrayList<>();
+        for (int skipped = 0; result.size() < limit && rows.hasNext(); ) {
+            AirportRow row = rows.next();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(row.toString());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Вспомогательный метод, отправляющий текстовый ответ.
+     *
+     * @param exchange HTTP-запрос и ответ.
+     * @param status   код ответа.
+     * @param body     текст ответа.
+     * @throws IOException если не удается отправить ответ.
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = (body.isEmpty() ? body : body + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Вспомогательный метод, разбирающий параметры строки запроса.
+     *
+     * @param query строка запроса в закодированном виде или null.
+     * @return параметры запроса.
+     */
+    private static Map<String, String> parameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Вспомогательный метод, создающий исполнитель с виртуальным потоком на каждый запрос.
+     * Виртуальные потоки появились в Java 21, а проект собирается для Java 11, поэтому исполнитель
+     * создается через отражение, а в более старых средах используется пул потоков.
+     *
+     * @return исполнитель запросов.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
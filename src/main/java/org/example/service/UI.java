@@ -16,6 +16,21 @@ public class UI {
      */
     private static final String END_WORK = "!quit";
 
+    /**
+     * Поиск, выполняемый для одного запроса пользователя.
+     */
+    @FunctionalInterface
+    private interface Search {
+        /**
+         * Выполняет поиск и выводит его результат.
+         *
+         * @param text   введенный текст поиска.
+         * @param filter введенный фильтр.
+         * @throws FilterException если фильтр содержит неверное выражение.
+         */
+        void find(String text, String filter) throws FilterException;
+    }
+
     /**
      * Получает ввод пользователя через консоль.
      *
@@ -38,12 +53,95 @@ public class UI {
      * @throws FilterException если возникает ошибка при фильтрации данных.
      */
     public static void processUserRequest(BufferedReader reader, Trie airports) throws IOException, FilterException {
+        processUserRequest(reader, airports, 0, Trie.NO_LIMIT);
+    }
+
+    /**
+     * Обрабатывает запросы пользователя, выводя для каждого запроса страницу результатов.
+     *
+     * @param reader   объект BufferedReader для чтения ввода пользователя.
+     * @param airports объект Trie, содержащий данные об аэропортах.
+     * @param offset   количество пропускаемых строк результата.
+     * @param limit    максимальное количество выводимых строк или {@link Trie#NO_LIMIT}.
+     * @throws IOException     если возникает ошибка ввода-вывода.
+     * @throws FilterException если возникает ошибка при фильтрации данных.
+     */
+    public static void processUserRequest(BufferedReader reader, Trie airports, int offset, int limit) throws IOException, FilterException {
+        processUserRequest(reader, airports, offset, limit, 0);
+    }
+
+    /**
+     * Обрабатывает запросы пользователя, выводя для каждого запроса страницу результатов.
+     * Если задано допустимое расстояние, слова ищутся с опечатками и выводятся в порядке расстояния от префикса.
+     *
+     * @param reader      объект BufferedReader для чтения ввода пользователя.
+     * @param airports    объект Trie, содержащий данные об аэропортах.
+     * @param offset      количество пропускаемых строк результата.
+     * @param limit       максимальное количество выводимых строк или {@link Trie#NO_LIMIT}.
+     * @param maxDistance допустимое расстояние Левенштейна или 0 для точного поиска по префиксу.
+     * @throws IOException     если возникает ошибка ввода-вывода.
+     * @throws FilterException если возникает ошибка при фильтрации данных.
+     */
+    public static void processUserRequest(BufferedReader reader, Trie airports, int offset, int limit, int maxDistance) throws IOException, FilterException {
+        processRequests(reader, "Введите префикс аэропорта или оставьте его пустым (для окончания работы программы напишите '!quit'): ",
+                (prefix, filter) -> {
+                    if (maxDistance > 0) {
+                        airports.findFuzzy(prefix, filter, maxDistance, offset, limit);
+                    } else {
+                        airports.find(prefix, filter, offset, limit);
+                    }
+                });
+    }
+
+    /**
+     * Обрабатывает запросы пользователя, выводя для каждого запроса страницу строк, названия которых содержат
+     * введенную подстроку.
+     *
+     * @param reader   объект BufferedReader для чтения ввода пользователя.
+     * @param airports объект Trie, содержащий данные об аэропортах.
+     * @param offset   количество пропускаемых строк результата.
+     * @param limit    максимальное количество выводимых строк или {@link Trie#NO_LIMIT}.
+     * @throws IOException     если возникает ошибка ввода-вывода.
+     * @throws FilterException если возникает ошибка при фильтрации данных.
+     */
+    public static void processSubstringRequest(BufferedReader reader, Trie airports, int offset, int limit) throws IOException, FilterException {
+        processRequests(reader, "Введите часть названия аэропорта (для окончания работы программы напишите '!quit'): ",
+                (substring, filter) -> airports.findContaining(substring, filter, offset, limit));
+    }
+
+    /**
+     * Обрабатывает запросы пользователя, выводя для каждого запроса страницу строк, значение строковой колонки
+     * которых начинается с введенного префикса.
+     *
+     * @param reader   объект BufferedReader для чтения ввода пользователя.
+     * @param airports объект Trie, содержащий данные об аэропортах.
+     * @param column   номер строковой колонки, как в фильтре.
+     * @param offset   количество пропускаемых строк результата.
+     * @param limit    максимальное количество выводимых строк или {@link Trie#NO_LIMIT}.
+     * @throws IOException     если возникает ошибка ввода-вывода.
+     * @throws FilterException если возникает ошибка при фильтрации данных.
+     */
+    public static void processColumnRequest(BufferedReader reader, Trie airports, int column, int offset, int limit) throws IOException, FilterException {
+        processRequests(reader, "Введите префикс значения колонки " + column + " (для окончания работы программы напишите '!quit'): ",
+                (prefix, filter) -> airports.findByColumn(column, prefix, filter, offset, limit));
+    }
+
+    /**
+     * Вспомогательный метод, запрашивающий фильтр и текст запроса до команды завершения работы программы.
+     *
+     * @param reader  объект BufferedReader для чтения ввода пользователя.
+     * @param request строка, содержащая запрос текста поиска.
+     * @param search  поиск, выполняемый для введенных текста и фильтра.
+     * @throws IOException     если возникает ошибка ввода-вывода.
+     * @throws FilterException если возникает ошибка при фильтрации данных.
+     */
+    private static void processRequests(BufferedReader reader, String request, Search search) throws IOException, FilterException {
         String filter;
-        String prefix;
+        String text;
         while (!Objects.equals(filter = getUserInput(reader, "Введите фильтр или оставте поле пустым (для окончания работы программы напишите '!quit'): "), END_WORK)) {
-            prefix = getUserInput(reader, "Введите префикс аэропорта или оставьте его пустым (для окончания работы программы напишите '!quit'): ");
-            if (!Objects.equals(prefix, END_WORK)) {
-                airports.find(prefix, filter);
+            text = getUserInput(reader, request);
+            if (!Objects.equals(text, END_WORK)) {
+                search.find(text, filter);
             } else {
                 break;
             }
@@ -51,4 +149,18 @@ public class UI {
         System.out.println("Конец работы программы");
     }
 
+    /**
+     * Ожидает команду завершения работы программы, пока запросы обрабатываются в другом месте, например сервером.
+     *
+     * @param reader объект BufferedReader для чтения ввода пользователя.
+     * @throws IOException если возникает ошибка ввода-вывода.
+     */
+    public static void awaitEnd(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = getUserInput(reader, "Для окончания работы программы напишите '!quit': ");
+        } while (line != null && !Objects.equals(line, END_WORK));
+        System.out.println("Конец работы программы");
+    }
+
 }
@@ -0,0 +1,57 @@
+package org.example.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Хранилище, содержащее все разобранные строки в памяти в виде массивов объектов.
+ */
+public class ArrayRowStore implements MutableRowStore {
+    /**
+     * Список массивов информации об аэропортах.
+     */
+    private final List<Object[]> rows;
+
+    /**
+     * Конструктор по умолчанию. Создает пустое хранилище.
+     */
+    public ArrayRowStore() {
+        this.rows = new ArrayList<>();
+    }
+
+    @Override
+    public int add(Object[] information) {
+        rows.add(information);
+        return rows.size() - 1;
+    }
+
+    @Override
+    public void set(int row, Object[] information) {
+        rows.set(row, information);
+    }
+
+    @Override
+    public int getInteger(int row, int index) {
+        return (Integer) rows.get(row)[index];
+    }
+
+    @Override
+    public double getDouble(int row, int index) {
+        return (Double) rows.get(row)[index];
+    }
+
+    @Override
+    public String getString(int row, int index) {
+        return (String) rows.get(row)[index];
+    }
+
+    @Override
+    public Object[] get(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.store;
+
+import org.example.entity.Column;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Колоночное хранилище строк. Числовые колонки хранятся в массивах примитивов,
+ * строковые колонки с малым числом различных значений кодируются словарем,
+ * остальные строковые колонки хранятся в массивах строк.
+ */
+public class ColumnarRowStore implements MutableRowStore {
+    /**
+     * Строковые колонки, значения которых кодируются словарем.
+     */
+    private static final Set<Column> DICTIONARY_COLUMNS =
+            EnumSet.of(Column.COUNTRY, Column.TIMEZONE, Column.DST, Column.TZ, Column.TYPE, Column.SOURCE);
+    /**
+     * Начальная емкость колонок.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * Целочисленные колонки по индексу в массиве информации.
+     */
+    private final int[][] integers;
+    /**
+     * Вещественные колонки по индексу в массиве информации.
+     */
+    private final double[][] doubles;
+    /**
+     * Коды значений колонок, закодированных словарем.
+     */
+    private final int[][] codes;
+    /**
+     * Словари колонок, закодированных словарем.
+     */
+    private final Dictionary[] dictionaries;
+    /**
+     * Остальные строковые колонки.
+     */
+    private final String[][] strings;
+    /**
+     * Количество строк в хранилище.
+     */
+    private int size;
+
+    /**
+     * Конструктор по умолчанию. Создает пустое хранилище.
+     */
+    public ColumnarRowStore() {
+        int count = Column.values().length;
+        this.integers = new int[count][];
+        this.doubles = new double[count][];
+        this.codes = new int[count][];
+        this.dictionaries = new Dictionary[count];
+        this.strings = new String[count][];
+        for (Column column : Column.values()) {
+            int index = column.getIndex();
+            switch (column.getType()) {
+                case INTEGER: {
+                    integers[index] = new int[INITIAL_CAPACITY];
+                    break;
+                }
+                case DOUBLE: {
+                    doubles[index] = new double[INITIAL_CAPACITY];
+                    break;
+                }
+                default: {
+                    if (DICTIONARY_COLUMNS.contains(column)) {
+                        codes[index] = new int[INITIAL_CAPACITY];
+                        dictionaries[index] = new Dictionary();
+                    } else {
+                        strings[index] = new String[INITIAL_CAPACITY];
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int add(Object[] information) {
+        if (size == capacity()) {
+            grow();
+        }
+        set(size, information);
+        return size++;
+    }
+
+    @Override
+    public void set(int row, Object[] information) {
+        for (int index = 0; index < information.length; index++) {
+            if (integers[index] != null) {
+                integers[index][row] = (Integer) information[index];
+            } else if (doubles[index] != null) {
+                doubles[index][row] = (Double) information[index];
+            } else if (codes[index] != null) {
+                codes[index][row] = dictionaries[index].encode((String) information[index]);
+            } else {
+                strings[index][row] = (String) information[index];
+            }
+        }
+    }
+
+    @Override
+    public int getInteger(int row, int index) {
+        return integers[index][row];
+    }
+
+    @Override
+    public double getDouble(int row, int index) {
+        return doubles[index][row];
+    }
+
+    @Override
+    public String getString(int row, int index) {
+        if (codes[index] != null) {
+            return dictionaries[index].decode(codes[index][row]);
+        }
+        return strings[index][row];
+    }
+
+    /**
+     * Получает код значения колонки, закодированной словарем.
+     *
+     * @param row   номер строки.
+     * @param index индекс колонки в массиве информации.
+     * @return код значения.
+     */
+    public int getCode(int row, int index) {
+        return codes[index][row];
+    }
+
+    /**
+     * Получает словарь колонки.
+     *
+     * @param index индекс колонки в массиве информации.
+     * @return словарь или null, если колонка не кодируется словарем.
+     */
+    public Dictionary getDictionary(int index) {
+        return dictionaries[index];
+    }
+
+    @Override
+    public Object[] get(int row) {
+        Object[] information = new Object[Column.values().length];
+        for (int index = 0; index < information.length; index++) {
+            if (integers[index] != null) {
+                information[index] = integers[index][row];
+            } else if (doubles[index] != null) {
+                information[index] = doubles[index][row];
+            } else {
+                information[index] = getString(row, index);
+            }
+        }
+        return information;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получает текущую емкость колонок.
+     *
+     * @return емкость колонок.
+     */
+    private int capacity() {
+        return integers[Column.ID.getIndex()].length;
+    }
+
+    /**
+     * Увеличивает емкость всех колонок в полтора раза.
+     */
+    private void grow() {
+        int capacity = capacity() + (capacity() >> 1);
+        for (int index = 0; index < integers.length; index++) {
+            if (integers[index] != null) {
+                integers[index] = Arrays.copyOf(integers[index], capacity);
+            } else if (doubles[index] != null) {
+                doubles[index] = Arrays.copyOf(doubles[index], capacity);
+            } else if (codes[index] != null) {
+                codes[index] = Arrays.copyOf(codes[index], capacity);
+            } else {
+                strings[index] = Arrays.copyOf(strings[index], capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Словарь строковых значений колонки. Каждое различное значение хранится один раз,
+ * а строки ссылаются на него целочисленным кодом.
+ */
+public class Dictionary {
+    /**
+     * Коды значений.
+     */
+    private final Map<String, Integer> codes;
+    /**
+     * Значения в порядке их кодов.
+     */
+    private final List<String> values;
+
+    /**
+     * Конструктор по умолчанию. Создает пустой словарь.
+     */
+    public Dictionary() {
+        this.codes = new HashMap<>();
+        this.values = new ArrayList<>();
+    }
+
+    /**
+     * Получает код значения, добавляя значение в словарь при необходимости.
+     *
+     * @param value строковое значение.
+     * @return код значения.
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Получает значение по его коду.
+     *
+     * @param code код значения.
+     * @return строковое значение.
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * Получает количество различных значений в словаре.
+     *
+     * @return количество значений.
+     */
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,232 @@
+package org.example.store;
+
+import org.example.entity.Column;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Хранилище, которое держит в памяти только смещения и длины строк CSV-файла.
+ * Значения колонок читаются по требованию из отображенного в память файла,
+ * причем разбираются только те поля, к которым происходит обращение.
+ */
+public class MappedRowStore implements RowStore {
+    /**
+     * Номер поля CSV-строки, содержащего название аэропорта.
+     */
+    private static final int NAME_FIELD = 1;
+    /**
+     * Содержимое CSV-файла.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Смещения начала строк в файле.
+     */
+    private int[] offsets;
+    /**
+     * Длины строк в байтах без символов перевода строки.
+     */
+    private int[] lengths;
+    /**
+     * Количество строк в хранилище.
+     */
+    private int size;
+
+    /**
+     * Конструктор класса. Находит границы всех непустых строк в буфере.
+     *
+     * @param buffer содержимое CSV-файла, например {@link java.nio.MappedByteBuffer}.
+     */
+    public MappedRowStore(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.offsets = new int[1024];
+        this.lengths = new int[1024];
+        int limit = buffer.limit();
+        int start = 0;
+        for (int pos = 0; pos <= limit; pos++) {
+            if (pos == limit || buffer.get(pos) == '\n') {
+                int end = pos;
+                if (end > start && buffer.get(end - 1) == '\r') {
+                    end--;
+                }
+                if (end > start) {
+                    addLine(start, end - start);
+                }
+                start = pos + 1;
+            }
+        }
+        this.offsets = Arrays.copyOf(offsets, size);
+        this.lengths = Arrays.copyOf(lengths, size);
+    }
+
+    /**
+     * Получает название аэропорта из строки.
+     *
+     * @param row номер строки.
+     * @return название аэропорта.
+     */
+    public String getName(int row) {
+        return decodeField(row, NAME_FIELD);
+    }
+
+    /**
+     * Получает байты всех полей строки CSV-файла без копирования. Кавычки вокруг значений остаются в буферах.
+     *
+     * @param row номер строки.
+     * @return буферы полей в порядке строки.
+     */
+    public ByteBuffer[] fields(int row) {
+        List<ByteBuffer> fields = new ArrayList<>();
+        int start = offsets[row];
+        int end = start + lengths[row];
+        boolean quoted = false;
+        for (int pos = start; pos <= end; pos++) {
+            if (pos == end || buffer.get(pos) == ',' && !quoted) {
+                ByteBuffer field = buffer.duplicate();
+                field.limit(pos).position(start);
+                fields.add(field.slice());
+                start = pos + 1;
+            } else if (buffer.get(pos) == '\"') {
+                quoted = !quoted;
+            }
+        }
+        return fields.toArray(new ByteBuffer[0]);
+    }
+
+    @Override
+    public int getInteger(int row, int index) {
+        int pos = fieldStart(row, field(index));
+        int end = offsets[row] + lengths[row];
+        if (pos < end && buffer.get(pos) == '\"') {
+            pos++;
+        }
+        boolean negative = pos < end && buffer.get(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+        int value = 0;
+        for (; pos < end; pos++) {
+            byte b = buffer.get(pos);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    @Override
+    public double getDouble(int row, int index) {
+        return Double.parseDouble(decodeField(row, field(index)));
+    }
+
+    @Override
+    public String getString(int row, int index) {
+        return decodeField(row, field(index));
+    }
+
+    @Override
+    public Object[] get(int row) {
+        Object[] information = new Object[Column.values().length];
+        for (Column column : Column.values()) {
+            int index = column.getIndex();
+            switch (column.getType()) {
+                case INTEGER: {
+                    information[index] = getInteger(row, index);
+                    break;
+                }
+                case DOUBLE: {
+                    information[index] = getDouble(row, index);
+                    break;
+                }
+                default: {
+                    information[index] = getString(row, index);
+                    break;
+                }
+            }
+        }
+        return information;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Запоминает границы строки, расширяя массивы при необходимости.
+     *
+     * @param offset смещение начала строки.
+     * @param length длина строки.
+     */
+    private void addLine(int offset, int length) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+        }
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    /**
+     * Преобразует индекс в массиве информации в номер поля CSV-строки.
+     *
+     * @param index индекс колонки в массиве информации.
+     * @return номер поля CSV-строки (начиная с 0).
+     */
+    private static int field(int index) {
+        return index == 0 ? 0 : index + 1;
+    }
+
+    /**
+     * Находит смещение начала поля, пропуская запятые внутри кавычек.
+     *
+     * @param row   номер строки.
+     * @param field номер поля CSV-строки.
+     * @return смещение начала поля.
+     */
+    private int fieldStart(int row, int field) {
+        int pos = offsets[row];
+        int end = pos + lengths[row];
+        boolean quoted = false;
+        for (int count = 0; count < field && pos < end; pos++) {
+            byte b = buffer.get(pos);
+            if (b == '\"') {
+                quoted = !quoted;
+            } else if (b == ',' && !quoted) {
+                count++;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Декодирует значение поля, удаляя кавычки, так же как это делает разбор CSV-строки в {@code Data}.
+     *
+     * @param row   номер строки.
+     * @param field номер поля CSV-строки.
+     * @return значение поля.
+     */
+    private String decodeField(int row, int field) {
+        int pos = fieldStart(row, field);
+        int end = offsets[row] + lengths[row];
+        byte[] bytes = new byte[end - pos];
+        int length = 0;
+        boolean quoted = false;
+        for (; pos < end; pos++) {
+            byte b = buffer.get(pos);
+            if (b == '\"') {
+                quoted = !quoted;
+            } else if (b == ',' && !quoted) {
+                break;
+            } else {
+                bytes[length++] = b;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
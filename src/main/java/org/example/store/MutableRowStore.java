@@ -0,0 +1,22 @@
+package org.example.store;
+
+/**
+ * Хранилище строк, в которое загрузчик может добавлять разобранные строки CSV-файла.
+ */
+public interface MutableRowStore extends RowStore {
+    /**
+     * Добавляет строку в хранилище.
+     *
+     * @param information массив информации об аэропорте.
+     * @return номер добавленной строки.
+     */
+    int add(Object[] information);
+
+    /**
+     * Заменяет информацию в существующей строке хранилища.
+     *
+     * @param row         номер строки.
+     * @param information новый массив информации об аэропорте.
+     */
+    void set(int row, Object[] information);
+}
@@ -0,0 +1,49 @@
+package org.example.store;
+
+/**
+ * Интерфейс хранилища строк с информацией об аэропортах.
+ * Строки адресуются номером, который хранится в Trie вместо самих данных.
+ */
+public interface RowStore {
+    /**
+     * Получает значение целочисленной колонки.
+     *
+     * @param row   номер строки.
+     * @param index индекс колонки в массиве информации.
+     * @return значение колонки.
+     */
+    int getInteger(int row, int index);
+
+    /**
+     * Получает значение вещественной колонки.
+     *
+     * @param row   номер строки.
+     * @param index индекс колонки в массиве информации.
+     * @return значение колонки.
+     */
+    double getDouble(int row, int index);
+
+    /**
+     * Получает значение строковой колонки.
+     *
+     * @param row   номер строки.
+     * @param index индекс колонки в массиве информации.
+     * @return значение колонки.
+     */
+    String getString(int row, int index);
+
+    /**
+     * Получает всю информацию об аэропорте для вывода.
+     *
+     * @param row номер строки.
+     * @return массив информации об аэропорте.
+     */
+    Object[] get(int row);
+
+    /**
+     * Получает количество строк в хранилище.
+     *
+     * @return количество строк.
+     */
+    int size();
+}
@@ -0,0 +1,1401 @@
+package org.example.trie;
+
+import org.example.entity.Airport;
+import org.example.entity.Column;
+import org.example.entity.ColumnType;
+import org.example.entity.Query;
+import org.example.exception.FilterException;
+import org.example.filter.ColumnStatistics;
+import org.example.filter.NearestPredicate;
+import org.example.filter.RowPredicate;
+import org.example.index.BitmapPredicate;
+import org.example.index.IndexRange;
+import org.example.index.Indexes;
+import org.example.index.PrefixIndex;
+import org.example.index.SpatialIndex;
+import org.example.index.TrigramIndex;
+import org.example.metrics.SearchMetrics;
+import org.example.metrics.SearchMetrics.Phase;
+import org.example.service.Filter.Lexeme;
+import org.example.store.RowStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.example.service.Filter.Lexeme.lexAnalyze;
+import static org.example.service.Filter.compile;
+
+/**
+ * Базовый класс префиксных деревьев аэропортов, реализующий общий для всех деревьев поиск,
+ * фильтрацию и вывод результатов. Наследники отвечают только за устройство узлов.
+ *
+ * @param <N> тип узла дерева.
+ */
+public abstract class AbstractTrie<N> implements Trie {
+    /**
+     * Количество строк в поддереве, начиная с которого поддерево обходится параллельно.
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+    /**
+     * Количество строк в поддереве, до которого ближайшие аэропорты выбираются обходом поддерева,
+     * а не пространственным индексом.
+     */
+    private static final int NEAREST_SCAN_THRESHOLD = 1024;
+    /**
+     * Метрики поиска.
+     */
+    private static final SearchMetrics METRICS = SearchMetrics.getInstance();
+    /**
+     * Хранилище строк с информацией об аэропортах.
+     */
+    protected final RowStore store;
+    /**
+     * Узлы, в которых заканчиваются названия аэропортов, по номеру строки.
+     */
+    private Object[] nodes;
+    /**
+     * Признак того, что вторичные индексы нужно использовать при поиске.
+     */
+    private boolean indexed;
+    /**
+     * Вторичные индексы по числовым колонкам или null, если они не построены или устарели после изменения данных.
+     */
+    private Indexes indexes;
+    /**
+     * Индекс триграмм названий для поиска по подстроке или null, если он еще не нужен или устарел после изменения данных.
+     */
+    private TrigramIndex trigrams;
+    /**
+     * Префиксные индексы строковых колонок по индексу колонки. Индекс строится в фоне при первом поиске
+     * по колонке и удаляется после изменения данных.
+     */
+    private final Map<Integer, CompletableFuture<PrefixIndex>> prefixIndexes = new ConcurrentHashMap<>();
+    /**
+     * Пространственный индекс координат или null, если он еще не нужен или устарел после изменения данных.
+     */
+    private SpatialIndex spatial;
+    /**
+     * Статистика значений колонок для переупорядочивания операндов фильтров или null, если она еще не нужна
+     * или устарела после изменения данных.
+     */
+    private ColumnStatistics statistics;
+    /**
+     * Признак параллельного поиска.
+     */
+    private boolean parallel;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param store хранилище строк, на которые ссылаются узлы дерева.
+     */
+    protected AbstractTrie(RowStore store) {
+        this.store = store;
+        this.nodes = new Object[Math.max(store.size(), 16)];
+    }
+
+    @Override
+    public synchronized void createIndexes() {
+        indexed = true;
+        indexes = new Indexes(store);
+    }
+
+    @Override
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Метод для поиска слов с пропуском первых строк и ограничением количества строк.
+     * Строки берутся из того же курсора, что и у {@link #iterator(String, String)}: дерево обходится
+     * в порядке названий, поэтому результаты не требуют сортировки, а обход прекращается,
+     * как только набрано нужное количество строк. В параллельном режиме
+     * запрос без ограничения количества строк по большому поддереву выполняется задачами {@link SearchTask}.
+     * Ближайшие аэропорты функции {@code nearest} выбираются среди строк префикса, удовлетворяющих
+     * остальной части фильтра, и выдаются в порядке расстояния.
+     *
+     * @param prefix префикс, с которого начинаются слова, которые нужно найти.
+     * @param filter фильтр, который нужно применить к результатам поиска.
+     * @param offset количество пропускаемых строк.
+     * @param limit  максимальное количество строк или {@link #NO_LIMIT}.
+     * @return строки результата или null, если слов с таким префиксом нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public List<String> search(String prefix, String filter, int offset, int limit) throws FilterException {
+        METRICS.query();
+        String prefixLowerCase = prefix.toLowerCase();
+        N current = timedDescend(prefixLowerCase);
+        if (current == null) {
+            return null;
+        }
+        List<String> airports = new ArrayList<>();
+        RowPredicate predicate = predicate(filter);
+        Page page = new Page(offset, limit, airports);
+        RangeCursor cursor = predicate instanceof NearestPredicate
+                ? nearestCursor(current, prefixLowerCase, (NearestPredicate) predicate)
+                : indexedCursor(current, prefixLowerCase, predicate);
+        if (cursor != null) {
+            long start = System.nanoTime();
+            cursor.visit(page);
+            METRICS.record(Phase.TRAVERSAL, System.nanoTime() - start);
+        } else if (parallel && limit == NO_LIMIT && rowCount(current) > PARALLEL_THRESHOLD) {
+            long start = System.nanoTime();
+            List<Match> matches = ForkJoinPool.commonPool().invoke(new SearchTask(current, predicate));
+            for (int i = offset; i < matches.size(); i++) {
+                airports.add(matches.get(i).line);
+            }
+            METRICS.record(Phase.TRAVERSAL, System.nanoTime() - start);
+        } else {
+            long start = System.nanoTime();
+            new OrderedCursor(current, predicate).visit(page);
+            METRICS.record(Phase.TRAVERSAL, System.nanoTime() - start);
+        }
+        return airports;
+    }
+
+    /**
+     * Метод, возвращающий ленивый итератор по найденным строкам. Поддерево обходится, а фильтр применяется
+     * только по мере вызова {@link Iterator#next()}. Если фильтр позволяет использовать вторичный индекс,
+     * строки диапазона индекса или множества строк битовых индексов отбираются и сортируются при создании итератора.
+     * Итератор не должен использоваться одновременно с изменением дерева.
+     *
+     * @param prefix префикс, с которого начинаются слова, которые нужно найти.
+     * @param filter фильтр, который нужно применить к результатам поиска.
+     * @return итератор строк в порядке названий (для функции nearest - в порядке расстояния) или null, если слов с таким префиксом нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public Iterator<AirportRow> iterator(String prefix, String filter) throws FilterException {
+        METRICS.query();
+        String prefixLowerCase = prefix.toLowerCase();
+        N current = timedDescend(prefixLowerCase);
+        if (current == null) {
+            return null;
+        }
+        RowPredicate predicate = predicate(filter);
+        if (predicate instanceof NearestPredicate) {
+            return nearestCursor(current, prefixLowerCase, (NearestPredicate) predicate);
+        }
+        RangeCursor cursor = indexedCursor(current, prefixLowerCase, predicate);
+        return cursor != null ? cursor : new OrderedCursor(current, predicate);
+    }
+
+    /**
+     * Метод для поиска по нескольким запросам с общим обходом дерева. Запросы сортируются по префиксу
+     * и объединяются в группы, в которых префиксы всех запросов начинаются с префикса первого.
+     * Поддерево префикса группы обходится в порядке названий один раз, и каждая строка проверяется
+     * фильтрами тех запросов группы, с префиксом которых начинается ее название. Обход группы
+     * прекращается, когда заполнены страницы всех ее запросов. Результаты совпадают с результатами
+     * {@link #search(String, String, int, int)}.
+     *
+     * @param queries запросы.
+     * @return результаты запросов в том же порядке.
+     * @throws FilterException если фильтр одного из запросов содержит неверное выражение.
+     */
+    @Override
+    public List<List<String>> searchAll(List<Query> queries) throws FilterException {
+        int count = queries.size();
+        String[] prefixes = new String[count];
+        RowPredicate[] predicates = new RowPredicate[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            Query query = queries.get(i);
+            prefixes[i] = query.getPrefix().toLowerCase();
+            predicates[i] = predicate(query.getFilter());
+            order[i] = i;
+            METRICS.query();
+        }
+        Arrays.sort(order, Comparator.comparing(i -> prefixes[i]));
+        List<List<String>> results = new ArrayList<>(Collections.nCopies(count, null));
+        int start = 0;
+        while (start < count) {
+            String groupPrefix = prefixes[order[start]];
+            int end = start + 1;
+            while (end < count && prefixes[order[end]].startsWith(groupPrefix)) {
+                end++;
+            }
+            N node = descend(groupPrefix);
+            if (node != null) {
+                SharedScan scan = new SharedScan();
+                for (int i = start; i < end; i++) {
+                    int index = order[i];
+                    N current = timedDescend(prefixes[index]);
+                    if (current != null) {
+                        List<String> airports = new ArrayList<>();
+                        results.set(index, airports);
+                        Query query = queries.get(index);
+                        Page page = new Page(query.getOffset(), query.getLimit(), airports);
+                        if (predicates[index] instanceof NearestPredicate) {
+                            long traversal = System.nanoTime();
+                            nearestCursor(current, prefixes[index], (NearestPredicate) predicates[index]).visit(page);
+                            METRICS.record(Phase.TRAVERSAL, System.nanoTime() - traversal);
+                        } else {
+                            scan.add(prefixes[index], predicates[index], page);
+                        }
+                    }
+                }
+                if (scan.open > 0) {
+                    long traversal = System.nanoTime();
+                    OrderedCursor cursor = new OrderedCursor(node, null);
+                    cursor.counted = false;
+                    cursor.visit(scan);
+                    METRICS.rows(scan.visited, scan.matched);
+                    METRICS.record(Phase.TRAVERSAL, System.nanoTime() - traversal);
+                }
+            }
+            start = end;
+        }
+        return results;
+    }
+
+    /**
+     * Метод для поиска слов, начало которых отличается от префикса не больше чем на заданное расстояние
+     * Левенштейна. Дерево обходится в глубину, и для каждого символа пути вычисляется очередная строка
+     * таблицы расстояний между путем и префиксом. Ветвь отбрасывается, как только все значения строки
+     * превышают допустимое расстояние, а если значения строки не меньше уже найденного расстояния,
+     * все слова поддерева получают это расстояние без дальнейшего вычисления таблицы.
+     * С функцией {@code nearest} из найденных строк выбираются ближайшие к точке в порядке расстояния до нее.
+     *
+     * @param prefix      префикс, с которого должны начинаться слова с точностью до опечаток.
+     * @param filter      фильтр, который нужно применить к результатам поиска.
+     * @param maxDistance допустимое расстояние Левенштейна.
+     * @param offset      количество пропускаемых строк.
+     * @param limit       максимальное количество строк или {@link #NO_LIMIT}.
+     * @return строки в порядке расстояния, названий и номеров или null, если подходящих слов нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public List<AirportRow> searchFuzzy(String prefix, String filter, int maxDistance, int offset, int limit) throws FilterException {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Расстояние не может быть отрицательным: " + maxDistance);
+        }
+        METRICS.query();
+        RowPredicate predicate = predicate(filter);
+        long start = System.nanoTime();
+        FuzzyScan scan = new FuzzyScan(prefix.toLowerCase().toCharArray(), maxDistance, predicate);
+        N root = descend("");
+        if (root != null) {
+            int[] row = new int[scan.query.length + 1];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = j;
+            }
+            scan.walk(root, row, scan.query.length);
+        }
+        METRICS.record(Phase.TRAVERSAL, System.nanoTime() - start);
+        if (!scan.found) {
+            return null;
+        }
+        long sort = System.nanoTime();
+        if (predicate instanceof NearestPredicate) {
+            NearestPredicate nearest = (NearestPredicate) predicate;
+            scan.matches.sort(Comparator.comparingDouble((FuzzyMatch match) -> nearest.distance(match.row)).thenComparingInt(match -> match.row));
+            if (scan.matches.size() > nearest.getCount()) {
+                scan.matches.subList(nearest.getCount(), scan.matches.size()).clear();
+            }
+        } else {
+            scan.matches.sort(Comparator.comparingInt((FuzzyMatch match) -> match.distance)
+                    .thenComparing(match -> match.name).thenComparingInt(match -> match.row));
+        }
+        METRICS.record(Phase.SORT, System.nanoTime() - sort);
+        List<AirportRow> airports = new ArrayList<>();
+        for (int i = offset; i < scan.matches.size() && airports.size() < limit; i++) {
+            FuzzyMatch match = scan.matches.get(i);
+            airports.add(new AirportRow(this, match.name, match.row));
+        }
+        return airports;
+    }
+
+    /**
+     * Метод, возвращающий итератор по строкам, названия которых содержат подстроку. Строки-кандидаты
+     * берутся из индекса триграмм, который строится при первом поиске по подстроке и после изменения данных,
+     * поэтому проверяются только названия, содержащие все триграммы подстроки. Найденные строки
+     * упорядочиваются по названиям, а фильтр применяется по мере продвижения итератора.
+     *
+     * @param substring подстрока, которую должны содержать названия.
+     * @param filter    фильтр, который нужно применить к результатам поиска.
+     * @return итератор строк в порядке названий (для функции nearest - в порядке расстояния) или null, если подстроку не содержит ни одно название.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public Iterator<AirportRow> iteratorContaining(String substring, String filter) throws FilterException {
+        METRICS.query();
+        long start = System.nanoTime();
+        int[] rows = trigrams().find(substring.toLowerCase());
+        METRICS.record(Phase.DESCENT, System.nanoTime() - start);
+        if (rows.length == 0) {
+            return null;
+        }
+        return candidateCursor(rows, predicate(filter));
+    }
+
+    /**
+     * Метод, возвращающий итератор по строкам, значение строковой колонки которых начинается с префикса.
+     * При первом поиске по колонке в фоне запускается построение ее префиксного индекса, а пока он
+     * не готов, значения колонки проверяются у всех строк. Готовый индекс находит строки двоичным поиском.
+     * Найденные строки упорядочиваются по названиям, а фильтр применяется по мере продвижения итератора.
+     *
+     * @param column номер строковой колонки, как в фильтре.
+     * @param prefix префикс значения колонки.
+     * @param filter фильтр, который нужно применить к результатам поиска.
+     * @return итератор строк в порядке названий (для функции nearest - в порядке расстояния) или null, если значений с таким префиксом нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public Iterator<AirportRow> iteratorByColumn(int column, String prefix, String filter) throws FilterException {
+        Column target = Column.byNumber(column);
+        if (target == null || target.getType() != ColumnType.STRING) {
+            throw new IllegalArgumentException("Колонка " + column + " не является строковой");
+        }
+        METRICS.query();
+        String prefixLowerCase = prefix.toLowerCase();
+        long start = System.nanoTime();
+        PrefixIndex index = prefixIndex(target);
+        int[] rows = index != null ? index.find(prefixLowerCase) : scan(target, prefixLowerCase);
+        int count = 0;
+        for (int row : rows) {
+            if (nodeOf(row) != null) {
+                rows[count++] = row;
+            }
+        }
+        METRICS.record(Phase.DESCENT, System.nanoTime() - start);
+        if (count == 0) {
+            return null;
+        }
+        return candidateCursor(Arrays.copyOf(rows, count), predicate(filter));
+    }
+
+    /**
+     * Метод для спуска по дереву к узлу, поддерево которого содержит все слова с заданным префиксом.
+     *
+     * @param prefix префикс в нижнем регистре.
+     * @return узел или null, если слов с таким префиксом нет.
+     */
+    protected abstract N descend(String prefix);
+
+    /**
+     * Метод, возвращающий количество строк в поддереве узла.
+     *
+     * @param node узел дерева.
+     * @return количество строк в поддереве.
+     */
+    protected abstract int rowCount(N node);
+
+    /**
+     * Метод, возвращающий оригинальное название аэропорта, которое заканчивается в узле.
+     *
+     * @param node узел дерева, в котором заканчивается слово.
+     * @return оригинальное название аэропорта.
+     */
+    protected abstract String originalName(N node);
+
+    /**
+     * Метод, возвращающий наименьшее оригинальное название аэропорта в поддереве узла.
+     *
+     * @param node узел дерева.
+     * @return наименьшее название в порядке {@link String#compareTo(String)}.
+     */
+    protected abstract String minName(N node);
+
+    /**
+     * Метод, возвращающий аэропорт, название которого заканчивается в узле.
+     *
+     * @param node узел дерева.
+     * @return аэропорт или null, если в узле не заканчивается слово.
+     */
+    protected abstract Airport airport(N node);
+
+    /**
+     * Метод, передающий все дочерние узлы узла заданному действию.
+     *
+     * @param node   узел дерева.
+     * @param action действие над дочерним узлом.
+     */
+    protected abstract void forEachChild(N node, Consumer<N> action);
+
+    /**
+     * Метод, передающий все дочерние узлы узла заданному действию вместе с метками ведущих в них ребер.
+     *
+     * @param node   узел дерева.
+     * @param action действие над меткой ребра в нижнем регистре и дочерним узлом.
+     */
+    protected abstract void forEachEdge(N node, BiConsumer<CharSequence, N> action);
+
+    /**
+     * Метод, строящий отдельно от дерева поддерево названий, начинающихся с одного и того же символа.
+     * Строки добавляются в порядке списков, а узлы строк не запоминаются: это делает {@link #insertAll(List, int)}
+     * после того, как поддерево подвешено к корню. Может вызываться одновременно из нескольких потоков.
+     *
+     * @param words названия в порядке номеров строк.
+     * @param rows  номера строк названий.
+     * @return корень поддерева, то есть узел, в который ведет ребро из корня дерева.
+     */
+    protected abstract N branch(List<String> words, List<Integer> rows);
+
+    /**
+     * Метод, подвешивающий к корню дерева поддерево, построенное {@link #branch(List, List)}.
+     * Ребра из корня с тем же первым символом в дереве быть не должно.
+     *
+     * @param first первый символ названий поддерева в нижнем регистре.
+     * @param node  корень поддерева.
+     */
+    protected abstract void graft(char first, N node);
+
+    /**
+     * Добавляет строки с последовательными номерами. Названия группируются по первому символу,
+     * поддеревья групп строятся параллельно и подвешиваются к корню, после чего узлы строк запоминаются
+     * одним проходом по каждому поддереву. Пустые названия и названия, первый символ которых уже есть в дереве,
+     * вставляются по одному. Строки одного названия попадают в одну группу в порядке номеров,
+     * поэтому дерево получается таким же, как при вставке строк по одной.
+     *
+     * @param words    названия в порядке номеров строк.
+     * @param firstRow номер строки первого названия.
+     */
+    @Override
+    public void insertAll(List<String> words, int firstRow) {
+        Map<Character, Branch> groups = new HashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            String pureWord = word.toLowerCase();
+            if (pureWord.isEmpty() || descend(pureWord.substring(0, 1)) != null) {
+                insert(word, firstRow + i);
+                continue;
+            }
+            Branch branch = groups.computeIfAbsent(pureWord.charAt(0), first -> new Branch());
+            branch.words.add(word);
+            branch.rows.add(firstRow + i);
+        }
+        groups.values().parallelStream().forEach(branch -> branch.node = branch(branch.words, branch.rows));
+        int end = firstRow + words.size();
+        if (end > nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(end, nodes.length * 2));
+        }
+        groups.forEach((first, branch) -> {
+            graft(first, branch.node);
+            linkSubtree(branch.node);
+        });
+        invalidateIndexes();
+    }
+
+    /**
+     * Вспомогательный метод, запоминающий узлы всех строк поддерева.
+     *
+     * @param node корень поддерева.
+     */
+    private void linkSubtree(N node) {
+        Airport airport = airport(node);
+        if (airport != null) {
+            for (int i = 0; i < airport.size(); i++) {
+                nodes[airport.getRow(i)] = node;
+            }
+        }
+        forEachChild(node, this::linkSubtree);
+    }
+
+    /**
+     * Метод, запоминающий узел, в котором заканчивается название аэропорта строки.
+     * Должен вызываться наследниками при вставке слова.
+     *
+     * @param row  номер строки.
+     * @param node узел, в котором заканчивается слово.
+     */
+    protected void link(int row, N node) {
+        if (row >= nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(row + 1, nodes.length * 2));
+        }
+        nodes[row] = node;
+        invalidateIndexes();
+    }
+
+    /**
+     * Метод, забывающий узел строки, удаленной из дерева. Должен вызываться наследниками при удалении строки.
+     *
+     * @param row номер строки.
+     */
+    protected void unlink(int row) {
+        nodes[row] = null;
+        invalidateIndexes();
+    }
+
+    /**
+     * Вспомогательный метод, получающий вторичные индексы и перестраивающий их после изменения данных.
+     *
+     * @return вторичные индексы или null, если они не используются.
+     */
+    private synchronized Indexes indexes() {
+        if (indexed && indexes == null) {
+            indexes = new Indexes(store);
+        }
+        return indexes;
+    }
+
+    /**
+     * Вспомогательный метод, получающий статистику колонок и собирающий ее при первом фильтре
+     * после загрузки или изменения данных.
+     *
+     * @return статистика значений колонок.
+     */
+    private synchronized ColumnStatistics statistics() {
+        if (statistics == null) {
+            statistics = new ColumnStatistics(store);
+        }
+        return statistics;
+    }
+
+    /**
+     * Вспомогательный метод, помечающий вторичные индексы, индекс триграмм, пространственный индекс
+     * и статистику колонок устаревшими.
+     */
+    private synchronized void invalidateIndexes() {
+        indexes = null;
+        trigrams = null;
+        spatial = null;
+        statistics = null;
+        prefixIndexes.clear();
+    }
+
+    /**
+     * Вспомогательный метод, проверяющий значение колонки у всех строк хранилища.
+     *
+     * @param column строковая колонка.
+     * @param prefix префикс в нижнем регистре.
+     * @return номера строк, значения колонки которых начинаются с префикса.
+     */
+    private int[] scan(Column column, String prefix) {
+        int[] rows = new int[store.size()];
+        int count = 0;
+        for (int row = 0; row < rows.length; row++) {
+            if (store.getString(row, column.getIndex()).toLowerCase().startsWith(prefix)) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Вспомогательный метод, получающий префиксный индекс колонки и запускающий его построение в фоне,
+     * если он еще не построен или устарел.
+     *
+     * @param column строковая колонка.
+     * @return индекс или null, если он еще строится.
+     */
+    private PrefixIndex prefixIndex(Column column) {
+        CompletableFuture<PrefixIndex> future = prefixIndexes.computeIfAbsent(column.getIndex(),
+                index -> CompletableFuture.supplyAsync(() -> new PrefixIndex(store, column)));
+        if (!future.isDone()) {
+            return null;
+        }
+        if (future.isCompletedExceptionally()) {
+            prefixIndexes.remove(column.getIndex(), future);
+            return null;
+        }
+        return future.join();
+    }
+
+    /**
+     * Вспомогательный метод, получающий индекс триграмм названий и строящий его, если он еще не построен или устарел.
+     *
+     * @return индекс триграмм.
+     */
+    private synchronized TrigramIndex trigrams() {
+        if (trigrams == null) {
+            String[] names = new String[store.size()];
+            for (int row = 0; row < names.length; row++) {
+                N node = nodeOf(row);
+                names[row] = node == null ? null : originalName(node);
+            }
+            trigrams = new TrigramIndex(names);
+        }
+        return trigrams;
+    }
+
+    /**
+     * Вспомогательный метод, получающий пространственный индекс строк дерева и строящий его,
+     * если он еще не построен или устарел.
+     *
+     * @return пространственный индекс.
+     */
+    private synchronized SpatialIndex spatialIndex() {
+        if (spatial == null) {
+            spatial = new SpatialIndex(store, row -> nodeOf(row) != null);
+        }
+        return spatial;
+    }
+
+    /**
+     * Метод, возвращающий узел, в котором заканчивается название аэропорта строки.
+     *
+     * @param row номер строки.
+     * @return узел дерева или null, если строки нет в дереве.
+     */
+    @SuppressWarnings("unchecked")
+    protected N nodeOf(int row) {
+        return row < nodes.length ? (N) nodes[row] : null;
+    }
+
+    /**
+     * Вспомогательный метод, спускающийся к узлу префикса с учетом времени спуска в метриках.
+     *
+     * @param prefix префикс в нижнем регистре.
+     * @return узел или null, если слов с таким префиксом нет.
+     */
+    private N timedDescend(String prefix) {
+        long start = System.nanoTime();
+        N node = descend(prefix);
+        METRICS.record(Phase.DESCENT, System.nanoTime() - start);
+        return node;
+    }
+
+    /**
+     * Вспомогательный метод, компилирующий фильтр с учетом времени компиляции и ошибок в метриках.
+     * Если построены вторичные индексы, часть фильтра по колонкам с битовыми индексами сразу вычисляется
+     * в множество строк, и для каждой строки проверяется только принадлежность ему и остаток фильтра.
+     *
+     * @param filter фильтр или пустая строка.
+     * @return скомпилированный фильтр или null, если фильтр пустой.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    private RowPredicate predicate(String filter) throws FilterException {
+        if (filter.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            List<Lexeme> lexemes;
+            try {
+                lexemes = lexAnalyze(filter);
+            } catch (FilterException e) {
+                METRICS.lexerError();
+                throw e;
+            }
+            RowPredicate predicate;
+            try {
+                predicate = compile(lexemes, store, statistics());
+            } catch (FilterException e) {
+                METRICS.compileError();
+                throw e;
+            }
+            Indexes planner = indexes();
+            return planner == null ? predicate : planner.rewrite(predicate);
+        } finally {
+            METRICS.record(Phase.FILTER, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Вспомогательный метод, выбирающий наименьший из диапазона вторичного индекса, множества строк,
+     * вычисленного по битовым индексам, и строк пространственного индекса, если по нему выгоднее искать,
+     * чем обходить поддерево.
+     *
+     * @param node      узел, поддерево которого содержит все слова с префиксом.
+     * @param prefix    префикс в нижнем регистре.
+     * @param predicate скомпилированный фильтр или null.
+     * @return курсор по строкам индекса или null, если индекс не используется или не сужает поиск.
+     */
+    private RangeCursor indexedCursor(N node, String prefix, RowPredicate predicate) {
+        return indexedCursor(node, prefix, predicate, byName());
+    }
+
+    /**
+     * Вспомогательный метод, выбирающий строки индекса, как {@link #indexedCursor(Object, String, RowPredicate)},
+     * и упорядочивающий их в заданном порядке.
+     *
+     * @param node      узел, поддерево которого содержит все слова с префиксом.
+     * @param prefix    префикс в нижнем регистре.
+     * @param predicate скомпилированный фильтр или null.
+     * @param order     порядок строк курсора.
+     * @return курсор по строкам индекса или null, если индекс не используется или не сужает поиск.
+     */
+    private RangeCursor indexedCursor(N node, String prefix, RowPredicate predicate, Comparator<Integer> order) {
+        if (predicate == null) {
+            return null;
+        }
+        Indexes planner = indexes();
+        IndexRange range = planner == null ? null : planner.plan(predicate);
+        BitmapPredicate bitmap = predicate instanceof BitmapPredicate ? (BitmapPredicate) predicate : null;
+        int[] candidates = SpatialIndex.plannable(predicate) ? spatialIndex().plan(predicate) : null;
+        int rangeSize = range == null ? Integer.MAX_VALUE : range.size();
+        int bitmapSize = bitmap == null ? Integer.MAX_VALUE : bitmap.getBitmap().cardinality();
+        int spatialSize = candidates == null ? Integer.MAX_VALUE : candidates.length;
+        int size = Math.min(rangeSize, Math.min(bitmapSize, spatialSize));
+        if (size >= rowCount(node)) {
+            return null;
+        }
+        if (size == bitmapSize) {
+            return new RangeCursor(bitmap.getBitmap().toArray(), prefix, bitmap.getResidual(), order);
+        }
+        if (size == spatialSize) {
+            return new RangeCursor(candidates, prefix, predicate, order);
+        }
+        return new RangeCursor(range, prefix, predicate, order);
+    }
+
+    /**
+     * Вспомогательный метод, выбирающий ближайшие к точке аэропорты среди строк поддерева, названия которых
+     * начинаются с префикса и которые удовлетворяют условию. Если условие позволяет использовать индекс,
+     * ближайшие выбираются из его строк, небольшое поддерево обходится целиком, а в остальных случаях
+     * ближайшие находятся по пространственному индексу с проверкой префикса и условия.
+     *
+     * @param node    узел, поддерево которого содержит все слова с префиксом.
+     * @param prefix  префикс в нижнем регистре.
+     * @param nearest выбор ближайших аэропортов с условием.
+     * @return курсор по строкам в порядке возрастания расстояния.
+     */
+    private RangeCursor nearestCursor(N node, String prefix, NearestPredicate nearest) {
+        RowPredicate condition = nearest.getCondition();
+        Comparator<Integer> order = byDistance(nearest);
+        RangeCursor cursor = indexedCursor(node, prefix, condition, order);
+        if (cursor == null) {
+            int[] rows;
+            if (rowCount(node) <= NEAREST_SCAN_THRESHOLD) {
+                List<Integer> found = new ArrayList<>();
+                new OrderedCursor(node, condition).visit((name, row) -> found.add(row));
+                rows = found.stream().mapToInt(Integer::intValue).toArray();
+            } else {
+                rows = spatialIndex().nearest(nearest.getLatitude(), nearest.getLongitude(), nearest.getCount(), row -> {
+                    N candidate = nodeOf(row);
+                    return candidate != null && originalName(candidate).toLowerCase().startsWith(prefix)
+                            && (condition == null || condition.test(row));
+                });
+            }
+            cursor = new RangeCursor(rows, prefix, null, order);
+        }
+        cursor.truncate(nearest.getCount());
+        return cursor;
+    }
+
+    /**
+     * Вспомогательный метод, создающий курсор по строкам-кандидатам индекса названий или колонки:
+     * в порядке названий или, для функции {@code nearest}, ближайшие из них в порядке расстояния.
+     *
+     * @param candidates строки-кандидаты.
+     * @param predicate  скомпилированный фильтр или null.
+     * @return курсор по строкам.
+     */
+    private RowCursor candidateCursor(int[] candidates, RowPredicate predicate) {
+        if (predicate instanceof NearestPredicate) {
+            NearestPredicate nearest = (NearestPredicate) predicate;
+            RangeCursor cursor = new RangeCursor(candidates, "", nearest.getCondition(), byDistance(nearest));
+            cursor.truncate(nearest.getCount());
+            return cursor;
+        }
+        return new CandidateCursor(candidates, predicate);
+    }
+
+    /**
+     * Вспомогательный метод, возвращающий порядок строк по названиям, а при равных названиях по номерам.
+     */
+    private Comparator<Integer> byName() {
+        return Comparator.comparing((Integer candidate) -> originalName(nodeOf(candidate))).thenComparing(candidate -> candidate);
+    }
+
+    /**
+     * Вспомогательный метод, возвращающий порядок строк по расстоянию до точки функции {@code nearest},
+     * а при равном расстоянии по номерам.
+     */
+    private static Comparator<Integer> byDistance(NearestPredicate nearest) {
+        return Comparator.comparingDouble((Integer candidate) -> nearest.distance(candidate)).thenComparing(candidate -> candidate);
+    }
+
+    /**
+     * Вспомогательный метод, передающий обработчику строки аэропорта, удовлетворяющие фильтру.
+     *
+     * @param airport      аэропорт, хранимый в узле.
+     * @param originalName оригинальное название аэропорта.
+     * @param predicate    скомпилированный фильтр или null.
+     * @param visitor      обработчик найденных строк.
+     * @return false, если обработчик прекратил обход.
+     */
+    protected boolean visitAirport(Airport airport, String originalName, RowPredicate predicate, RowVisitor visitor) {
+        int matched = 0;
+        try {
+            for (int i = 0; i < airport.size(); i++) {
+                int row = airport.getRow(i);
+                if (predicate == null || predicate.test(row)) {
+                    matched++;
+                    if (!visitor.visit(originalName, row)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            METRICS.rows(airport.size(), matched);
+        }
+    }
+
+    /**
+     * Вспомогательный метод для формирования строки вывода информации об аэропорте в требуемом формате.
+     *
+     * @param information массив информации об аэропорте.
+     * @param name        название аэропорта.
+     * @return строка вывода информации об аэропорте.
+     */
+    protected String output(Object[] information, String name) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\"");
+        sb.append(name);
+        sb.append("\"");
+        sb.append(" [");
+        for (int i = 0; i < information.length; i++) {
+            if (information[i] instanceof String && i < information.length - 1) {
+                if (i == 8) {
+                    sb.append(information[i]);
+                    sb.append(", ");
+                    continue;
+                }
+                sb.append("\"");
+                sb.append(information[i]);
+                sb.append("\"");
+                sb.append(", ");
+            } else if (i == information.length - 1) {
+                sb.append("\"");
+                sb.append(information[i]);
+                sb.append("\"");
+            } else {
+                sb.append(information[i]);
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Вспомогательный метод для слияния отсортированных по названиям частичных результатов.
+     * Одно название встречается только в одном частичном результате, поэтому порядок строк
+     * с равными названиями сохраняется.
+     *
+     * @param parts частичные результаты.
+     * @return общий результат в порядке названий.
+     */
+    private static List<Match> merge(List<List<Match>> parts) {
+        long start = System.nanoTime();
+        PriorityQueue<Cursor> queue = new PriorityQueue<>();
+        int size = 0;
+        for (List<Match> part : parts) {
+            size += part.size();
+            if (!part.isEmpty()) {
+                queue.add(new Cursor(part));
+            }
+        }
+        List<Match> result = new ArrayList<>(size);
+        while (!queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            result.add(cursor.current());
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        METRICS.record(Phase.SORT, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Задача параллельного поиска по поддереву. Поддерево, в котором строк больше порога,
+     * разбивается на задачи по дочерним узлам, меньшие поддеревья обходятся последовательно.
+     * Каждая задача возвращает строки вывода, отсортированные по названиям.
+     */
+    @SuppressWarnings("serial")
+    private class SearchTask extends RecursiveTask<List<Match>> {
+        private final N node;
+        private final RowPredicate predicate;
+
+        SearchTask(N node, RowPredicate predicate) {
+            this.node = node;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected List<Match> compute() {
+            if (rowCount(node) <= PARALLEL_THRESHOLD) {
+                List<Match> matches = new ArrayList<>();
+                new OrderedCursor(node, predicate).visit(collector(matches));
+                return matches;
+            }
+            List<SearchTask> tasks = new ArrayList<>();
+            forEachChild(node, child -> tasks.add(new SearchTask(child, predicate)));
+            invokeAll(tasks);
+            List<List<Match>> parts = new ArrayList<>();
+            if (airport(node) != null) {
+                List<Match> matches = new ArrayList<>();
+                visitAirport(airport(node), originalName(node), predicate, collector(matches));
+                parts.add(matches);
+            }
+            for (SearchTask task : tasks) {
+                parts.add(task.join());
+            }
+            return merge(parts);
+        }
+
+        private RowVisitor collector(List<Match> matches) {
+            return (name, row) -> matches.add(new Match(name, output(store.get(row), name)));
+        }
+    }
+
+    /**
+     * Найденная строка: название аэропорта и строка вывода.
+     */
+    private static class Match {
+        private final String name;
+        private final String line;
+
+        Match(String name, String line) {
+            this.name = name;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Позиция в частичном результате при слиянии.
+     */
+    private static class Cursor implements Comparable<Cursor> {
+        private final List<Match> matches;
+        private int position;
+
+        Cursor(List<Match> matches) {
+            this.matches = matches;
+        }
+
+        Match current() {
+            return matches.get(position);
+        }
+
+        boolean advance() {
+            return ++position < matches.size();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return current().name.compareTo(other.current().name);
+        }
+    }
+
+    /**
+     * Элемент очереди упорядоченного обхода: узел, поддерево которого еще не раскрыто,
+     * или слово, заканчивающееся в узле.
+     *
+     * @param <N> тип узла дерева.
+     */
+    private static class OrderedEntry<N> implements Comparable<OrderedEntry<N>> {
+        private final String name;
+        private final N node;
+        private final boolean word;
+
+        OrderedEntry(String name, N node, boolean word) {
+            this.name = name;
+            this.node = node;
+            this.word = word;
+        }
+
+        @Override
+        public int compareTo(OrderedEntry<N> other) {
+            return name.compareTo(other.name);
+        }
+    }
+
+    /**
+     * Курсор по найденным строкам, который находит следующую строку только при запросе.
+     * Служит итератором для {@link #iterator(String, String)} и источником строк для обработчиков поиска.
+     */
+    private abstract class RowCursor implements Iterator<AirportRow> {
+        protected String name;
+        protected int row;
+        /**
+         * Количество строк, проверенных с момента последнего учета в метриках.
+         */
+        protected int visited;
+        /**
+         * Признак учета проверенных и найденных строк в метриках.
+         */
+        boolean counted = true;
+        private boolean ready;
+        private boolean finished;
+
+        /**
+         * Переходит к следующей найденной строке, записывая ее название и номер в поля курсора.
+         *
+         * @return false, если строк больше нет.
+         */
+        protected abstract boolean advance();
+
+        @Override
+        public boolean hasNext() {
+            if (!ready && !finished) {
+                ready = advance();
+                finished = !ready;
+                if (counted) {
+                    METRICS.rows(visited, ready ? 1 : 0);
+                }
+                visited = 0;
+            }
+            return ready;
+        }
+
+        @Override
+        public AirportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            return new AirportRow(AbstractTrie.this, name, row);
+        }
+
+        /**
+         * Передает оставшиеся строки обработчику без создания объектов строк.
+         *
+         * @param visitor обработчик найденных строк.
+         */
+        void visit(RowVisitor visitor) {
+            while (hasNext()) {
+                ready = false;
+                if (!visitor.visit(name, row)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Курсор обхода поддерева в порядке названий аэропортов. Узлы и слова извлекаются из очереди
+     * с приоритетом по наименьшему названию, поэтому строки выдаются уже отсортированными,
+     * а при равных названиях в порядке номеров. Поддерево раскрывается только по мере продвижения курсора.
+     */
+    private class OrderedCursor extends RowCursor {
+        private final PriorityQueue<OrderedEntry<N>> queue = new PriorityQueue<>();
+        private final RowPredicate predicate;
+        private Airport airport;
+        private String airportName;
+        private int position;
+
+        OrderedCursor(N node, RowPredicate predicate) {
+            this.predicate = predicate;
+            queue.add(new OrderedEntry<>(minName(node), node, false));
+        }
+
+        @Override
+        protected boolean advance() {
+            while (true) {
+                while (airport != null && position < airport.size()) {
+                    int candidate = airport.getRow(position++);
+                    visited++;
+                    if (predicate == null || predicate.test(candidate)) {
+                        name = airportName;
+                        row = candidate;
+                        return true;
+                    }
+                }
+                airport = null;
+                OrderedEntry<N> entry = queue.poll();
+                if (entry == null) {
+                    return false;
+                }
+                if (entry.word) {
+                    airport = airport(entry.node);
+                    airportName = entry.name;
+                    position = 0;
+                    continue;
+                }
+                if (airport(entry.node) != null) {
+                    queue.add(new OrderedEntry<>(originalName(entry.node), entry.node, true));
+                }
+                forEachChild(entry.node, child -> queue.add(new OrderedEntry<>(minName(child), child, false)));
+            }
+        }
+    }
+
+    /**
+     * Курсор по строкам диапазона вторичного индекса или строкам-кандидатам битовых и пространственного индексов,
+     * названия которых начинаются с префикса и которые удовлетворяют фильтру. Строки, удаленные из дерева, пропускаются. Строки отбираются
+     * и сортируются при создании курсора: по названиям, а при равных названиях по номерам, как при обходе дерева,
+     * или по расстоянию для функции {@code nearest}.
+     */
+    private class RangeCursor extends RowCursor {
+        private final List<Integer> rows = new ArrayList<>();
+        private int position;
+
+        RangeCursor(IndexRange range, String prefix, RowPredicate predicate, Comparator<Integer> order) {
+            visited = range.size();
+            for (int i = 0; i < range.size(); i++) {
+                add(range.rowAt(i), prefix, predicate);
+            }
+            sort(order);
+        }
+
+        RangeCursor(int[] candidates, String prefix, RowPredicate predicate, Comparator<Integer> order) {
+            visited = candidates.length;
+            for (int candidate : candidates) {
+                add(candidate, prefix, predicate);
+            }
+            sort(order);
+        }
+
+        /**
+         * Оставляет только первые строки курсора.
+         *
+         * @param count наибольшее количество строк.
+         */
+        void truncate(int count) {
+            if (rows.size() > count) {
+                rows.subList(count, rows.size()).clear();
+            }
+        }
+
+        private void add(int candidate, String prefix, RowPredicate predicate) {
+            N node = nodeOf(candidate);
+            if (node != null && originalName(node).toLowerCase().startsWith(prefix) && (predicate == null || predicate.test(candidate))) {
+                rows.add(candidate);
+            }
+        }
+
+        private void sort(Comparator<Integer> order) {
+            long start = System.nanoTime();
+            rows.sort(order);
+            METRICS.record(Phase.SORT, System.nanoTime() - start);
+        }
+
+        @Override
+        protected boolean advance() {
+            if (position == rows.size()) {
+                return false;
+            }
+            row = rows.get(position++);
+            name = originalName(nodeOf(row));
+            return true;
+        }
+    }
+
+    /**
+     * Курсор по строкам-кандидатам, найденным по индексу названий или колонки. Строки сортируются по названиям,
+     * а при равных названиях по номерам, при создании курсора, а фильтр проверяется по мере продвижения.
+     */
+    private class CandidateCursor extends RowCursor {
+        private final Integer[] rows;
+        private final RowPredicate predicate;
+        private int position;
+
+        CandidateCursor(int[] candidates, RowPredicate predicate) {
+            this.predicate = predicate;
+            this.rows = new Integer[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                rows[i] = candidates[i];
+            }
+            long start = System.nanoTime();
+            Arrays.sort(rows, Comparator.comparing((Integer candidate) -> originalName(nodeOf(candidate))).thenComparing(candidate -> candidate));
+            METRICS.record(Phase.SORT, System.nanoTime() - start);
+        }
+
+        @Override
+        protected boolean advance() {
+            while (position < rows.length) {
+                int candidate = rows[position++];
+                visited++;
+                if (predicate == null || predicate.test(candidate)) {
+                    row = candidate;
+                    name = originalName(nodeOf(candidate));
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Обработчик общего обхода группы запросов: передает строку страницам тех запросов,
+     * префиксу и фильтру которых она удовлетворяет, и прекращает обход после заполнения всех страниц.
+     */
+    private static class SharedScan implements RowVisitor {
+        private final List<String> prefixes = new ArrayList<>();
+        private final List<RowPredicate> predicates = new ArrayList<>();
+        private final List<RowVisitor> pages = new ArrayList<>();
+        private int open;
+        private long visited;
+        private long matched;
+        private String name;
+        private String nameLowerCase;
+
+        void add(String prefix, RowPredicate predicate, RowVisitor page) {
+            prefixes.add(prefix);
+            predicates.add(predicate);
+            pages.add(page);
+            open++;
+        }
+
+        @Override
+        public boolean visit(String name, int row) {
+            if (!name.equals(this.name)) {
+                this.name = name;
+                this.nameLowerCase = name.toLowerCase();
+            }
+            for (int i = 0; i < pages.size(); i++) {
+                RowVisitor page = pages.get(i);
+                if (page == null || !nameLowerCase.startsWith(prefixes.get(i))) {
+                    continue;
+                }
+                visited++;
+                RowPredicate predicate = predicates.get(i);
+                if (predicate == null || predicate.test(row)) {
+                    matched++;
+                    if (!page.visit(name, row)) {
+                        pages.set(i, null);
+                        open--;
+                    }
+                }
+            }
+            return open > 0;
+        }
+    }
+
+    /**
+     * Названия с одним первым символом, добавляемые {@link #insertAll(List, int)}, и построенное по ним поддерево.
+     */
+    private class Branch {
+        private final List<String> words = new ArrayList<>();
+        private final List<Integer> rows = new ArrayList<>();
+        private N node;
+    }
+
+    /**
+     * Строка, найденная поиском с опечатками: название аэропорта, номер строки и расстояние
+     * от префикса до ближайшего начала названия.
+     */
+    private static class FuzzyMatch {
+        private final String name;
+        private final int row;
+        private final int distance;
+
+        FuzzyMatch(String name, int row, int distance) {
+            this.name = name;
+            this.row = row;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Обход дерева для поиска с опечатками. Для пути от корня хранится последняя строка таблицы
+     * расстояний Левенштейна: значение j - расстояние между путем и первыми j символами префикса.
+     * Последнее значение строки - расстояние между путем и всем префиксом, а наименьшее из последних
+     * значений по всем началам пути - расстояние слова от префикса.
+     */
+    private class FuzzyScan {
+        private final char[] query;
+        private final int maxDistance;
+        private final RowPredicate predicate;
+        private final List<FuzzyMatch> matches = new ArrayList<>();
+        /**
+         * Признак того, что найдено хотя бы одно слово в пределах расстояния, независимо от фильтра.
+         */
+        private boolean found;
+
+        FuzzyScan(char[] query, int maxDistance, RowPredicate predicate) {
+            this.query = query;
+            this.maxDistance = maxDistance;
+            this.predicate = predicate;
+        }
+
+        /**
+         * Обходит поддерево узла.
+         *
+         * @param node узел дерева.
+         * @param row  строка таблицы расстояний для пути к узлу.
+         * @param best наименьшее расстояние от префикса до начал пути к узлу.
+         */
+        void walk(N node, int[] row, int best) {
+            Airport airport = airport(node);
+            if (airport != null && best <= maxDistance) {
+                found = true;
+                visitAirport(airport, originalName(node), predicate, (name, candidate) -> matches.add(new FuzzyMatch(name, candidate, best)));
+            }
+            forEachEdge(node, (label, child) -> {
+                int[] current = row;
+                int distance = best;
+                for (int i = 0; i < label.length(); i++) {
+                    current = step(current, label.charAt(i));
+                    distance = Math.min(distance, current[query.length]);
+                    int min = min(current);
+                    if (min > maxDistance || min >= distance) {
+                        if (distance <= maxDistance) {
+                            collect(child, distance);
+                        }
+                        return;
+                    }
+                }
+                walk(child, current, distance);
+            });
+        }
+
+        /**
+         * Добавляет все строки поддерева, удовлетворяющие фильтру, с одним расстоянием: продолжение пути
+         * не может уменьшить расстояние, если ни одно значение строки таблицы не меньше его.
+         */
+        private void collect(N node, int distance) {
+            found = true;
+            new OrderedCursor(node, predicate).visit((name, candidate) -> matches.add(new FuzzyMatch(name, candidate, distance)));
+        }
+
+        /**
+         * Вычисляет строку таблицы расстояний для пути, продолженного символом.
+         */
+        private int[] step(int[] row, char c) {
+            int[] next = new int[row.length];
+            next[0] = row[0] + 1;
+            for (int j = 1; j < row.length; j++) {
+                int substitution = row[j - 1] + (query[j - 1] == c ? 0 : 1);
+                next[j] = Math.min(substitution, Math.min(row[j], next[j - 1]) + 1);
+            }
+            return next;
+        }
+
+        private int min(int[] row) {
+            int min = row[0];
+            for (int value : row) {
+                min = Math.min(min, value);
+            }
+            return min;
+        }
+    }
+
+    /**
+     * Обработчик, формирующий страницу результатов: пропускает первые строки
+     * и прекращает обход после заполнения страницы.
+     */
+    private class Page implements RowVisitor {
+        private final int offset;
+        private final int limit;
+        private final List<String> result;
+        private int skipped;
+
+        Page(int offset, int limit, List<String> result) {
+            this.offset = offset;
+            this.limit = limit;
+            this.result = result;
+        }
+
+        @Override
+        public boolean visit(String name, int row) {
+            if (result.size() >= limit) {
+                return false;
+            }
+            if (skipped < offset) {
+                skipped++;
+                return true;
+            }
+            result.add(output(store.get(row), name));
+            return result.size() < limit;
+        }
+    }
+}
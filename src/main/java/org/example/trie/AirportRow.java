@@ -0,0 +1,90 @@
+package org.example.trie;
+
+/**
+ * Найденная строка: название аэропорта и номер строки в хранилище дерева.
+ * Информация об аэропорте читается из хранилища, а строка вывода формируется только по запросу,
+ * поэтому потребитель, которому нужны лишь номера строк или отдельные значения, не платит за форматирование.
+ */
+public class AirportRow {
+    /**
+     * Дерево, в котором найдена строка.
+     */
+    private final AbstractTrie<?> trie;
+    /**
+     * Оригинальное название аэропорта.
+     */
+    private final String name;
+    /**
+     * Номер строки в хранилище строк.
+     */
+    private final int row;
+    /**
+     * Информация об аэропорте, прочитанная при создании строки, или null, если она читается из хранилища по запросу.
+     */
+    private final Object[] information;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param trie дерево, в котором найдена строка.
+     * @param name оригинальное название аэропорта.
+     * @param row  номер строки в хранилище строк.
+     */
+    AirportRow(AbstractTrie<?> trie, String name, int row) {
+        this(trie, name, row, null);
+    }
+
+    private AirportRow(AbstractTrie<?> trie, String name, int row, Object[] information) {
+        this.trie = trie;
+        this.name = name;
+        this.row = row;
+        this.information = information;
+    }
+
+    /**
+     * Создает копию строки с информацией об аэропорте, прочитанной из хранилища сейчас. Копия не зависит
+     * от последующих изменений хранилища, поэтому ее можно использовать после снятия блокировки чтения.
+     *
+     * @return строка с прочитанной информацией.
+     */
+    AirportRow detach() {
+        return information != null ? this : new AirportRow(trie, name, row, trie.store.get(row));
+    }
+
+    /**
+     * Получает оригинальное название аэропорта.
+     *
+     * @return название аэропорта.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Получает номер строки в хранилище строк.
+     *
+     * @return номер строки.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Получает информацию об аэропорте из хранилища строк или прочитанную ранее информацию отсоединенной строки.
+     *
+     * @return значения колонок строки.
+     */
+    public Object[] getInformation() {
+        return information != null ? information : trie.store.get(row);
+    }
+
+    /**
+     * Формирует строку вывода в том же формате, что и {@link Trie#find(String, String)}.
+     *
+     * @return строка вывода.
+     */
+    @Override
+    public String toString() {
+        return trie.output(getInformation(), name);
+    }
+}
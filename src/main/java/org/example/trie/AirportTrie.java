@@ -1,15 +1,11 @@
 package org.example.trie;
 
-import org.example.exception.FilterException;
-import org.example.service.Filter;
 import org.example.entity.Airport;
+import org.example.store.RowStore;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
-
-import static org.example.service.Filter.Lexeme.lexAnalyze;
-import static org.example.service.Filter.expr;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Класс AirportTrieNode представляет узел для префиксного дерева (Trie) для хранения аэропортов и их названий.
@@ -31,6 +27,14 @@ class AirportTrieNode {
      * Признак того, является ли данное слово (название аэропорта) полным словом в Trie.
      */
     private boolean isWord;
+    /**
+     * Количество строк с информацией об аэропортах в поддереве данного узла.
+     */
+    private int rowCount;
+    /**
+     * Наименьшее оригинальное название аэропорта в поддереве данного узла.
+     */
+    private String minName;
 
     /**
      * Конструктор класса AirportTrieNode.
@@ -70,6 +74,69 @@ class AirportTrieNode {
         return isWord;
     }
 
+    /**
+     * Метод, возвращающий количество строк в поддереве данного узла.
+     *
+     * @return Количество строк в поддереве.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Метод, увеличивающий количество строк в поддереве данного узла на единицу.
+     */
+    public void incrementRowCount() {
+        rowCount++;
+    }
+
+    /**
+     * Метод, увеличивающий количество строк в поддереве данного узла на заданное число.
+     *
+     * @param count Количество добавленных строк.
+     */
+    public void addRowCount(int count) {
+        rowCount += count;
+    }
+
+    /**
+     * Метод, уменьшающий количество строк в поддереве данного узла на единицу.
+     */
+    public void decrementRowCount() {
+        rowCount--;
+    }
+
+    /**
+     * Метод, возвращающий наименьшее оригинальное название аэропорта в поддереве данного узла.
+     *
+     * @return Наименьшее название в порядке {@link String#compareTo(String)}.
+     */
+    public String getMinName() {
+        return minName;
+    }
+
+    /**
+     * Метод, учитывающий название аэропорта при вычислении наименьшего названия в поддереве.
+     *
+     * @param name Оригинальное название аэропорта из поддерева.
+     */
+    public void updateMinName(String name) {
+        if (minName == null || name.compareTo(minName) < 0) {
+            minName = name;
+        }
+    }
+
+    /**
+     * Метод, заново вычисляющий наименьшее название по слову узла и дочерним узлам.
+     * Используется после удаления слова из поддерева.
+     */
+    public void recomputeMinName() {
+        minName = isWord ? originalName.values().iterator().next() : null;
+        for (AirportTrieNode child : children.values()) {
+            updateMinName(child.getMinName());
+        }
+    }
+
     /**
      * Метод, возвращающий оригинальное название аэропорта и название в нижнем регистре.
      *
@@ -107,19 +174,31 @@ class AirportTrieNode {
     public void setAirport(Airport airport) {
         this.airport = airport;
     }
+
+    /**
+     * Метод, удаляющий из узла слово вместе с аэропортом.
+     */
+    public void clearWord() {
+        this.airport = null;
+        this.originalName = null;
+        this.isWord = false;
+    }
 }
 
 /**
  * Этот класс представляет собой реализацию префиксного дерева для поиска информации о аэропортах.
  * Реализация основана на использовании класса TrieNode.
  */
-public class AirportTrie implements Trie {
+public class AirportTrie extends AbstractTrie<AirportTrieNode> {
     private final AirportTrieNode root;
 
     /**
      * Конструктор класса, создающий новый объект префиксного дерева.
+     *
+     * @param store хранилище строк, на которые ссылаются узлы дерева.
      */
-    public AirportTrie() {
+    public AirportTrie(RowStore store) {
+        super(store);
         this.root = new AirportTrieNode();
     }
 
@@ -127,12 +206,25 @@ public class AirportTrie implements Trie {
      * Метод для добавления нового слова в префиксное дерево.
      *
      * @param word слово, которое нужно добавить в дерево.
-     * @param info массив информации об аэропорте.
+     * @param row  номер строки с информацией об аэропорте в хранилище строк.
      */
     @Override
-    public void insert(String word, Object[] info) {
-        AirportTrieNode current = root;
+    public void insert(String word, int row) {
+        link(row, insert(root, word, row));
+    }
+
+    /**
+     * Вспомогательный метод, добавляющий слово в поддерево заданного узла.
+     *
+     * @param top  узел, от которого добавляется слово.
+     * @param word слово, которое нужно добавить в поддерево.
+     * @param row  номер строки с информацией об аэропорте в хранилище строк.
+     * @return узел, в котором заканчивается слово.
+     */
+    private static AirportTrieNode insert(AirportTrieNode top, String word, int row) {
+        AirportTrieNode current = top;
         String pureWord = word.toLowerCase();
+        current.incrementRowCount();
         for (char c : pureWord.toCharArray()) {
             AirportTrieNode childNode = current.getChildren().get(c);
             if (childNode == null) {
@@ -140,121 +232,127 @@ public class AirportTrie implements Trie {
                 current.getChildren().put(c, childNode);
             }
             current = childNode;
+            current.incrementRowCount();
         }
         if (current.getAirport() == null) {
             current.setAirport(new Airport());
             current.setWord(true);
             current.setOriginalName(pureWord, word);
+            updateMinName(top, pureWord, word);
         }
-        current.getAirport().addInformation(info);
+        current.getAirport().addRow(row);
+        return current;
     }
 
     /**
-     * Метод для поиска всех слов в дереве, начинающихся с заданного префикса и удовлетворяющих заданному фильтру.
+     * Вспомогательный метод, учитывающий новое название на всем пути от заданного узла до узла слова.
      *
-     * @param prefix префикс, с которого начинаются слова, которые нужно найти.
-     * @param filter фильтр, который нужно применить к результатам поиска.
-     * @throws FilterException если фильтр содержит неверное выражение.
+     * @param top      узел, от которого добавлялось слово.
+     * @param pureWord название в нижнем регистре.
+     * @param word     оригинальное название.
      */
-    @Override
-    public void find(String prefix, String filter) throws FilterException {
-        Instant start = Instant.now();
-        AirportTrieNode current = root;
-        String prefixLowerCase = prefix.toLowerCase();
-        for (char c : prefixLowerCase.toCharArray()) {
-            AirportTrieNode node = current.getChildren().get(c);
-            if (node == null) {
-                System.out.println("По префиксу '" + prefix + "' нет строк");
-                return;
-            }
-            current = node;
-        }
-        List<String> airports = new ArrayList<>();
-        StringBuilder sb = new StringBuilder(prefixLowerCase);
-        List<Filter.Lexeme> lexemes = null;
-        if (!filter.isEmpty()) {
-            lexemes = lexAnalyze(filter);
-        }
-        getAllAirports(current, sb, airports, lexemes);
-        Instant stop = Instant.now();
-        airports.sort((o1, o2) -> {
-            String[] a1 = o1.split("\"");
-            String[] a2 = o2.split("\"");
-            return a1[1].compareTo(a2[1]);
-        });
-        for (String airport : airports) {
-            System.out.println(airport);
+    private static void updateMinName(AirportTrieNode top, String pureWord, String word) {
+        AirportTrieNode current = top;
+        current.updateMinName(word);
+        for (char c : pureWord.toCharArray()) {
+            current = current.getChildren().get(c);
+            current.updateMinName(word);
         }
-        System.out.println("Количество найденных строк: " + airports.size());
-        System.out.println("Время, затраченное на поиск: " + Duration.between(start, stop).toMillis() + " мс");
     }
 
     /**
-     * Вспомогательный метод для рекурсивного поиска всех слов, начинающихся с заданного префикса, в дереве.
+     * Метод для удаления строки из префиксного дерева. Узлы, в поддереве которых не осталось строк,
+     * удаляются, а наименьшие названия на пути к слову вычисляются заново.
      *
-     * @param node    узел, с которого начинается поиск.
-     * @param sb      StringBuilder, который используется для формирования слова в процессе поиска.
-     * @param result  список строк, в которые добавляются найденные слова.
-     * @param lexemes список лексем, которые нужно применить к найденным словам.
-     * @throws FilterException если фильтр содержит неверное выражение.
+     * @param word слово, с которым связана строка.
+     * @param row  номер строки с информацией об аэропорте в хранилище строк.
      */
-    public void getAllAirports(AirportTrieNode node, StringBuilder sb, List<String> result, List<Filter.Lexeme> lexemes) throws FilterException {
-        if (node.isWord()) {
-            for (Object[] information : node.getAirport().getInformation()) {
-                String originalName;
-                if (lexemes == null) {
-                    originalName = node.getOriginalName().get(sb.toString());
-                    result.add(output(information, originalName));
-                } else {
-                    Filter.LexemeBuffer buffer = new Filter.LexemeBuffer(lexemes, information);
-                    if (Boolean.TRUE.equals(expr(buffer))) {
-                        originalName = node.getOriginalName().get(sb.toString());
-                        result.add(output(information, originalName));
-                    }
-                }
+    @Override
+    public void remove(String word, int row) {
+        String pureWord = word.toLowerCase();
+        AirportTrieNode[] path = new AirportTrieNode[pureWord.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < pureWord.length(); i++) {
+            path[i + 1] = path[i].getChildren().get(pureWord.charAt(i));
+            if (path[i + 1] == null) {
+                return;
             }
         }
-        for (Map.Entry<Character, AirportTrieNode> entry : node.getChildren().entrySet()) {
-            sb.append(entry.getKey());
-            getAllAirports(entry.getValue(), sb, result, lexemes);
-            sb.deleteCharAt(sb.length() - 1);
+        AirportTrieNode node = path[pureWord.length()];
+        if (node.getAirport() == null || !node.getAirport().removeRow(row)) {
+            return;
+        }
+        unlink(row);
+        boolean wordRemoved = node.getAirport().size() == 0;
+        if (wordRemoved) {
+            node.clearWord();
+        }
+        for (int i = pureWord.length(); i >= 0; i--) {
+            path[i].decrementRowCount();
+            if (i > 0 && path[i].getRowCount() == 0) {
+                path[i - 1].getChildren().remove(pureWord.charAt(i - 1));
+            } else if (wordRemoved) {
+                path[i].recomputeMinName();
+            }
         }
     }
 
-    /**
-     * Вспомогательный метод для формирования строки вывода информации об аэропорте в требуемом формате.
-     *
-     * @param information массив информации об аэропорте.
-     * @param name        название аэропорта.
-     * @return строка вывода информации об аэропорте.
-     */
-    private String output(Object[] information, String name) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("\"");
-        sb.append(name);
-        sb.append("\"");
-        sb.append(" [");
-        for (int i = 0; i < information.length; i++) {
-            if (information[i] instanceof String && i < information.length - 1) {
-                if (i == 8) {
-                    sb.append(information[i]);
-                    sb.append(", ");
-                    continue;
-                }
-                sb.append("\"");
-                sb.append(information[i]);
-                sb.append("\"");
-                sb.append(", ");
-            } else if (i == information.length - 1) {
-                sb.append("\"");
-                sb.append(information[i]);
-                sb.append("\"");
-            } else {
-                sb.append(information[i]);
-                sb.append(", ");
+    @Override
+    protected AirportTrieNode branch(List<String> words, List<Integer> rows) {
+        AirportTrieNode top = new AirportTrieNode();
+        for (int i = 0; i < words.size(); i++) {
+            insert(top, words.get(i), rows.get(i));
+        }
+        return top.getChildren().values().iterator().next();
+    }
+
+    @Override
+    protected void graft(char first, AirportTrieNode node) {
+        root.getChildren().put(first, node);
+        root.addRowCount(node.getRowCount());
+        root.updateMinName(node.getMinName());
+    }
+
+    @Override
+    protected AirportTrieNode descend(String prefix) {
+        AirportTrieNode current = root;
+        for (char c : prefix.toCharArray()) {
+            AirportTrieNode node = current.getChildren().get(c);
+            if (node == null) {
+                return null;
             }
+            current = node;
         }
-        sb.append("]");
-        return sb.toString();
+        return current;
+    }
+
+    @Override
+    protected int rowCount(AirportTrieNode node) {
+        return node.getRowCount();
+    }
+
+    @Override
+    protected String originalName(AirportTrieNode node) {
+        return node.getOriginalName().values().iterator().next();
+    }
+
+    @Override
+    protected String minName(AirportTrieNode node) {
+        return node.getMinName();
+    }
+
+    @Override
+    protected Airport airport(AirportTrieNode node) {
+        return node.getAirport();
+    }
+
+    @Override
+    protected void forEachChild(AirportTrieNode node, Consumer<AirportTrieNode> action) {
+        node.getChildren().values().forEach(action);
+    }
+
+    @Override
+    protected void forEachEdge(AirportTrieNode node, BiConsumer<CharSequence, AirportTrieNode> action) {
+        node.getChildren().forEach((c, child) -> action.accept(String.valueOf(c), child));
     }
 }
@@ -0,0 +1,194 @@
+package org.example.trie;
+
+import org.example.cache.QueryCache;
+import org.example.entity.Query;
+import org.example.exception.FilterException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.example.service.Filter.Lexeme.lexAnalyze;
+import static org.example.service.Filter.normalize;
+
+/**
+ * Дерево, кэширующее результаты поиска другого дерева. Ключ кэша составляется из префикса
+ * в нижнем регистре, канонического вида фильтра и границ страницы, поэтому запросы,
+ * отличающиеся только регистром префикса или записью фильтра, используют одну запись.
+ * Любое изменение данных через {@link #insert(String, int)}, {@link #insertAll(List, int)}, {@link #remove(String, int)}
+ * или {@link #update(Runnable)} очищает кэш.
+ */
+public class CachingTrie implements Trie {
+    /**
+     * Дерево, результаты которого кэшируются.
+     */
+    private final Trie trie;
+    /**
+     * Кэш результатов поиска.
+     */
+    private final QueryCache cache;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param trie  дерево, результаты которого кэшируются.
+     * @param cache кэш результатов поиска.
+     */
+    public CachingTrie(Trie trie, QueryCache cache) {
+        this.trie = trie;
+        this.cache = cache;
+    }
+
+    @Override
+    public void insert(String word, int row) {
+        trie.insert(word, row);
+        cache.invalidate();
+    }
+
+    @Override
+    public void insertAll(List<String> words, int firstRow) {
+        trie.insertAll(words, firstRow);
+        cache.invalidate();
+    }
+
+    @Override
+    public void remove(String word, int row) {
+        trie.remove(word, row);
+        cache.invalidate();
+    }
+
+    @Override
+    public void update(Runnable action) {
+        trie.update(action);
+        cache.invalidate();
+    }
+
+    @Override
+    public List<String> search(String prefix, String filter, int offset, int limit) throws FilterException {
+        String key;
+        try {
+            key = key(prefix, filter, offset, limit);
+        } catch (FilterException e) {
+            return trie.search(prefix, filter, offset, limit);
+        }
+        List<String> airports = cache.get(key);
+        if (airports != null) {
+            return airports;
+        }
+        long generation = cache.getGeneration();
+        airports = trie.search(prefix, filter, offset, limit);
+        return airports == null ? null : cache.put(key, airports, generation);
+    }
+
+    /**
+     * Передает поиск с опечатками дереву без кэширования: результат состоит из ссылок на строки,
+     * а не из строк вывода, которые хранит кэш.
+     *
+     * @param prefix      префикс для поиска слов.
+     * @param filter      фильтр для фильтрации результатов.
+     * @param maxDistance допустимое расстояние Левенштейна.
+     * @param offset      количество пропускаемых строк.
+     * @param limit       максимальное количество строк или {@link #NO_LIMIT}.
+     * @return найденные строки или null, если слов в пределах расстояния нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public List<AirportRow> searchFuzzy(String prefix, String filter, int maxDistance, int offset, int limit) throws FilterException {
+        return trie.searchFuzzy(prefix, filter, maxDistance, offset, limit);
+    }
+
+    /**
+     * Передает ленивый поиск дереву без кэширования: строки итератора не формируются заранее,
+     * поэтому сохранять в кэше нечего.
+     *
+     * @param prefix префикс для поиска слов.
+     * @param filter фильтр для фильтрации результатов.
+     * @return итератор найденных строк или null, если слов с таким префиксом нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public Iterator<AirportRow> iterator(String prefix, String filter) throws FilterException {
+        return trie.iterator(prefix, filter);
+    }
+
+    @Override
+    public Iterator<AirportRow> iteratorContaining(String substring, String filter) throws FilterException {
+        return trie.iteratorContaining(substring, filter);
+    }
+
+    @Override
+    public Iterator<AirportRow> iteratorByColumn(int column, String prefix, String filter) throws FilterException {
+        return trie.iteratorByColumn(column, prefix, filter);
+    }
+
+    /**
+     * Отвечает на запросы, результаты которых есть в кэше, из кэша, а остальные запросы
+     * передает дереву одним вызовом {@link Trie#searchAll(List)}.
+     *
+     * @param queries запросы.
+     * @return результаты запросов в том же порядке.
+     * @throws FilterException если фильтр одного из запросов содержит неверное выражение.
+     */
+    @Override
+    public List<List<String>> searchAll(List<Query> queries) throws FilterException {
+        List<List<String>> results = new ArrayList<>(queries.size());
+        List<Query> misses = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        List<String> missKeys = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            Query query = queries.get(i);
+            String key = key(query.getPrefix(), query.getFilter(), query.getOffset(), query.getLimit());
+            List<String> airports = cache.get(key);
+            results.add(airports);
+            if (airports == null) {
+                misses.add(query);
+                missIndexes.add(i);
+                missKeys.add(key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return results;
+        }
+        long generation = cache.getGeneration();
+        List<List<String>> found = trie.searchAll(misses);
+        for (int i = 0; i < misses.size(); i++) {
+            List<String> airports = found.get(i);
+            results.set(missIndexes.get(i), airports == null ? null : cache.put(missKeys.get(i), airports, generation));
+        }
+        return results;
+    }
+
+    @Override
+    public void createIndexes() {
+        trie.createIndexes();
+    }
+
+    @Override
+    public void setParallel(boolean parallel) {
+        trie.setParallel(parallel);
+    }
+
+    /**
+     * Получает кэш результатов поиска.
+     *
+     * @return кэш результатов поиска.
+     */
+    public QueryCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Составляет ключ кэша для запроса.
+     *
+     * @param prefix префикс для поиска слов.
+     * @param filter фильтр для фильтрации результатов.
+     * @param offset количество пропускаемых строк.
+     * @param limit  максимальное количество строк.
+     * @return ключ кэша.
+     * @throws FilterException если фильтр не удается разобрать на лексемы.
+     */
+    private static String key(String prefix, String filter, int offset, int limit) throws FilterException {
+        String normalizedFilter = filter.isEmpty() ? "" : "?" + normalize(lexAnalyze(filter));
+        return prefix.toLowerCase() + '\n' + normalizedFilter + '\n' + offset + '\n' + limit;
+    }
+}
@@ -0,0 +1,280 @@
+package org.example.trie;
+
+import org.example.entity.Query;
+import org.example.exception.FilterException;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Дерево, разрешающее изменять данные другого дерева во время поиска из других потоков.
+ * Поиски выполняются параллельно друг с другом под блокировкой чтения, а изменения данных
+ * выполняются под блокировкой записи.
+ */
+public class LockingTrie implements Trie {
+    /**
+     * Дерево, доступ к которому защищается блокировкой.
+     */
+    private final Trie trie;
+    /**
+     * Количество строк, которые итератор берет из дерева под блокировкой при первом обращении.
+     * Каждая следующая порция вдвое больше предыдущей, но не больше {@link #MAX_BATCH}.
+     */
+    private static final int FIRST_BATCH = 16;
+    /**
+     * Наибольшее количество строк, которые итератор берет из дерева за одну блокировку.
+     */
+    private static final int MAX_BATCH = 1024;
+    /**
+     * Блокировка чтения и записи.
+     */
+    private final ReadWriteLock lock;
+    /**
+     * Счетчик изменений данных. Изменяется под блокировкой записи и читается под блокировкой чтения.
+     */
+    private long version;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param trie дерево, доступ к которому защищается блокировкой.
+     */
+    public LockingTrie(Trie trie) {
+        this.trie = trie;
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    @Override
+    public void insert(String word, int row) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            trie.insert(word, row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void insertAll(List<String> words, int firstRow) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            trie.insertAll(words, firstRow);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String word, int row) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            trie.remove(word, row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Выполняет изменение данных целиком под блокировкой записи, поэтому поиск не видит
+     * частично примененных изменений, в том числе изменений хранилища строк.
+     *
+     * @param action изменение данных.
+     */
+    @Override
+    public void update(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            trie.update(action);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> search(String prefix, String filter, int offset, int limit) throws FilterException {
+        lock.readLock().lock();
+        try {
+            return trie.search(prefix, filter, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<AirportRow> searchFuzzy(String prefix, String filter, int maxDistance, int offset, int limit) throws FilterException {
+        lock.readLock().lock();
+        try {
+            return trie.searchFuzzy(prefix, filter, maxDistance, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает ленивый итератор, который берет строки из итератора дерева порциями под блокировкой чтения
+     * и копирует информацию об аэропортах, пока блокировка удерживается, поэтому потребитель, прекративший
+     * обход на нужной строке, не платит за остальные, а изменение данных не меняет уже выданные строки.
+     * Если между порциями данные изменились, поиск выполняется заново и продолжается с той же позиции.
+     *
+     * @param prefix префикс для поиска слов.
+     * @param filter фильтр для фильтрации результатов.
+     * @return итератор найденных строк или null, если слов с таким префиксом нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public Iterator<AirportRow> iterator(String prefix, String filter) throws FilterException {
+        return locked(() -> trie.iterator(prefix, filter));
+    }
+
+    /**
+     * Возвращает ленивый итератор по строкам, названия которых содержат подстроку, как {@link #iterator(String, String)}.
+     *
+     * @param substring подстрока, которую должны содержать названия.
+     * @param filter    фильтр для фильтрации результатов.
+     * @return итератор найденных строк или null, если подстроку не содержит ни одно название.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public Iterator<AirportRow> iteratorContaining(String substring, String filter) throws FilterException {
+        return locked(() -> trie.iteratorContaining(substring, filter));
+    }
+
+    /**
+     * Возвращает ленивый итератор по строкам, значение колонки которых начинается с префикса,
+     * как {@link #iterator(String, String)}.
+     *
+     * @param column номер строковой колонки.
+     * @param prefix префикс значения колонки.
+     * @param filter фильтр для фильтрации результатов.
+     * @return итератор найденных строк или null, если значений с таким префиксом нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public Iterator<AirportRow> iteratorByColumn(int column, String prefix, String filter) throws FilterException {
+        return locked(() -> trie.iteratorByColumn(column, prefix, filter));
+    }
+
+    /**
+     * Вспомогательный метод, открывающий итератор дерева под блокировкой чтения и оборачивающий его
+     * в {@link LockedIterator}.
+     *
+     * @param source поиск, открывающий итератор дерева.
+     * @return итератор строк или null, если строк нет.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    private Iterator<AirportRow> locked(RowSource source) throws FilterException {
+        lock.readLock().lock();
+        try {
+            Iterator<AirportRow> rows = source.open();
+            return rows == null ? null : new LockedIterator(source, rows, version);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<List<String>> searchAll(List<Query> queries) throws FilterException {
+        lock.readLock().lock();
+        try {
+            return trie.searchAll(queries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void createIndexes() {
+        lock.writeLock().lock();
+        try {
+            trie.createIndexes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void setParallel(boolean parallel) {
+        lock.writeLock().lock();
+        try {
+            trie.setParallel(parallel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Поиск, открывающий итератор дерева.
+     */
+    private interface RowSource {
+        Iterator<AirportRow> open() throws FilterException;
+    }
+
+    /**
+     * Итератор, берущий строки из итератора дерева порциями под блокировкой чтения. Строки порции
+     * отсоединяются от хранилища до снятия блокировки. Если к следующей порции данные изменились,
+     * итератор дерева открывается заново, и уже выданные строки пропускаются.
+     */
+    private class LockedIterator implements Iterator<AirportRow> {
+        private final RowSource source;
+        private final ArrayDeque<AirportRow> batch = new ArrayDeque<>();
+        private Iterator<AirportRow> rows;
+        private long version;
+        private int taken;
+        private int batchSize = FIRST_BATCH;
+
+        LockedIterator(RowSource source, Iterator<AirportRow> rows, long version) {
+            this.source = source;
+            this.rows = rows;
+            this.version = version;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (batch.isEmpty() && rows != null) {
+                fill();
+            }
+            return !batch.isEmpty();
+        }
+
+        @Override
+        public AirportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.poll();
+        }
+
+        private void fill() {
+            lock.readLock().lock();
+            try {
+                if (version != LockingTrie.this.version) {
+                    version = LockingTrie.this.version;
+                    rows = source.open();
+                    for (int i = 0; i < taken && rows != null && rows.hasNext(); i++) {
+                        rows.next();
+                    }
+                }
+                while (rows != null && batch.size() < batchSize && rows.hasNext()) {
+                    batch.add(rows.next().detach());
+                    taken++;
+                }
+                if (batch.size() < batchSize) {
+                    rows = null;
+                }
+                batchSize = Math.min(batchSize * 2, MAX_BATCH);
+            } catch (FilterException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package org.example.trie;
+
+import org.example.entity.Airport;
+import org.example.store.RowStore;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Класс RadixTrieNode представляет узел сжатого префиксного дерева (radix tree).
+ * Цепочки узлов с единственным потомком схлопываются в метку ребра, а дочерние узлы
+ * хранятся в массивах, отсортированных по первому символу метки.
+ */
+class RadixTrieNode {
+    /**
+     * Пустой массив символов для узлов без потомков.
+     */
+    private static final char[] NO_KEYS = new char[0];
+    /**
+     * Пустой массив узлов для узлов без потомков.
+     */
+    private static final RadixTrieNode[] NO_CHILDREN = new RadixTrieNode[0];
+    /**
+     * Метка ребра, ведущего в этот узел.
+     */
+    private char[] label;
+    /**
+     * Отсортированные первые символы меток дочерних узлов.
+     */
+    private char[] keys;
+    /**
+     * Дочерние узлы в порядке массива keys.
+     */
+    private RadixTrieNode[] children;
+    /**
+     * Оригинальное название аэропорта, если в узле заканчивается слово.
+     */
+    private String originalName;
+    /**
+     * Аэропорт, хранимый в данном узле.
+     */
+    private Airport airport;
+    /**
+     * Количество строк с информацией об аэропортах в поддереве данного узла.
+     */
+    private int rowCount;
+    /**
+     * Наименьшее оригинальное название аэропорта в поддереве данного узла.
+     */
+    private String minName;
+
+    /**
+     * Конструктор класса RadixTrieNode.
+     *
+     * @param label метка ребра, ведущего в этот узел.
+     */
+    public RadixTrieNode(char[] label) {
+        this.label = label;
+        this.keys = NO_KEYS;
+        this.children = NO_CHILDREN;
+    }
+
+    /**
+     * Метод, возвращающий количество строк в поддереве данного узла.
+     *
+     * @return количество строк в поддереве.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Метод, устанавливающий количество строк в поддереве данного узла.
+     *
+     * @param rowCount количество строк в поддереве.
+     */
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Метод, возвращающий наименьшее оригинальное название аэропорта в поддереве данного узла.
+     *
+     * @return наименьшее название в порядке {@link String#compareTo(String)}.
+     */
+    public String getMinName() {
+        return minName;
+    }
+
+    /**
+     * Метод, учитывающий название аэропорта при вычислении наименьшего названия в поддереве.
+     *
+     * @param name оригинальное название аэропорта из поддерева.
+     */
+    public void updateMinName(String name) {
+        if (minName == null || name.compareTo(minName) < 0) {
+            minName = name;
+        }
+    }
+
+    /**
+     * Метод, заново вычисляющий наименьшее название по слову узла и дочерним узлам.
+     * Используется после удаления слова из поддерева.
+     */
+    public void recomputeMinName() {
+        minName = originalName;
+        for (RadixTrieNode child : children) {
+            updateMinName(child.getMinName());
+        }
+    }
+
+    /**
+     * Метод, возвращающий метку ребра, ведущего в этот узел.
+     *
+     * @return метка ребра.
+     */
+    public char[] getLabel() {
+        return label;
+    }
+
+    /**
+     * Метод, устанавливающий метку ребра, ведущего в этот узел.
+     *
+     * @param label метка ребра.
+     */
+    public void setLabel(char[] label) {
+        this.label = label;
+    }
+
+    /**
+     * Метод, возвращающий количество дочерних узлов.
+     *
+     * @return количество дочерних узлов.
+     */
+    public int childCount() {
+        return children.length;
+    }
+
+    /**
+     * Метод, возвращающий дочерний узел по его позиции.
+     *
+     * @param i позиция дочернего узла.
+     * @return дочерний узел.
+     */
+    public RadixTrieNode childAt(int i) {
+        return children[i];
+    }
+
+    /**
+     * Метод двоичного поиска позиции дочернего узла по первому символу метки.
+     *
+     * @param c первый символ метки.
+     * @return позиция дочернего узла или отрицательное значение, как у {@link Arrays#binarySearch(char[], char)}.
+     */
+    public int indexOf(char c) {
+        return Arrays.binarySearch(keys, c);
+    }
+
+    /**
+     * Метод, вставляющий дочерний узел на заданную позицию.
+     *
+     * @param i     позиция дочернего узла.
+     * @param child дочерний узел.
+     */
+    public void addChild(int i, RadixTrieNode child) {
+        char[] newKeys = new char[keys.length + 1];
+        RadixTrieNode[] newChildren = new RadixTrieNode[children.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, i);
+        System.arraycopy(children, 0, newChildren, 0, i);
+        newKeys[i] = child.label[0];
+        newChildren[i] = child;
+        System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+        System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+        keys = newKeys;
+        children = newChildren;
+    }
+
+    /**
+     * Метод, удаляющий дочерний узел с заданной позиции.
+     *
+     * @param i позиция дочернего узла.
+     */
+    public void removeChild(int i) {
+        char[] newKeys = new char[keys.length - 1];
+        RadixTrieNode[] newChildren = new RadixTrieNode[children.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, i);
+        System.arraycopy(children, 0, newChildren, 0, i);
+        System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+        System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+        keys = newKeys;
+        children = newChildren;
+    }
+
+    /**
+     * Метод, заменяющий дочерний узел на заданной позиции узлом с той же первой буквой метки.
+     *
+     * @param i     позиция дочернего узла.
+     * @param child новый дочерний узел.
+     */
+    public void setChild(int i, RadixTrieNode child) {
+        children[i] = child;
+    }
+
+    /**
+     * Метод, возвращающий оригинальное название аэропорта.
+     *
+     * @return оригинальное название аэропорта или null.
+     */
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    /**
+     * Метод, устанавливающий оригинальное название аэропорта.
+     *
+     * @param originalName оригинальное название аэропорта.
+     */
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
+    /**
+     * Метод, возвращающий объект аэропорт.
+     *
+     * @return аэропорт или null, если в узле не заканчивается слово.
+     */
+    public Airport getAirport() {
+        return airport;
+    }
+
+    /**
+     * Метод, устанавливает аэропорт.
+     *
+     * @param airport объект аэропорта на который будет указывать текущий узел.
+     */
+    public void setAirport(Airport airport) {
+        this.airport = airport;
+    }
+}
+
+/**
+ * Реализация сжатого префиксного дерева для поиска информации об аэропортах.
+ * Хранит то же содержимое, что и {@link AirportTrie}, но занимает значительно меньше памяти
+ * и не использует упакованные символы и хеш-таблицы при спуске по префиксу.
+ */
+public class RadixTrie extends AbstractTrie<RadixTrieNode> {
+    private final RadixTrieNode root;
+
+    /**
+     * Конструктор класса, создающий новый объект сжатого префиксного дерева.
+     *
+     * @param store хранилище строк, на которые ссылаются узлы дерева.
+     */
+    public RadixTrie(RowStore store) {
+        super(store);
+        this.root = new RadixTrieNode(new char[0]);
+    }
+
+    /**
+     * Метод для добавления нового слова в дерево. При расхождении слова с меткой ребра
+     * ребро разделяется промежуточным узлом.
+     *
+     * @param word слово, которое нужно добавить в дерево.
+     * @param row  номер строки с информацией об аэропорте в хранилище строк.
+     */
+    @Override
+    public void insert(String word, int row) {
+        link(row, insert(root, word, row));
+    }
+
+    /**
+     * Вспомогательный метод, добавляющий слово в поддерево заданного узла.
+     *
+     * @param top  узел, от которого добавляется слово.
+     * @param word слово, которое нужно добавить в поддерево.
+     * @param row  номер строки с информацией об аэропорте в хранилище строк.
+     * @return узел, в котором заканчивается слово.
+     */
+    private static RadixTrieNode insert(RadixTrieNode top, String word, int row) {
+        char[] pureWord = word.toLowerCase().toCharArray();
+        RadixTrieNode current = top;
+        current.setRowCount(current.getRowCount() + 1);
+        int pos = 0;
+        while (pos < pureWord.length) {
+            int index = current.indexOf(pureWord[pos]);
+            if (index < 0) {
+                RadixTrieNode leaf = new RadixTrieNode(Arrays.copyOfRange(pureWord, pos, pureWord.length));
+                current.addChild(-index - 1, leaf);
+                current = leaf;
+                current.setRowCount(1);
+                pos = pureWord.length;
+                break;
+            }
+            RadixTrieNode child = current.childAt(index);
+            char[] label = child.getLabel();
+            int common = commonLength(label, pureWord, pos);
+            if (common < label.length) {
+                RadixTrieNode middle = new RadixTrieNode(Arrays.copyOf(label, common));
+                middle.setRowCount(child.getRowCount());
+                middle.updateMinName(child.getMinName());
+                child.setLabel(Arrays.copyOfRange(label, common, label.length));
+                middle.addChild(0, child);
+                current.setChild(index, middle);
+                child = middle;
+            }
+            current = child;
+            current.setRowCount(current.getRowCount() + 1);
+            pos += common;
+        }
+        if (current.getAirport() == null) {
+            current.setAirport(new Airport());
+            current.setOriginalName(word);
+            updateMinName(top, pureWord, word);
+        }
+        current.getAirport().addRow(row);
+        return current;
+    }
+
+    /**
+     * Вспомогательный метод, учитывающий новое название на всем пути от заданного узла до узла слова.
+     *
+     * @param top      узел, от которого добавлялось слово.
+     * @param pureWord название в нижнем регистре.
+     * @param word     оригинальное название.
+     */
+    private static void updateMinName(RadixTrieNode top, char[] pureWord, String word) {
+        RadixTrieNode current = top;
+        current.updateMinName(word);
+        for (int pos = 0; pos < pureWord.length; pos += current.getLabel().length) {
+            current = current.childAt(current.indexOf(pureWord[pos]));
+            current.updateMinName(word);
+        }
+    }
+
+    /**
+     * Метод для удаления строки из дерева. Узлы, в поддереве которых не осталось строк, удаляются,
+     * а промежуточные узлы с единственным потомком схлопываются обратно в метку ребра.
+     *
+     * @param word слово, с которым связана строка.
+     * @param row  номер строки с информацией об аэропорте в хранилище строк.
+     */
+    @Override
+    public void remove(String word, int row) {
+        char[] pureWord = word.toLowerCase().toCharArray();
+        List<RadixTrieNode> path = new ArrayList<>();
+        RadixTrieNode current = root;
+        path.add(current);
+        int pos = 0;
+        while (pos < pureWord.length) {
+            int index = current.indexOf(pureWord[pos]);
+            if (index < 0) {
+                return;
+            }
+            current = current.childAt(index);
+            char[] label = current.getLabel();
+            if (commonLength(label, pureWord, pos) < label.length) {
+                return;
+            }
+            pos += label.length;
+            path.add(current);
+        }
+        if (current.getAirport() == null || !current.getAirport().removeRow(row)) {
+            return;
+        }
+        unlink(row);
+        boolean wordRemoved = current.getAirport().size() == 0;
+        if (wordRemoved) {
+            current.setAirport(null);
+            current.setOriginalName(null);
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            RadixTrieNode node = path.get(i);
+            node.setRowCount(node.getRowCount() - 1);
+            if (wordRemoved) {
+                node.recomputeMinName();
+            }
+            if (i == 0) {
+                break;
+            }
+            RadixTrieNode parent = path.get(i - 1);
+            int index = parent.indexOf(node.getLabel()[0]);
+            if (node.getRowCount() == 0) {
+                parent.removeChild(index);
+            } else if (node.getAirport() == null && node.childCount() == 1) {
+                RadixTrieNode child = node.childAt(0);
+                char[] label = Arrays.copyOf(node.getLabel(), node.getLabel().length + child.getLabel().length);
+                System.arraycopy(child.getLabel(), 0, label, node.getLabel().length, child.getLabel().length);
+                child.setLabel(label);
+                parent.setChild(index, child);
+            }
+        }
+    }
+
+    @Override
+    protected RadixTrieNode branch(List<String> words, List<Integer> rows) {
+        RadixTrieNode top = new RadixTrieNode(new char[0]);
+        for (int i = 0; i < words.size(); i++) {
+            insert(top, words.get(i), rows.get(i));
+        }
+        return top.childAt(0);
+    }
+
+    @Override
+    protected void graft(char first, RadixTrieNode node) {
+        root.addChild(-root.indexOf(first) - 1, node);
+        root.setRowCount(root.getRowCount() + node.getRowCount());
+        root.updateMinName(node.getMinName());
+    }
+
+    @Override
+    protected RadixTrieNode descend(String prefix) {
+        RadixTrieNode current = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int index = current.indexOf(prefix.charAt(pos));
+            if (index < 0) {
+                return null;
+            }
+            current = current.childAt(index);
+            char[] label = current.getLabel();
+            for (int i = 0; i < label.length && pos < prefix.length(); i++, pos++) {
+                if (label[i] != prefix.charAt(pos)) {
+                    return null;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    protected int rowCount(RadixTrieNode node) {
+        return node.getRowCount();
+    }
+
+    @Override
+    protected String originalName(RadixTrieNode node) {
+        return node.getOriginalName();
+    }
+
+    @Override
+    protected String minName(RadixTrieNode node) {
+        return node.getMinName();
+    }
+
+    @Override
+    protected Airport airport(RadixTrieNode node) {
+        return node.getAirport();
+    }
+
+    @Override
+    protected void forEachChild(RadixTrieNode node, Consumer<RadixTrieNode> action) {
+        for (int i = 0; i < node.childCount(); i++) {
+            action.accept(node.childAt(i));
+        }
+    }
+
+    @Override
+    protected void forEachEdge(RadixTrieNode node, BiConsumer<CharSequence, RadixTrieNode> action) {
+        for (int i = 0; i < node.childCount(); i++) {
+            RadixTrieNode child = node.childAt(i);
+            action.accept(CharBuffer.wrap(child.getLabel()), child);
+        }
+    }
+
+    /**
+     * Вспомогательный метод, вычисляющий длину общего префикса метки ребра и остатка слова.
+     *
+     * @param label метка ребра.
+     * @param word  слово.
+     * @param pos   позиция в слове, с которой начинается сравнение.
+     * @return длина общего префикса.
+     */
+    private static int commonLength(char[] label, char[] word, int pos) {
+        int common = 0;
+        while (common < label.length && pos + common < word.length && label[common] == word[pos + common]) {
+            common++;
+        }
+        return common;
+    }
+}
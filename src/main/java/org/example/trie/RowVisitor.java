@@ -0,0 +1,16 @@
+package org.example.trie;
+
+/**
+ * Обработчик строк, найденных при обходе дерева.
+ */
+@FunctionalInterface
+public interface RowVisitor {
+    /**
+     * Обрабатывает найденную строку.
+     *
+     * @param name оригинальное название аэропорта.
+     * @param row  номер строки в хранилище строк.
+     * @return true, если обход нужно продолжить, false - если его нужно прекратить.
+     */
+    boolean visit(String name, int row);
+}
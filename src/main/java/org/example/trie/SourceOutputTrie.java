@@ -0,0 +1,456 @@
+package org.example.trie;
+
+import org.example.entity.Column;
+import org.example.entity.Query;
+import org.example.exception.FilterException;
+import org.example.metrics.SearchMetrics;
+import org.example.store.MappedRowStore;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Дерево, которое выводит найденные строки в том же виде, что и {@link AbstractTrie#output(Object[], String)},
+ * но не собирает их из значений колонок: строка вывода складывается из байтов полей отображенного в память
+ * CSV-файла и постоянных разделителей, которые передаются в стандартный вывод одной сборной записью канала
+ * на запрос, без перекодирования и промежуточных копий. Копируются только название аэропорта, значения
+ * с кавычками внутри и числа, запись которых в файле отличается от вывода {@link Integer#toString(int)}
+ * и {@link Double#toString(double)}.
+ * Номер строки хранилища дерева должен совпадать с номером непустой строки файла, поэтому дерево
+ * нельзя использовать, если строки добавляются или изменяются во время работы.
+ * Остальные методы передаются другому дереву без изменений.
+ */
+public class SourceOutputTrie implements Trie {
+    /**
+     * Кавычка вокруг названия и строковых значений. Разделители находятся вне кучи,
+     * поэтому канал не копирует их во временный буфер при записи.
+     */
+    private static final ByteBuffer QUOTE = constant("\"");
+    /**
+     * Начало списка значений после названия.
+     */
+    private static final ByteBuffer OPEN = constant(" [");
+    /**
+     * Разделитель значений.
+     */
+    private static final ByteBuffer COMMA = constant(", ");
+    /**
+     * Конец списка значений и перевод строки.
+     */
+    private static final ByteBuffer CLOSE = constant("]\n");
+    /**
+     * Дробная часть, которую {@link Double#toString(double)} добавляет к целым значениям.
+     */
+    private static final ByteBuffer POINT_ZERO = constant(".0");
+    /**
+     * Наибольшее количество значащих цифр дробного числа, запись которого выводится без изменений.
+     * Разные записи из 15 цифр задают разные числа double, поэтому такая запись без нулей в конце
+     * совпадает с кратчайшей, которую выводит {@link Double#toString(double)}. Для записей из 16 и 17 цифр
+     * это неверно, и они выводятся через {@link Double#toString(double)}.
+     */
+    private static final int MAX_DIGITS = 15;
+    /**
+     * Наибольшее количество цифр целой части, при котором {@link Double#toString(double)} не использует порядок.
+     */
+    private static final int MAX_INTEGER_DIGITS = 7;
+    /**
+     * Наибольшее количество нулей после точки у числа меньше единицы, при котором
+     * {@link Double#toString(double)} не использует порядок.
+     */
+    private static final int MAX_LEADING_ZEROS = 2;
+    /**
+     * Дерево, в котором выполняется поиск.
+     */
+    private final Trie trie;
+    /**
+     * Строки CSV-файла.
+     */
+    private final MappedRowStore source;
+    /**
+     * Канал стандартного вывода.
+     */
+    private final FileChannel out;
+
+    /**
+     * Конструктор класса.
+     *
+     * @param trie   дерево, в котором выполняется поиск.
+     * @param source строки CSV-файла, из которого загружено дерево.
+     */
+    public SourceOutputTrie(Trie trie, MappedRowStore source) {
+        this.trie = trie;
+        this.source = source;
+        this.out = new FileOutputStream(FileDescriptor.out).getChannel();
+    }
+
+    @Override
+    public void insert(String word, int row) {
+        trie.insert(word, row);
+    }
+
+    @Override
+    public void insertAll(List<String> words, int firstRow) {
+        trie.insertAll(words, firstRow);
+    }
+
+    @Override
+    public void remove(String word, int row) {
+        trie.remove(word, row);
+    }
+
+    @Override
+    public void update(Runnable action) {
+        trie.update(action);
+    }
+
+    /**
+     * Выводит строки, найденные ленивым поиском {@link Trie#iterator(String, String)}.
+     * Строки вывода не формируются: для каждой найденной строки берутся только ее номер и название,
+     * а затем байты полей всех строк записываются в стандартный вывод одним вызовом.
+     *
+     * @param prefix префикс для поиска слов.
+     * @param filter фильтр для фильтрации результатов.
+     * @param offset количество пропускаемых строк.
+     * @param limit  максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public void find(String prefix, String filter, int offset, int limit) throws FilterException {
+        Instant start = Instant.now();
+        print("По префиксу '" + prefix + "' нет строк", trie.iterator(prefix, filter), offset, limit, start);
+    }
+
+    /**
+     * Выводит строки, найденные поиском с опечатками, в порядке расстояния от префикса.
+     *
+     * @param prefix      префикс для поиска слов.
+     * @param filter      фильтр для фильтрации результатов.
+     * @param maxDistance допустимое расстояние Левенштейна.
+     * @param offset      количество пропускаемых строк.
+     * @param limit       максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public void findFuzzy(String prefix, String filter, int maxDistance, int offset, int limit) throws FilterException {
+        Instant start = Instant.now();
+        List<AirportRow> rows = trie.searchFuzzy(prefix, filter, maxDistance, offset, limit);
+        print("По префиксу '" + prefix + "' нет строк", rows == null ? null : rows.iterator(), 0, NO_LIMIT, start);
+    }
+
+    /**
+     * Выводит строки, названия которых содержат подстроку.
+     *
+     * @param substring подстрока, которую должны содержать названия.
+     * @param filter    фильтр для фильтрации результатов.
+     * @param offset    количество пропускаемых строк.
+     * @param limit     максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public void findContaining(String substring, String filter, int offset, int limit) throws FilterException {
+        Instant start = Instant.now();
+        print("По подстроке '" + substring + "' нет строк", trie.iteratorContaining(substring, filter), offset, limit, start);
+    }
+
+    /**
+     * Выводит строки, значение колонки которых начинается с префикса.
+     *
+     * @param column номер строковой колонки.
+     * @param prefix префикс значения колонки.
+     * @param filter фильтр для фильтрации результатов.
+     * @param offset количество пропускаемых строк.
+     * @param limit  максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @throws FilterException если фильтр содержит неверное выражение.
+     */
+    @Override
+    public void findByColumn(int column, String prefix, String filter, int offset, int limit) throws FilterException {
+        Instant start = Instant.now();
+        print("По префиксу '" + prefix + "' в колонке " + column + " нет строк", trie.iteratorByColumn(column, prefix, filter), offset, limit, start);
+    }
+
+    @Override
+    public List<String> search(String prefix, String filter, int offset, int limit) throws FilterException {
+        return trie.search(prefix, filter, offset, limit);
+    }
+
+    @Override
+    public List<AirportRow> searchFuzzy(String prefix, String filter, int maxDistance, int offset, int limit) throws FilterException {
+        return trie.searchFuzzy(prefix, filter, maxDistance, offset, limit);
+    }
+
+    @Override
+    public Iterator<AirportRow> iterator(String prefix, String filter) throws FilterException {
+        return trie.iterator(prefix, filter);
+    }
+
+    @Override
+    public Iterator<AirportRow> iteratorContaining(String substring, String filter) throws FilterException {
+        return trie.iteratorContaining(substring, filter);
+    }
+
+    @Override
+    public Iterator<AirportRow> iteratorByColumn(int column, String prefix, String filter) throws FilterException {
+        return trie.iteratorByColumn(column, prefix, filter);
+    }
+
+    @Override
+    public List<List<String>> searchAll(List<Query> queries) throws FilterException {
+        return trie.searchAll(queries);
+    }
+
+    @Override
+    public void createIndexes() {
+        trie.createIndexes();
+    }
+
+    @Override
+    public void setParallel(boolean parallel) {
+        trie.setParallel(parallel);
+    }
+
+    /**
+     * Вспомогательный метод, выводящий найденные строки, их количество и время поиска.
+     *
+     * @param notFound сообщение, которое выводится, если подходящих слов нет.
+     * @param rows     найденные строки или null, если подходящих слов нет.
+     * @param offset   количество пропускаемых строк.
+     * @param limit    максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @param start    момент начала поиска.
+     */
+    private void print(String notFound, Iterator<AirportRow> rows, int offset, int limit, Instant start) {
+        if (rows == null) {
+            System.out.println(notFound);
+            return;
+        }
+        List<ByteBuffer> buffers = new ArrayList<>();
+        int count = 0;
+        for (int skipped = 0; count < limit && rows.hasNext(); ) {
+            AirportRow row = rows.next();
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            addLine(buffers, row);
+            count++;
+        }
+        Instant stop = Instant.now();
+        long output = System.nanoTime();
+        write(buffers.toArray(new ByteBuffer[0]));
+        SearchMetrics.getInstance().record(SearchMetrics.Phase.OUTPUT, System.nanoTime() - output);
+        System.out.println("Количество найденных строк: " + count + System.lineSeparator()
+                + "Время, затраченное на поиск: " + Duration.between(start, stop).toMillis() + " мс");
+    }
+
+    /**
+     * Вспомогательный метод, добавляющий буферы строки вывода {@code "название" [значение, "значение", ...]}.
+     * Строковые значения, кроме часового пояса, выводятся в кавычках, как в {@link AbstractTrie#output(Object[], String)}.
+     *
+     * @param buffers буферы вывода.
+     * @param row     найденная строка.
+     */
+    private void addLine(List<ByteBuffer> buffers, AirportRow row) {
+        ByteBuffer[] fields = source.fields(row.getRow());
+        buffers.add(QUOTE.duplicate());
+        buffers.add(ByteBuffer.wrap(row.getName().getBytes(StandardCharsets.UTF_8)));
+        buffers.add(QUOTE.duplicate());
+        buffers.add(OPEN.duplicate());
+        Column[] columns = Column.values();
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            if (i > 0) {
+                buffers.add(COMMA.duplicate());
+            }
+            ByteBuffer field = fields[column.getNumber() - 1];
+            switch (column.getType()) {
+                case INTEGER: {
+                    buffers.add(isPlainInteger(field) ? field
+                            : bytes(Integer.toString(source.getInteger(row.getRow(), column.getIndex()))));
+                    break;
+                }
+                case DOUBLE: {
+                    if (!isPlainDecimal(field)) {
+                        buffers.add(bytes(Double.toString(source.getDouble(row.getRow(), column.getIndex()))));
+                    } else {
+                        buffers.add(field);
+                        if (indexOf(field, '.') < 0) {
+                            buffers.add(POINT_ZERO.duplicate());
+                        }
+                    }
+                    break;
+                }
+                default: {
+                    boolean quoted = column != Column.TIMEZONE;
+                    if (quoted) {
+                        buffers.add(QUOTE.duplicate());
+                    }
+                    buffers.add(unquote(field));
+                    if (quoted) {
+                        buffers.add(QUOTE.duplicate());
+                    }
+                    break;
+                }
+            }
+        }
+        buffers.add(CLOSE.duplicate());
+    }
+
+    /**
+     * Вспомогательный метод, получающий значение поля без кавычек, так же как разбор CSV-строки.
+     * Если кавычки есть только по краям поля, значение берется без копирования.
+     *
+     * @param field байты поля.
+     * @return байты значения.
+     */
+    private static ByteBuffer unquote(ByteBuffer field) {
+        int quote = indexOf(field, '\"');
+        if (quote < 0) {
+            return field;
+        }
+        int last = field.limit() - 1;
+        if (quote == 0 && last > 0 && field.get(last) == '\"' && indexOf(field.duplicate().limit(last).position(1), '\"') < 0) {
+            return field.duplicate().limit(last).position(1).slice();
+        }
+        byte[] bytes = new byte[field.limit()];
+        int length = 0;
+        for (int i = 0; i < field.limit(); i++) {
+            if (field.get(i) != '\"') {
+                bytes[length++] = field.get(i);
+            }
+        }
+        return ByteBuffer.wrap(bytes, 0, length);
+    }
+
+    /**
+     * Вспомогательный метод, проверяющий, что запись целого числа совпадает с выводом {@link Integer#toString(int)}:
+     * необязательный минус и цифры без ведущих нулей.
+     *
+     * @param field байты поля.
+     * @return true, если поле можно вывести без изменений.
+     */
+    private static boolean isPlainInteger(ByteBuffer field) {
+        int start = field.limit() > 0 && field.get(0) == '-' ? 1 : 0;
+        int digits = field.limit() - start;
+        if (digits == 0 || digits > 9 || field.get(start) == '0' && (digits > 1 || start > 0)) {
+            return false;
+        }
+        for (int i = start; i < field.limit(); i++) {
+            if (field.get(i) < '0' || field.get(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Вспомогательный метод, проверяющий, что запись дробного числа совпадает с выводом {@link Double#toString(double)},
+     * если к целому числу добавить ".0": необязательный минус, целая часть без ведущих нулей и не длиннее
+     * семи цифр, дробная часть без нулей в конце, у чисел меньше единицы не больше двух нулей после точки
+     * и не больше 15 значащих цифр.
+     *
+     * @param field байты поля.
+     * @return true, если поле можно вывести без изменений.
+     */
+    private static boolean isPlainDecimal(ByteBuffer field) {
+        int limit = field.limit();
+        int start = limit > 0 && field.get(0) == '-' ? 1 : 0;
+        int point = indexOf(field, '.');
+        int integerEnd = point < 0 ? limit : point;
+        int integerDigits = integerEnd - start;
+        if (integerDigits == 0 || integerDigits > MAX_INTEGER_DIGITS
+                || field.get(start) == '0' && integerDigits > 1 || point == limit - 1) {
+            return false;
+        }
+        for (int i = start; i < limit; i++) {
+            byte b = field.get(i);
+            if ((b < '0' || b > '9') && i != point) {
+                return false;
+            }
+        }
+        if (point < 0) {
+            return true;
+        }
+        if (field.get(limit - 1) == '0') {
+            return limit - point == 2 && field.get(start) != '0' || limit - start == 3;
+        }
+        int significant = integerDigits + limit - point - 1;
+        if (field.get(start) == '0') {
+            int zeros = 0;
+            while (field.get(point + 1 + zeros) == '0') {
+                zeros++;
+            }
+            if (zeros > MAX_LEADING_ZEROS) {
+                return false;
+            }
+            significant = limit - point - 1 - zeros;
+        }
+        return significant <= MAX_DIGITS;
+    }
+
+    /**
+     * Вспомогательный метод, находящий первый байт в буфере.
+     *
+     * @param buffer буфер.
+     * @param b      искомый байт.
+     * @return позиция байта относительно начала буфера или -1.
+     */
+    private static int indexOf(ByteBuffer buffer, char b) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) == b) {
+                return i - buffer.position();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Вспомогательный метод, кодирующий значение, вывод которого отличается от записи в файле.
+     *
+     * @param value значение.
+     * @return байты значения.
+     */
+    private static ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Вспомогательный метод, создающий постоянный разделитель вне кучи.
+     *
+     * @param value разделитель.
+     * @return буфер разделителя, готовый к чтению.
+     */
+    private static ByteBuffer constant(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    /**
+     * Вспомогательный метод, записывающий буферы в стандартный вывод. Перед записью сбрасывается
+     * буфер {@link System#out}, чтобы строки не перемешались с уже напечатанным текстом.
+     *
+     * @param buffers буферы для записи.
+     */
+    private void write(ByteBuffer[] buffers) {
+        System.out.flush();
+        try {
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= out.write(buffers);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удается вывести строки", e);
+        }
+    }
+}
@@ -1,18 +1,68 @@
 package org.example.trie;
 
+import org.example.entity.Query;
 import org.example.exception.FilterException;
+import org.example.metrics.SearchMetrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Интерфейс для реализации префиксного дерева (trie).
  */
 public interface Trie {
+    /**
+     * Значение ограничения количества строк, означающее его отсутствие.
+     */
+    int NO_LIMIT = Integer.MAX_VALUE;
+
     /**
      * Метод для вставки слова и связанной с ним информации в дерево.
      *
      * @param word Слово, которое необходимо добавить в дерево.
-     * @param info Массив объектов с информацией, связанной со словом.
+     * @param row  Номер строки с информацией, связанной со словом, в хранилище строк.
+     */
+    void insert(String word, int row);
+
+    /**
+     * Метод для удаления строки, связанной со словом, из дерева. Если у слова не остается строк,
+     * удаляется и само слово.
+     *
+     * @param word Слово, с которым связана строка.
+     * @param row  Номер строки в хранилище строк.
+     */
+    void remove(String word, int row);
+
+    /**
+     * Метод для вставки слов строк с последовательными номерами. Результат тот же, что и у вставки
+     * строк по одной через {@link #insert(String, int)}, но дерево может строить части параллельно.
+     *
+     * @param words    Слова в порядке номеров строк.
+     * @param firstRow Номер строки первого слова в хранилище строк.
      */
-    void insert(String word, Object[] info);
+    default void insertAll(List<String> words, int firstRow) {
+        for (int i = 0; i < words.size(); i++) {
+            insert(words.get(i), firstRow + i);
+        }
+    }
+
+    /**
+     * Метод, выполняющий изменение данных так, что поиск видит либо состояние до изменения,
+     * либо после него. Изменение может вызывать {@link #insert(String, int)} и {@link #remove(String, int)}
+     * этого дерева и изменять хранилище строк.
+     *
+     * @param action изменение данных.
+     */
+    default void update(Runnable action) {
+        action.run();
+    }
 
     /**
      * Метод для поиска слов, начинающихся с заданного префикса, и фильтрации результатов по заданному фильтру.
@@ -21,5 +71,247 @@ public interface Trie {
      * @param filter Фильтр для фильтрации результатов.
      * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
      */
-    void find(String prefix, String filter) throws FilterException;
+    default void find(String prefix, String filter) throws FilterException {
+        find(prefix, filter, 0, NO_LIMIT);
+    }
+
+    /**
+     * Метод для поиска слов с пропуском первых {@code offset} строк и выводом не более {@code limit} строк.
+     * Строки выводятся в том же порядке, что и у {@link #find(String, String)}, а обход дерева
+     * прекращается, как только найдено достаточно строк. Результат запроса выводится одной записью,
+     * поэтому поток вывода сбрасывается и перекодирует текст один раз на запрос, а не на каждую строку.
+     *
+     * @param prefix Префикс для поиска слов.
+     * @param filter Фильтр для фильтрации результатов.
+     * @param offset Количество пропускаемых строк.
+     * @param limit  Максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    default void find(String prefix, String filter, int offset, int limit) throws FilterException {
+        Instant start = Instant.now();
+        List<String> airports = search(prefix, filter, offset, limit);
+        Instant stop = Instant.now();
+        print("По префиксу '" + prefix + "' нет строк", airports, Duration.between(start, stop));
+    }
+
+    /**
+     * Метод для поиска слов с опечатками, выводящий найденные строки в порядке расстояния
+     * от префикса так же, как {@link #find(String, String, int, int)}.
+     *
+     * @param prefix      Префикс для поиска слов.
+     * @param filter      Фильтр для фильтрации результатов.
+     * @param maxDistance Допустимое расстояние Левенштейна между префиксом и началом названия.
+     * @param offset      Количество пропускаемых строк.
+     * @param limit       Максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    default void findFuzzy(String prefix, String filter, int maxDistance, int offset, int limit) throws FilterException {
+        Instant start = Instant.now();
+        List<AirportRow> rows = searchFuzzy(prefix, filter, maxDistance, offset, limit);
+        List<String> airports = null;
+        if (rows != null) {
+            airports = new ArrayList<>(rows.size());
+            for (AirportRow row : rows) {
+                airports.add(row.toString());
+            }
+        }
+        Instant stop = Instant.now();
+        print("По префиксу '" + prefix + "' нет строк", airports, Duration.between(start, stop));
+    }
+
+    /**
+     * Метод для поиска по подстроке названия, выводящий найденные строки так же, как {@link #find(String, String, int, int)}.
+     *
+     * @param substring Подстрока, которую должны содержать названия.
+     * @param filter    Фильтр для фильтрации результатов.
+     * @param offset    Количество пропускаемых строк.
+     * @param limit     Максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    default void findContaining(String substring, String filter, int offset, int limit) throws FilterException {
+        Instant start = Instant.now();
+        List<String> airports = page(iteratorContaining(substring, filter), offset, limit);
+        Instant stop = Instant.now();
+        print("По подстроке '" + substring + "' нет строк", airports, Duration.between(start, stop));
+    }
+
+    /**
+     * Метод для поиска по префиксу значения строковой колонки, выводящий найденные строки так же,
+     * как {@link #find(String, String, int, int)}.
+     *
+     * @param column Номер строковой колонки, как в фильтре.
+     * @param prefix Префикс значения колонки.
+     * @param filter Фильтр для фильтрации результатов.
+     * @param offset Количество пропускаемых строк.
+     * @param limit  Максимальное количество выводимых строк или {@link #NO_LIMIT}.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    default void findByColumn(int column, String prefix, String filter, int offset, int limit) throws FilterException {
+        Instant start = Instant.now();
+        List<String> airports = page(iteratorByColumn(column, prefix, filter), offset, limit);
+        Instant stop = Instant.now();
+        print("По префиксу '" + prefix + "' в колонке " + column + " нет строк", airports, Duration.between(start, stop));
+    }
+
+    /**
+     * Вспомогательный метод, формирующий строки вывода страницы результатов итератора.
+     *
+     * @param rows   Найденные строки или null, если подходящих слов нет.
+     * @param offset Количество пропускаемых строк.
+     * @param limit  Максимальное количество строк или {@link #NO_LIMIT}.
+     * @return Строки страницы или null, если подходящих слов нет.
+     */
+    private static List<String> page(Iterator<AirportRow> rows, int offset, int limit) {
+        if (rows == null) {
+            return null;
+        }
+        List<String> airports = new ArrayList<>();
+        for (int skipped = 0; airports.size() < limit && rows.hasNext(); ) {
+            AirportRow row = rows.next();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                airports.add(row.toString());
+            }
+        }
+        return airports;
+    }
+
+    /**
+     * Вспомогательный метод, выводящий строки результата, их количество и время поиска одной записью.
+     *
+     * @param notFound Сообщение, которое выводится, если подходящих слов нет.
+     * @param airports Строки результата или null, если подходящих слов нет.
+     * @param time     Время, затраченное на поиск.
+     */
+    private static void print(String notFound, List<String> airports, Duration time) {
+        if (airports == null) {
+            System.out.println(notFound);
+            return;
+        }
+        long output = System.nanoTime();
+        String separator = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+        for (String airport : airports) {
+            sb.append(airport).append(separator);
+        }
+        sb.append("Количество найденных строк: ").append(airports.size()).append(separator);
+        sb.append("Время, затраченное на поиск: ").append(time.toMillis()).append(" мс");
+        System.out.println(sb);
+        SearchMetrics.getInstance().record(SearchMetrics.Phase.OUTPUT, System.nanoTime() - output);
+    }
+
+    /**
+     * Метод для поиска слов, возвращающий строки результата в формате вывода вместо их печати.
+     *
+     * @param prefix Префикс для поиска слов.
+     * @param filter Фильтр для фильтрации результатов.
+     * @param offset Количество пропускаемых строк.
+     * @param limit  Максимальное количество строк или {@link #NO_LIMIT}.
+     * @return Строки результата в порядке названий (для функции nearest - в порядке расстояния) или null, если слов с таким префиксом нет.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    List<String> search(String prefix, String filter, int offset, int limit) throws FilterException;
+
+    /**
+     * Метод для поиска слов, начало которых отличается от префикса не больше чем на заданное расстояние
+     * Левенштейна: количество вставок, удалений и замен символов. Фильтр применяется так же,
+     * как в {@link #search(String, String, int, int)}, а строки упорядочиваются по расстоянию,
+     * затем по названиям и номерам, поэтому точные совпадения с префиксом идут первыми.
+     *
+     * @param prefix      Префикс для поиска слов.
+     * @param filter      Фильтр для фильтрации результатов.
+     * @param maxDistance Допустимое расстояние Левенштейна, обычно 1 или 2.
+     * @param offset      Количество пропускаемых строк.
+     * @param limit       Максимальное количество строк или {@link #NO_LIMIT}.
+     * @return Найденные строки или null, если слов в пределах расстояния нет.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    List<AirportRow> searchFuzzy(String prefix, String filter, int maxDistance, int offset, int limit) throws FilterException;
+
+    /**
+     * Метод для ленивого поиска слов. Дерево обходится и фильтр применяется только по мере продвижения итератора,
+     * а строки вывода не формируются, пока не вызван {@link AirportRow#toString()}.
+     *
+     * @param prefix Префикс для поиска слов.
+     * @param filter Фильтр для фильтрации результатов.
+     * @return Итератор найденных строк в порядке названий (для функции nearest - в порядке расстояния) или null, если слов с таким префиксом нет.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    Iterator<AirportRow> iterator(String prefix, String filter) throws FilterException;
+
+    /**
+     * Метод для ленивого поиска по подстроке названия. Возвращает те же строки, что и проверка
+     * {@code name.toLowerCase().contains(substring.toLowerCase())} каждого названия, но реализация
+     * может проверять только названия-кандидаты, найденные по индексу.
+     *
+     * @param substring Подстрока, которую должны содержать названия, без учета регистра.
+     * @param filter    Фильтр для фильтрации результатов.
+     * @return Итератор найденных строк в порядке названий (для функции nearest - в порядке расстояния) или null, если подстроку не содержит ни одно название.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    Iterator<AirportRow> iteratorContaining(String substring, String filter) throws FilterException;
+
+    /**
+     * Метод для ленивого поиска по префиксу значения строковой колонки, например города, страны, кода IATA или ICAO.
+     * Номера строк совпадают с номерами строк поиска по названиям.
+     *
+     * @param column Номер строковой колонки, как в фильтре.
+     * @param prefix Префикс значения колонки без учета регистра.
+     * @param filter Фильтр для фильтрации результатов.
+     * @return Итератор найденных строк в порядке названий (для функции nearest - в порядке расстояния) или null, если значений с таким префиксом нет.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     * @throws IllegalArgumentException если колонка не является строковой.
+     */
+    Iterator<AirportRow> iteratorByColumn(int column, String prefix, String filter) throws FilterException;
+
+    /**
+     * Метод для ленивого поиска слов, возвращающий поток найденных строк поверх {@link #iterator(String, String)}.
+     * Поток упорядочен по названиям и может обрабатываться параллельно.
+     *
+     * @param prefix Префикс для поиска слов.
+     * @param filter Фильтр для фильтрации результатов.
+     * @return Поток найденных строк; пустой, если слов с таким префиксом нет.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр не может быть применен к результатам.
+     */
+    default Stream<AirportRow> stream(String prefix, String filter) throws FilterException {
+        Iterator<AirportRow> rows = iterator(prefix, filter);
+        if (rows == null) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Метод для поиска по нескольким запросам сразу. Результат каждого запроса совпадает с результатом
+     * {@link #search(String, String, int, int)}, но реализация может отвечать на запросы с общим префиксом
+     * за один обход дерева.
+     *
+     * @param queries Запросы.
+     * @return Результаты запросов в том же порядке; результат запроса равен null, если слов с его префиксом нет.
+     * @throws FilterException Исключение, которое может быть вызвано в случае, если фильтр одного из запросов не может быть применен.
+     */
+    default List<List<String>> searchAll(List<Query> queries) throws FilterException {
+        List<List<String>> results = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            results.add(search(query.getPrefix(), query.getFilter(), query.getOffset(), query.getLimit()));
+        }
+        return results;
+    }
+
+    /**
+     * Метод для построения вторичных индексов по числовым колонкам, которые используются
+     * при поиске вместо обхода поддерева, если фильтр достаточно селективен, и битовых индексов
+     * по строковым колонкам с небольшим количеством различных значений, по которым сравнения
+     * этих колонок вычисляются операциями над множествами строк.
+     */
+    void createIndexes();
+
+    /**
+     * Метод, включающий или выключающий параллельный поиск. В параллельном режиме большие поддеревья
+     * обходятся задачами {@link java.util.concurrent.ForkJoinPool}, а их результаты сливаются в порядке названий.
+     *
+     * @param parallel true, чтобы включить параллельный поиск.
+     */
+    void setParallel(boolean parallel);
 }
@@ -0,0 +1,187 @@
+package org.example.image;
+
+import junit.framework.TestCase;
+import org.example.exception.FilterException;
+import org.example.service.Data;
+import org.example.trie.AirportTrie;
+import org.example.trie.Trie;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Проверяет, что поврежденный или устаревший образ индекса не открывается и перестраивается при загрузке,
+ * а дерево образа находит те же строки, что и дерево, загруженное из CSV-файла.
+ */
+public class IndexImageTest extends TestCase {
+    private static final String[] PREFIXES = {"", "a", "B", "bo", "Sheremetyevo", "x", "zz"};
+
+    private static final String[] FILTERS = {
+            "", "column[1]>1000", "column[4]=\"Canada\" & column[9]>1000", "column[5]<>\"\\N\"",
+            "box(40, -10, 60, 30)", "radius(51.47, -0.45, 50) & column[13]=\"airport\"", "nearest(-33.94, 151.18, 5)"
+    };
+
+    private Path directory;
+    private Path csv;
+    private Path image;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("index-image");
+        csv = directory.resolve("airports.csv");
+        image = directory.resolve("airports.idx");
+        try (Stream<String> lines = Files.lines(Paths.get("airports.csv"), StandardCharsets.UTF_8)) {
+            Files.write(csv, lines.limit(300).collect(Collectors.toList()), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public void testOpensFreshImage() throws IOException {
+        Data.loadImage(csv, image, AirportTrie::new);
+        assertNotNull(open());
+    }
+
+    public void testMissingImageIsNotOpened() throws IOException {
+        assertNull(open());
+    }
+
+    public void testWrongCsvSizeIsRejected() throws IOException, FilterException {
+        checkTamperedLong(IndexImage.CSV_SIZE_POS);
+    }
+
+    public void testWrongCsvModifiedTimeIsRejected() throws IOException, FilterException {
+        checkTamperedLong(IndexImage.CSV_MODIFIED_POS);
+    }
+
+    public void testWrongChecksumIsRejected() throws IOException, FilterException {
+        checkTamperedLong(IndexImage.CHECKSUM_POS);
+    }
+
+    public void testWrongMagicIsRejected() throws IOException, FilterException {
+        checkTamperedInt(IndexImage.MAGIC_POS);
+    }
+
+    public void testWrongVersionIsRejected() throws IOException, FilterException {
+        checkTamperedInt(IndexImage.VERSION_POS);
+    }
+
+    public void testChangedPayloadByteIsRejected() throws IOException, FilterException {
+        Data.loadImage(csv, image, AirportTrie::new);
+        long position = IndexImage.HEADER_SIZE + (Files.size(image) - IndexImage.HEADER_SIZE) / 2;
+        ByteBuffer payload = read(position, 1);
+        payload.put(0, (byte) ~payload.get(0));
+        write(position, payload);
+        checkRejectedAndRebuilt();
+    }
+
+    public void testTruncatedImageIsRejected() throws IOException, FilterException {
+        Data.loadImage(csv, image, AirportTrie::new);
+        truncate(Files.size(image) - 1);
+        checkRejectedAndRebuilt();
+        truncate(IndexImage.HEADER_SIZE - 1);
+        checkRejectedAndRebuilt();
+    }
+
+    public void testChangedCsvIsRejected() throws IOException, FilterException {
+        Data.loadImage(csv, image, AirportTrie::new);
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        Files.write(csv, lines.subList(0, lines.size() - 1), StandardCharsets.UTF_8);
+        checkRejectedAndRebuilt();
+    }
+
+    /**
+     * Сравнивает дерево образа всего файла с деревом, загруженным из CSV-файла при построении образа.
+     */
+    public void testImageMatchesAirportTrie() throws IOException, FilterException {
+        Files.copy(Paths.get("airports.csv"), csv, StandardCopyOption.REPLACE_EXISTING);
+        Trie expected = Data.loadImage(csv, image, AirportTrie::new);
+        assertTrue(expected instanceof AirportTrie);
+        Trie actual = Data.loadImage(csv, image, AirportTrie::new);
+        assertTrue(actual instanceof ImageTrie);
+        assertSameResults(expected, actual);
+    }
+
+    private void checkTamperedLong(int position) throws IOException, FilterException {
+        Data.loadImage(csv, image, AirportTrie::new);
+        ByteBuffer field = read(position, Long.BYTES);
+        field.putLong(0, field.getLong(0) + 1);
+        write(position, field);
+        checkRejectedAndRebuilt();
+    }
+
+    private void checkTamperedInt(int position) throws IOException, FilterException {
+        Data.loadImage(csv, image, AirportTrie::new);
+        ByteBuffer field = read(position, Integer.BYTES);
+        field.putInt(0, field.getInt(0) + 1);
+        write(position, field);
+        checkRejectedAndRebuilt();
+    }
+
+    /**
+     * Проверяет, что образ не открывается, а загрузка читает CSV-файл и записывает образ заново.
+     */
+    private void checkRejectedAndRebuilt() throws IOException, FilterException {
+        assertNull(open());
+        Trie loaded = Data.loadImage(csv, image, AirportTrie::new);
+        assertFalse("данные загружаются из CSV-файла", loaded instanceof ImageTrie);
+        Trie reopened = open();
+        assertNotNull("образ перестроен", reopened);
+        assertSameResults(loaded, reopened);
+    }
+
+    private Trie open() throws IOException {
+        return IndexImage.open(image, Files.size(csv), Files.getLastModifiedTime(csv).toMillis());
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+                // читается до заполнения буфера
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void write(long position, ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+        }
+    }
+
+    private void truncate(long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static void assertSameResults(Trie expected, Trie actual) throws FilterException {
+        for (String prefix : PREFIXES) {
+            for (String filter : FILTERS) {
+                assertEquals("'" + prefix + "' " + filter,
+                        expected.search(prefix, filter, 0, Trie.NO_LIMIT), actual.search(prefix, filter, 0, Trie.NO_LIMIT));
+            }
+        }
+    }
+}
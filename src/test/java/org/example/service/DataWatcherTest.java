@@ -0,0 +1,190 @@
+package org.example.service;
+
+import junit.framework.TestCase;
+import org.example.exception.FilterException;
+import org.example.store.ArrayRowStore;
+import org.example.store.RowStore;
+import org.example.trie.AirportRow;
+import org.example.trie.AirportTrie;
+import org.example.trie.RadixTrie;
+import org.example.trie.Trie;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Проверяет, что после каждого применения изменений файла дерево наблюдателя находит те же строки,
+ * что и дерево, заново загруженное из того же файла.
+ */
+public class DataWatcherTest extends TestCase {
+    private static final String[] PREFIXES = {"", "a", "b", "g", "m", "n", "w", "x"};
+
+    private static final String[] FILTERS = {"", "column[9]>100", "column[4]=\"Canada\" || column[1]>3"};
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("airports", ".csv");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testAirportTrieMatchesFreshLoad() throws IOException, FilterException {
+        checkChanges(AirportTrie::new);
+    }
+
+    public void testRadixTrieMatchesFreshLoad() throws IOException, FilterException {
+        checkChanges(RadixTrie::new);
+    }
+
+    public void testParseFailureKeepsAppliedRows() throws IOException, FilterException {
+        ArrayRowStore store = new ArrayRowStore();
+        Trie trie = new AirportTrie(store);
+        DataWatcher watcher = new DataWatcher(file, store, trie);
+        List<String> lines = new ArrayList<>(Arrays.asList(
+                line(1, "Goroka Airport", "Canada", 5282),
+                line(2, "Madang Airport", "Papua New Guinea", 20)));
+        apply(watcher, lines);
+
+        lines.remove(1);
+        lines.add(line(3, "Nadzab Airport", "Papua New Guinea", 239));
+        lines.add("x,\"Broken Airport\"");
+        write(lines);
+        try {
+            watcher.apply(Files.readAllBytes(file));
+            fail("Строка с неверным идентификатором должна прерывать применение изменений");
+        } catch (NumberFormatException e) {
+            // строки до ошибки уже применены, удаление пропавших строк отложено
+        }
+        assertEquals(1, trie.search("nadzab", "", 0, Trie.NO_LIMIT).size());
+        assertEquals(1, trie.search("madang", "", 0, Trie.NO_LIMIT).size());
+
+        lines.remove(lines.size() - 1);
+        DataWatcher.Delta delta = apply(watcher, lines);
+        assertEquals(0, delta.added);
+        assertEquals(0, delta.changed);
+        assertEquals(1, delta.removed);
+        assertNull(trie.search("madang", "", 0, Trie.NO_LIMIT));
+        assertSameResults(trie, AirportTrie::new);
+    }
+
+    /**
+     * Последовательно применяет к файлу добавление, изменение на месте, переименование, удаление строки
+     * и строки с повторяющимися идентификаторами и после каждого изменения сравнивает результаты поиска.
+     */
+    private void checkChanges(Function<RowStore, Trie> factory) throws IOException, FilterException {
+        ArrayRowStore store = new ArrayRowStore();
+        Trie trie = factory.apply(store);
+        DataWatcher watcher = new DataWatcher(file, store, trie);
+        List<String> lines = new ArrayList<>(Arrays.asList(
+                line(1, "Goroka Airport", "Papua New Guinea", 5282),
+                line(2, "Madang Airport", "Papua New Guinea", 20),
+                line(3, "Mount Hagen Kagamuga Airport", "Papua New Guinea", 5388),
+                line(4, "Nadzab Airport", "Papua New Guinea", 239),
+                line(5, "Wewak International Airport", "Papua New Guinea", 19)));
+        DataWatcher.Delta delta = apply(watcher, lines);
+        assertEquals(5, delta.added);
+        assertSameResults(trie, factory);
+
+        lines.add(line(6, "Narsarsuaq Airport", "Greenland", 112));
+        delta = apply(watcher, lines);
+        assertEquals(1, delta.added);
+        assertEquals(0, delta.changed + delta.removed);
+        assertEquals(6, store.size());
+        assertSameResults(trie, factory);
+
+        lines.set(1, line(2, "Madang Airport", "Canada", 25));
+        delta = apply(watcher, lines);
+        assertEquals(1, delta.changed);
+        assertEquals(0, delta.added + delta.removed);
+        assertEquals("строка изменяется на месте", 6, store.size());
+        assertSameResults(trie, factory);
+
+        lines.set(2, line(3, "Bagdogra Airport", "India", 412));
+        delta = apply(watcher, lines);
+        assertEquals(1, delta.changed);
+        assertNull("старое название удаляется из дерева", trie.search("mount", "", 0, Trie.NO_LIMIT));
+        assertEquals(1, trie.search("bagdogra", "", 0, Trie.NO_LIMIT).size());
+        assertEquals(6, store.size());
+        assertSameResults(trie, factory);
+
+        lines.remove(3);
+        delta = apply(watcher, lines);
+        assertEquals(1, delta.removed);
+        assertEquals(0, delta.added + delta.changed);
+        assertNull(trie.search("nadzab", "", 0, Trie.NO_LIMIT));
+        assertSameResults(trie, factory);
+
+        lines.add(line(5, "Wapenamanda Airport", "Papua New Guinea", 5889));
+        lines.add(line(5, "Aalborg Airport", "Denmark", 10));
+        delta = apply(watcher, lines);
+        assertEquals("повторения идентификатора - отдельные строки", 2, delta.added);
+        assertSameResults(trie, factory);
+
+        lines.set(lines.size() - 2, line(5, "Wapenamanda Airport", "Canada", 5890));
+        delta = apply(watcher, lines);
+        assertEquals("изменяется только второе повторение", 1, delta.changed);
+        assertEquals(0, delta.added + delta.removed);
+        assertSameResults(trie, factory);
+
+        lines.remove(lines.size() - 1);
+        delta = apply(watcher, lines);
+        assertEquals(1, delta.removed);
+        assertEquals(0, delta.added + delta.changed);
+        assertNull(trie.search("aalborg", "", 0, Trie.NO_LIMIT));
+        assertEquals(1, trie.search("wapenamanda", "", 0, Trie.NO_LIMIT).size());
+        assertSameResults(trie, factory);
+    }
+
+    private DataWatcher.Delta apply(DataWatcher watcher, List<String> lines) throws IOException {
+        write(lines);
+        return watcher.apply(Files.readAllBytes(file));
+    }
+
+    private void write(List<String> lines) throws IOException {
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Сравнивает результаты поиска и ленивого обхода дерева наблюдателя с деревом, загруженным из файла заново.
+     */
+    private void assertSameResults(Trie trie, Function<RowStore, Trie> factory) throws IOException, FilterException {
+        Trie fresh = Data.readData(file, new ArrayRowStore(), factory);
+        for (String prefix : PREFIXES) {
+            for (String filter : FILTERS) {
+                String message = "'" + prefix + "' " + filter;
+                assertEquals("search " + message, fresh.search(prefix, filter, 0, Trie.NO_LIMIT),
+                        trie.search(prefix, filter, 0, Trie.NO_LIMIT));
+                assertEquals("iterator " + message, iterate(fresh, prefix, filter), iterate(trie, prefix, filter));
+            }
+        }
+    }
+
+    private static List<String> iterate(Trie trie, String prefix, String filter) throws FilterException {
+        Iterator<AirportRow> iterator = trie.iterator(prefix, filter);
+        if (iterator == null) {
+            return null;
+        }
+        List<String> lines = new ArrayList<>();
+        while (iterator.hasNext()) {
+            lines.add(iterator.next().toString());
+        }
+        return lines;
+    }
+
+    private static String line(int id, String name, String country, int altitude) {
+        return id + ",\"" + name + "\",\"" + name.split(" ")[0] + "\",\"" + country + "\",\"ABC\",\"ABCD\","
+                + (id * 1.5) + "," + (-id * 2.25) + "," + altitude + ",10,\"U\",\"Pacific/Port_Moresby\",\"airport\",\"OurAirports\"";
+    }
+}
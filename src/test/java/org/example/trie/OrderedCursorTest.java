@@ -0,0 +1,144 @@
+package org.example.trie;
+
+import junit.framework.TestCase;
+import org.example.entity.Column;
+import org.example.entity.ColumnType;
+import org.example.exception.FilterException;
+import org.example.store.ArrayRowStore;
+import org.example.store.MutableRowStore;
+import org.example.store.RowStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Проверяет, что обход дерева в порядке названий выдает строки в том же порядке, что и прежняя сортировка
+ * результатов по названию, выделенному из строки вывода, с сохранением порядка строк с одинаковыми названиями.
+ */
+public class OrderedCursorTest extends TestCase {
+    private static final String[] NAMES = {
+            "Bob", "bob", "BOB", "Boa Vista", "boa vista", "Bo", "bo", "Bob", "bob", "Bobby", "bOb",
+            "Ba", "b", "B", "Bo-1", "Bo 2", "Bo'3", "Boston Logan", "boston", "Bob", "Zeta", "alpha", "Alpha", "ALPHA"
+    };
+
+    private static final String[] PREFIXES = {"", "b", "B", "bo", "BO", "bob", "boa", "a", "z", "x"};
+
+    public void testAirportTrieMatchesSortedOutput() throws FilterException {
+        checkOrder(AirportTrie::new);
+    }
+
+    public void testRadixTrieMatchesSortedOutput() throws FilterException {
+        checkOrder(RadixTrie::new);
+    }
+
+    public void testAirportTrieMatchesSortedOutputWithFilter() throws FilterException {
+        checkFilteredOrder(AirportTrie::new);
+    }
+
+    public void testRadixTrieMatchesSortedOutputWithFilter() throws FilterException {
+        checkFilteredOrder(RadixTrie::new);
+    }
+
+    private static void checkOrder(Function<RowStore, Trie> factory) throws FilterException {
+        MutableRowStore store = new ArrayRowStore();
+        Trie trie = load(store, factory);
+        for (String prefix : PREFIXES) {
+            List<String> expected = sortedOutput(trie, store, prefix, null);
+            List<String> lines = trie.search(prefix, "", 0, Trie.NO_LIMIT);
+            assertEquals("search " + prefix, expected, lines);
+            assertEquals("iterator " + prefix, expected, iterate(trie, prefix, ""));
+            if (expected != null) {
+                for (int offset = 0; offset < expected.size(); offset += 3) {
+                    List<String> page = expected.subList(offset, Math.min(expected.size(), offset + 3));
+                    assertEquals("page " + prefix + " " + offset, page, trie.search(prefix, "", offset, 3));
+                }
+            }
+        }
+    }
+
+    private static void checkFilteredOrder(Function<RowStore, Trie> factory) throws FilterException {
+        MutableRowStore store = new ArrayRowStore();
+        Trie trie = load(store, factory);
+        for (String prefix : PREFIXES) {
+            List<String> expected = sortedOutput(trie, store, prefix, row -> row % 2 == 0);
+            List<String> lines = trie.search(prefix, "column[1]<>0 & column[9]=0", 0, Trie.NO_LIMIT);
+            assertEquals("search " + prefix, expected, lines);
+            assertEquals("iterator " + prefix, expected, iterate(trie, prefix, "column[1]<>0 & column[9]=0"));
+        }
+    }
+
+    /**
+     * Загружает названия в хранилище и дерево в порядке массива. Высота четных строк равна нулю.
+     */
+    private static Trie load(MutableRowStore store, Function<RowStore, Trie> factory) {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < NAMES.length; i++) {
+            Object[] information = new Object[Column.values().length];
+            for (Column column : Column.values()) {
+                if (column.getType() == ColumnType.STRING) {
+                    information[column.getIndex()] = column.name().toLowerCase() + i;
+                } else if (column.getType() == ColumnType.INTEGER) {
+                    information[column.getIndex()] = i + 1;
+                } else {
+                    information[column.getIndex()] = (double) i;
+                }
+            }
+            information[Column.ALTITUDE.getIndex()] = i % 2 == 0 ? 0 : i;
+            rows.add(store.add(information));
+        }
+        Trie trie = factory.apply(store);
+        for (int i = 0; i < NAMES.length; i++) {
+            trie.insert(NAMES[i], rows.get(i));
+        }
+        return trie;
+    }
+
+    /**
+     * Строит ожидаемый результат прежним способом: строки вывода собираются в порядке номеров
+     * и сортируются по названию, выделенному разбиением строки по кавычкам. Названия, отличающиеся
+     * только регистром, дерево хранит в одном слове и выводит в написании, вставленном первым.
+     */
+    private static List<String> sortedOutput(Trie trie, RowStore store, String prefix, IntPredicate filter) {
+        Map<String, String> originalNames = new HashMap<>();
+        for (String name : NAMES) {
+            originalNames.putIfAbsent(name.toLowerCase(), name);
+        }
+        List<String> lines = new ArrayList<>();
+        boolean found = false;
+        for (int row = 0; row < NAMES.length; row++) {
+            if (!NAMES[row].toLowerCase().startsWith(prefix.toLowerCase())) {
+                continue;
+            }
+            found = true;
+            if (filter == null || filter.test(row)) {
+                lines.add(((AbstractTrie<?>) trie).output(store.get(row), originalNames.get(NAMES[row].toLowerCase())));
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        lines.sort((o1, o2) -> {
+            String[] a1 = o1.split("\"");
+            String[] a2 = o2.split("\"");
+            return a1[1].compareTo(a2[1]);
+        });
+        return lines;
+    }
+
+    private static List<String> iterate(Trie trie, String prefix, String filter) throws FilterException {
+        Iterator<AirportRow> iterator = trie.iterator(prefix, filter);
+        if (iterator == null) {
+            return null;
+        }
+        List<String> lines = new ArrayList<>();
+        while (iterator.hasNext()) {
+            lines.add(iterator.next().toString());
+        }
+        return lines;
+    }
+}